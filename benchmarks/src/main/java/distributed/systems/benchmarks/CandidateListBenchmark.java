@@ -0,0 +1,73 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.election.CandidateView;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CandidateListBenchmark는 reelectLeader()의 후보 목록 처리 비용을 후보 수(10 ~ 100k)에 따라 측정합니다.
+ * - sortAndBinarySearch: getChildren()이 돌려준 (정렬되지 않은) 목록을 복사 → 정렬 → 이진 탐색 하는 기존 방식
+ * - candidateViewLookup: CandidateView의 정렬된 로컬 목록에서 선행 후보를 찾는 방식
+ * 서버 왕복은 포함하지 않으며, 순수하게 클라이언트 쪽 CPU 비용만 비교합니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CandidateListBenchmark {
+
+    private static final String ELECTION_NAMESPACE = "/election";
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int children;
+
+    // getChildren()이 돌려주는 것과 같은 정렬되지 않은 후보 목록
+    private List<String> serverOrder;
+
+    // 가장 최근에 등록한(가장 큰 순번의) 후보를 자신으로 둡니다.
+    private String currentZnodeName;
+
+    private CandidateView candidateView;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serverOrder = new ArrayList<>(children);
+        for (int i = 0; i < children; i++) {
+            serverOrder.add(String.format("c_%010d", i));
+        }
+        currentZnodeName = serverOrder.get(children - 1);
+        Collections.shuffle(serverOrder, new Random(42));
+
+        // ZooKeeper 연결 없이 NodeCreated 이벤트만 흘려 넣어 로컬 목록을 채웁니다.
+        candidateView = new CandidateView(null, ELECTION_NAMESPACE, candidateName -> { });
+        for (String candidate : serverOrder) {
+            candidateView.process(new WatchedEvent(Watcher.Event.EventType.NodeCreated,
+                    Watcher.Event.KeeperState.SyncConnected, ELECTION_NAMESPACE + "/" + candidate));
+        }
+    }
+
+    @Benchmark
+    public String sortAndBinarySearch() {
+        // getChildren()은 호출마다 새 목록을 반환하므로 복사 비용도 포함합니다.
+        List<String> candidates = new ArrayList<>(serverOrder);
+        Collections.sort(candidates);
+        if (candidates.get(0).equals(currentZnodeName)) {
+            return null;
+        }
+        return candidates.get(Collections.binarySearch(candidates, currentZnodeName) - 1);
+    }
+
+    @Benchmark
+    public String candidateViewLookup() {
+        return candidateView.predecessorOf(currentZnodeName);
+    }
+}
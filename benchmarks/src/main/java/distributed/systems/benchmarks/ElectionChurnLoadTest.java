@@ -0,0 +1,310 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.election.LeadershipListener;
+import distributed.systems.metrics.LatencyHistogram;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.server.ZooKeeperServer;
+
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ElectionChurnLoadTest는 후보가 계속 죽고 새로 들어오는(churn) 상황에서 선출 레시피가 견디는
+ * 초당 리더 교체 수와 그때 서버에 주는 부하를 측정하는 부하 생성기입니다.
+ * - 프로세스 내장 ZooKeeper 서버를 띄우고, 각자 자기 세션을 가진 후보 N개를 실행합니다.
+ * - 정해진 속도로 리더와 임의의 팔로워를 종료(세션 close)하고, 같은 수의 새 후보를 다시 참여시킵니다.
+ * - 초당 장애 조치 수, 리더 부재 시간, 장애 조치당 서버 요청 수, 서버의 Watch 수를 출력합니다.
+ * - herd 전략(모든 후보가 전체 목록에 Watcher를 걸고 변경마다 다시 읽음)과
+ *   reelection 전략(LeaderReElection의 선행 후보 감시)을 같은 부하로 비교하여 herd effect 차이를 보여 줍니다.
+ *
+ * 실행 예:
+ * java -Dchurn.candidates=100 -Dchurn.seconds=30 -Dchurn.leaderKillsPerSecond=2 \
+ *      -cp target/benchmarks.jar distributed.systems.benchmarks.ElectionChurnLoadTest
+ */
+public class ElectionChurnLoadTest {
+
+    // 리더 선출에 사용될 네임스페이스 경로
+    private static final String ELECTION_NAMESPACE = "/election";
+
+    // herd 전략 후보의 세션 타임아웃 (LeaderReElection의 SESSION_TIMEOUT과 같은 값)
+    private static final int SESSION_TIMEOUT = 3000;
+
+    // 시각이 기록되지 않았음을 나타내는 값
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // 후보 수, 측정 시간, 종료 속도 (모두 -Dchurn.* 시스템 속성으로 변경 가능)
+    private static final int CANDIDATES = Integer.getInteger("churn.candidates", 50);
+    private static final int SECONDS = Integer.getInteger("churn.seconds", 20);
+    private static final double LEADER_KILLS_PER_SECOND = Double.parseDouble(System.getProperty("churn.leaderKillsPerSecond", "2"));
+    private static final double FOLLOWER_KILLS_PER_SECOND = Double.parseDouble(System.getProperty("churn.followerKillsPerSecond", "2"));
+    private static final String STRATEGY = System.getProperty("churn.strategy", "both");
+
+    // 부하 생성기의 결과 출력은 레시피의 System.out 출력과 섞이지 않도록 원래 스트림으로 합니다.
+    private static final PrintStream REPORT = System.out;
+
+    /**
+     * Candidate는 부하 생성기가 종료시킬 수 있는 선출 후보입니다.
+     */
+    private interface Candidate {
+        void kill();
+    }
+
+    public static void main(String[] args) throws Throwable {
+        Recipes.silenceStdout();
+        try {
+            if (!STRATEGY.equals("reelection")) {
+                new ElectionChurnLoadTest(Strategy.HERD).run();
+            }
+            if (!STRATEGY.equals("herd")) {
+                new ElectionChurnLoadTest(Strategy.REELECTION).run();
+            }
+        } finally {
+            Recipes.restoreStdout();
+        }
+    }
+
+    private enum Strategy {
+        HERD,       // 모든 후보가 getChildren() Watcher로 전체 목록을 다시 읽는 단순 방식
+        REELECTION  // LeaderReElection의 선행 후보 감시 방식
+    }
+
+    private final Strategy strategy;
+
+    private EmbeddedZooKeeper embeddedZooKeeper;
+
+    // 살아 있는 후보 목록
+    private final List<Candidate> aliveCandidates = Collections.synchronizedList(new ArrayList<>());
+
+    // 현재 리더 (리더 부재 중이면 null)
+    private volatile Candidate leader;
+
+    // 리더를 종료시킨 시각 (새 리더가 나올 때까지 유지)
+    private volatile long leaderlessSinceNanos = NO_TIMESTAMP;
+
+    // 리더 종료 → 새 리더 확정까지의 시간
+    private final LatencyHistogram leaderlessTime = new LatencyHistogram();
+
+    private final AtomicLong failovers = new AtomicLong();
+    private final AtomicLong followerKills = new AtomicLong();
+
+    // 측정 중 관찰한 서버 Watch 수의 최댓값
+    private volatile int maxWatchCount;
+
+    private ElectionChurnLoadTest(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    private void run() throws Throwable {
+        embeddedZooKeeper = EmbeddedZooKeeper.start(CANDIDATES * 4 + 16);
+        ZooKeeper adminZooKeeper = embeddedZooKeeper.connect(30000, null);
+        EmbeddedZooKeeper.ensurePersistent(adminZooKeeper, ELECTION_NAMESPACE, new byte[]{});
+        ZooKeeperServer server = embeddedZooKeeper.server();
+
+        for (int i = 0; i < CANDIDATES; i++) {
+            spawnCandidate();
+        }
+
+        // 안정화 후, 아무 변화가 없을 때의 요청 수(주로 ping)를 재어 측정값에서 뺍니다.
+        Thread.sleep(2000);
+        long idleStartPackets = server.serverStats().getPacketsReceived();
+        long idleStartNanos = System.nanoTime();
+        Thread.sleep(2000);
+        double idlePacketsPerNano = (server.serverStats().getPacketsReceived() - idleStartPackets)
+                / (double) (System.nanoTime() - idleStartNanos);
+
+        long churnStartPackets = server.serverStats().getPacketsReceived();
+        long churnStartNanos = System.nanoTime();
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(this::killLeaderSafely, 0, periodMicros(LEADER_KILLS_PER_SECOND), TimeUnit.MICROSECONDS);
+        if (FOLLOWER_KILLS_PER_SECOND > 0) {
+            scheduler.scheduleAtFixedRate(this::killFollowerSafely, 0, periodMicros(FOLLOWER_KILLS_PER_SECOND), TimeUnit.MICROSECONDS);
+        }
+        scheduler.scheduleAtFixedRate(() -> maxWatchCount = Math.max(maxWatchCount,
+                server.getZKDatabase().getDataTree().getWatchCount()), 0, 100, TimeUnit.MILLISECONDS);
+
+        Thread.sleep(SECONDS * 1000L);
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+
+        // 마지막 장애 조치가 끝날 시간을 준 뒤 결과를 계산합니다.
+        Thread.sleep(1000);
+        long elapsedNanos = System.nanoTime() - churnStartNanos;
+        long churnPackets = server.serverStats().getPacketsReceived() - churnStartPackets
+                - Math.round(idlePacketsPerNano * elapsedNanos);
+        long completedFailovers = failovers.get();
+        int finalWatchCount = server.getZKDatabase().getDataTree().getWatchCount();
+
+        REPORT.println("=== " + strategy + " (" + CANDIDATES + " candidates, " + SECONDS + " s, "
+                + LEADER_KILLS_PER_SECOND + " leader kills/s, " + FOLLOWER_KILLS_PER_SECOND + " follower kills/s)");
+        REPORT.printf("failovers: %d (%.2f/s), follower kills: %d%n",
+                completedFailovers, completedFailovers / (elapsedNanos / 1e9), followerKills.get());
+        REPORT.println("time without leader: " + leaderlessTime.snapshot());
+        REPORT.printf("requests per failover (pings subtracted, incl. follower churn): %.1f%n",
+                completedFailovers == 0 ? 0.0 : churnPackets / (double) completedFailovers);
+        REPORT.println("server watches: final=" + finalWatchCount + " max=" + maxWatchCount);
+
+        synchronized (aliveCandidates) {
+            for (Candidate candidate : aliveCandidates) {
+                candidate.kill();
+            }
+            aliveCandidates.clear();
+        }
+        adminZooKeeper.close();
+        embeddedZooKeeper.close();
+    }
+
+    private static long periodMicros(double perSecond) {
+        return Math.max(1, Math.round(1_000_000 / perSecond));
+    }
+
+    /** 종료와 재참여 ******************************************************************************************* */
+
+    private void killLeaderSafely() {
+        try {
+            Candidate currentLeader = leader;
+            // 이전 장애 조치가 아직 끝나지 않았다면 이번 차례는 건너뜁니다.
+            if (currentLeader == null || leaderlessSinceNanos != NO_TIMESTAMP) {
+                return;
+            }
+            leader = null;
+            leaderlessSinceNanos = System.nanoTime();
+            aliveCandidates.remove(currentLeader);
+            currentLeader.kill();
+            spawnCandidate();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    private void killFollowerSafely() {
+        try {
+            Candidate follower;
+            synchronized (aliveCandidates) {
+                if (aliveCandidates.size() < 2) {
+                    return;
+                }
+                do {
+                    follower = aliveCandidates.get(ThreadLocalRandom.current().nextInt(aliveCandidates.size()));
+                } while (follower == leader);
+                aliveCandidates.remove(follower);
+            }
+            follower.kill();
+            followerKills.incrementAndGet();
+            spawnCandidate();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    private void spawnCandidate() throws Throwable {
+        Candidate candidate = strategy == Strategy.HERD
+                ? new HerdCandidate(this)
+                : new ReElectionCandidate(this);
+        aliveCandidates.add(candidate);
+    }
+
+    // 후보가 리더가 되었음을 통지받으면, 리더 부재 시간을 기록합니다.
+    private void onLeader(Candidate candidate) {
+        leader = candidate;
+        long since = leaderlessSinceNanos;
+        if (since != NO_TIMESTAMP) {
+            leaderlessTime.recordSince(since);
+            leaderlessSinceNanos = NO_TIMESTAMP;
+            failovers.incrementAndGet();
+        }
+    }
+
+    /** 후보 구현 ******************************************************************************************* */
+
+    /**
+     * ReElectionCandidate는 기본 패키지의 LeaderReElection 인스턴스 하나(세션 하나)를 감쌉니다.
+     */
+    private static final class ReElectionCandidate implements Candidate {
+
+        private final Object recipe;
+
+        ReElectionCandidate(ElectionChurnLoadTest loadTest) throws Throwable {
+            recipe = Recipes.newRecipe("LeaderReElection", loadTest.embeddedZooKeeper.connectString());
+            LeadershipListener listener = (namespace, leader) -> {
+                if (leader) {
+                    loadTest.onLeader(this);
+                }
+            };
+            MethodHandles.publicLookup()
+                    .findVirtual(recipe.getClass(), "setLeadershipListener",
+                            MethodType.methodType(void.class, LeadershipListener.class))
+                    .invoke(recipe, listener);
+            Recipes.noArgMethod(recipe, "connectToZooKeeper").invoke(recipe);
+            Recipes.noArgMethod(recipe, "volunteerForLeadership").invoke(recipe);
+            Recipes.noArgMethod(recipe, "reelectLeader").invoke(recipe);
+        }
+
+        @Override
+        public void kill() {
+            try {
+                MethodHandle close = Recipes.noArgMethod(recipe, "close");
+                close.invoke(recipe);
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * HerdCandidate는 LeaderElection.electLeader()처럼 전체 후보 목록을 읽어 가장 작은 후보를 리더로 정하되,
+     * 장애 조치를 위해 목록 전체에 Watcher를 겁니다. 목록이 바뀔 때마다 모든 후보가 깨어나 다시 읽습니다(herd effect).
+     */
+    private static final class HerdCandidate implements Candidate, Watcher {
+
+        private final ElectionChurnLoadTest loadTest;
+        private final ZooKeeper zooKeeper;
+        private final String currentZnodeName;
+        private boolean leader;
+
+        HerdCandidate(ElectionChurnLoadTest loadTest) throws Exception {
+            this.loadTest = loadTest;
+            this.zooKeeper = loadTest.embeddedZooKeeper.connect(SESSION_TIMEOUT, this);
+            String znodeFullPath = zooKeeper.create(ELECTION_NAMESPACE + "/c_", new byte[]{},
+                    ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL_SEQUENTIAL);
+            currentZnodeName = znodeFullPath.replace(ELECTION_NAMESPACE + "/", "");
+            electLeader();
+        }
+
+        private synchronized void electLeader() {
+            try {
+                List<String> children = zooKeeper.getChildren(ELECTION_NAMESPACE, this);
+                Collections.sort(children);
+                if (!leader && children.get(0).equals(currentZnodeName)) {
+                    leader = true;
+                    loadTest.onLeader(this);
+                }
+            } catch (KeeperException | InterruptedException e) {
+                // 종료된 세션에서 도착한 늦은 이벤트 등은 무시합니다.
+            }
+        }
+
+        @Override
+        public void process(WatchedEvent watchedEvent) {
+            if (watchedEvent.getType() == Event.EventType.NodeChildrenChanged) {
+                electLeader();
+            }
+        }
+
+        @Override
+        public void kill() {
+            try {
+                zooKeeper.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
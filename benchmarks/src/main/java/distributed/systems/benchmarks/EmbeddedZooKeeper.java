@@ -0,0 +1,108 @@
+package distributed.systems.benchmarks;
+
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.server.ServerCnxnFactory;
+import org.apache.zookeeper.server.ZooKeeperServer;
+
+import java.io.File;
+import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * EmbeddedZooKeeper 클래스는 벤치마크/부하 테스트용으로 같은 프로세스 안에서 단일 ZooKeeper 서버를 실행합니다.
+ * - 루프백의 빈 포트를 사용하므로 외부 ZooKeeper 설치나 2181 포트가 필요 없습니다.
+ * - 데이터 디렉토리는 임시 디렉토리에 만들고 close() 시 삭제합니다.
+ */
+public class EmbeddedZooKeeper implements AutoCloseable {
+
+    // 서버 tickTime (밀리초). 세션 타임아웃의 최솟값은 2 * tickTime 입니다.
+    private static final int TICK_TIME = 500;
+
+    private final File dataDirectory;
+    private final ZooKeeperServer server;
+    private final ServerCnxnFactory connectionFactory;
+
+    private EmbeddedZooKeeper(File dataDirectory, ZooKeeperServer server, ServerCnxnFactory connectionFactory) {
+        this.dataDirectory = dataDirectory;
+        this.server = server;
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * start() 메서드는 루프백의 빈 포트에서 ZooKeeper 서버를 시작합니다.
+     *
+     * @param maxClientConnections 허용할 최대 클라이언트 연결 수
+     */
+    public static EmbeddedZooKeeper start(int maxClientConnections) throws IOException, InterruptedException {
+        File dataDirectory = Files.createTempDirectory("embedded-zookeeper").toFile();
+        ZooKeeperServer server = new ZooKeeperServer(dataDirectory, dataDirectory, TICK_TIME);
+        ServerCnxnFactory connectionFactory = ServerCnxnFactory.createFactory(
+                new InetSocketAddress("127.0.0.1", 0), maxClientConnections);
+        connectionFactory.startup(server);
+        return new EmbeddedZooKeeper(dataDirectory, server, connectionFactory);
+    }
+
+    public static EmbeddedZooKeeper start() throws IOException, InterruptedException {
+        return start(1000);
+    }
+
+    // 클라이언트가 사용할 연결 문자열 (예: "127.0.0.1:34567")
+    public String connectString() {
+        return "127.0.0.1:" + connectionFactory.getLocalPort();
+    }
+
+    // 서버 내부 통계 (처리한 요청 수, Watch 수 등)에 접근하기 위한 서버 객체
+    public ZooKeeperServer server() {
+        return server;
+    }
+
+    /**
+     * connect() 메서드는 새 세션을 열고 SyncConnected가 될 때까지 기다립니다.
+     *
+     * @param sessionTimeout 세션 타임아웃 (밀리초)
+     * @param watcher        기본 Watcher, null이면 연결 대기 외에는 아무것도 하지 않습니다.
+     */
+    public ZooKeeper connect(int sessionTimeout, Watcher watcher) throws IOException, InterruptedException {
+        CountDownLatch connected = new CountDownLatch(1);
+        ZooKeeper zooKeeper = new ZooKeeper(connectString(), sessionTimeout, event -> {
+            if (event.getState() == Watcher.Event.KeeperState.SyncConnected) {
+                connected.countDown();
+            }
+            if (watcher != null) {
+                watcher.process(event);
+            }
+        });
+        if (!connected.await(10, TimeUnit.SECONDS)) {
+            zooKeeper.close();
+            throw new IOException("Timed out connecting to " + connectString());
+        }
+        return zooKeeper;
+    }
+
+    /**
+     * ensurePersistent() 메서드는 Persistent znode를 (없으면) 생성합니다.
+     */
+    public static void ensurePersistent(ZooKeeper zooKeeper, String path, byte[] data)
+            throws KeeperException, InterruptedException {
+        try {
+            zooKeeper.create(path, data, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+        } catch (KeeperException.NodeExistsException e) {
+            // 이미 있으면 그대로 사용합니다.
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        connectionFactory.shutdown();
+        server.shutdown();
+        try (Stream<Path> files = Files.walk(dataDirectory.toPath())) {
+            files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
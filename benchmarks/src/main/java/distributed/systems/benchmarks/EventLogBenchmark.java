@@ -0,0 +1,54 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventLogBenchmark는 이벤트 스레드들이 로그 한 줄을 남기는 비용을 비교합니다. (4개 스레드 동시 기록)
+ * - printlnConcat: 기존 방식. 문자열을 이어 붙이고 동기화된 PrintStream.println()을 호출합니다.
+ * - eventLogRecord: EventLog.record()로 링 버퍼에 기록하고, 출력은 백그라운드 스레드가 합니다.
+ * 두 방식 모두 출력 대상은 버리는 스트림이므로 디스크 / 콘솔 I/O는 포함하지 않습니다. (실제 콘솔에서는 차이가 더 커집니다)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class EventLogBenchmark {
+
+    private static final String ZNODE_PATH = "/election/c_0000000042";
+
+    private PrintStream printStream;
+
+    private EventLog eventLog;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        printStream = new PrintStream(OutputStream.nullOutputStream(), false);
+        eventLog = new EventLog(8192, LogEvent.Level.DEBUG, 1,
+                new PrintStream(OutputStream.nullOutputStream(), false), false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventLog.close();
+        System.out.println("dropped: " + eventLog.getDropped());
+    }
+
+    @Benchmark
+    public void printlnConcat() {
+        printStream.println("Znode created: " + ZNODE_PATH);
+    }
+
+    @Benchmark
+    public boolean eventLogRecord() {
+        return eventLog.record(LogEvent.ZNODE_CREATED, ZNODE_PATH, null);
+    }
+}
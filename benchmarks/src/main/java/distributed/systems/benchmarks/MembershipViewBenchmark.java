@@ -0,0 +1,95 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.monitoring.MembershipView;
+import org.apache.zookeeper.data.Stat;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MembershipViewBenchmark는 NodeChildrenChanged 한 번(구성원 1명 교체)을 처리하는 비용을 그룹 크기에 따라 측정합니다.
+ * - hashSetDiff: 전체 목록을 받은 소비자가 이전 목록과 HashSet으로 직접 비교하는 방식
+ * - membershipViewUpdate: MembershipView가 정렬된 배열과 병합으로 추가 / 삭제된 구성원만 계산하는 방식
+ * 서버 왕복은 포함하지 않습니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MembershipViewBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int members;
+
+    // 구성원 한 명만 다른 두 목록을 번갈아 받습니다. (getChildren()처럼 정렬되지 않은 순서)
+    private List<String> even;
+    private List<String> odd;
+
+    private List<String> previous;
+
+    private MembershipView membershipView;
+
+    // 받은 목록 수 (홀짝으로 목록을 고르고, cversion으로도 사용합니다)
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        even = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            even.add(String.format("member_%010d", i));
+        }
+        odd = new ArrayList<>(even);
+        odd.set(members / 2, "member_joined");
+        Collections.shuffle(even, new Random(42));
+        Collections.shuffle(odd, new Random(43));
+
+        previous = even;
+        membershipView = new MembershipView();
+        membershipView.update(even, stat(round));
+    }
+
+    @Benchmark
+    public int hashSetDiff() {
+        List<String> next = next();
+        Set<String> before = new HashSet<>(previous);
+        Set<String> after = new HashSet<>(next);
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        for (String member : after) {
+            if (!before.contains(member)) {
+                added.add(member);
+            }
+        }
+        for (String member : before) {
+            if (!after.contains(member)) {
+                removed.add(member);
+            }
+        }
+        previous = next;
+        return added.size() + removed.size();
+    }
+
+    @Benchmark
+    public MembershipView.Diff membershipViewUpdate() {
+        List<String> next = next();
+        return membershipView.update(next, stat(round));
+    }
+
+    private List<String> next() {
+        return (++round & 1) == 1 ? odd : even;
+    }
+
+    private static Stat stat(int cversion) {
+        Stat stat = new Stat();
+        stat.setCversion(cversion);
+        return stat;
+    }
+}
@@ -0,0 +1,113 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.partition.PartitionAssignment;
+import distributed.systems.partition.PartitionRing;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PartitionAssignmentBenchmark는 리더가 후보 목록 변화에 맞춰 파티션 배정을 고치는 비용을 측정합니다.
+ * - 배정 계산: 후보 하나가 떠났다가 돌아올 때 PartitionRing을 증분으로 고치는 방식(ringMemberChange)과,
+ *   모든 후보로 배정을 처음부터 다시 계산하는 방식(ringRebuild) 비교
+ * - 배정 쓰기: 후보별 배정 znode를 setData() 한 번씩 쓰는 방식(perMemberSetData)과 multi() 한 번으로 쓰는 방식(batchedMulti) 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionAssignmentBenchmark {
+
+    private static final String ROOT = "/assignment_benchmark";
+
+    private static final int VIRTUAL_NODES = 64;
+
+    @Param({"10", "100"})
+    public int members;
+
+    @Param({"1024"})
+    public int partitions;
+
+    private EmbeddedZooKeeper embeddedZooKeeper;
+    private ZooKeeper zooKeeper;
+    private List<String> memberNames;
+    private List<byte[]> assignments;
+    private PartitionRing ring;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        embeddedZooKeeper = EmbeddedZooKeeper.start();
+        zooKeeper = embeddedZooKeeper.connect(30000, null);
+        EmbeddedZooKeeper.ensurePersistent(zooKeeper, ROOT, new byte[0]);
+
+        memberNames = new ArrayList<>();
+        ring = new PartitionRing(partitions, VIRTUAL_NODES);
+        Set<String> changed = new HashSet<>();
+        for (int m = 0; m < members; m++) {
+            String name = String.format("c_%010d", m);
+            memberNames.add(name);
+            ring.add(name, changed);
+        }
+        assignments = new ArrayList<>();
+        for (String name : memberNames) {
+            byte[] data = PartitionAssignment.encode(ring.partitionsOf(name));
+            assignments.add(data);
+            EmbeddedZooKeeper.ensurePersistent(zooKeeper, ROOT + "/" + name, data);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        zooKeeper.close();
+        embeddedZooKeeper.close();
+    }
+
+    // 후보 하나가 떠났다가 다시 참여할 때 배정을 증분으로 고칩니다. (옮겨지는 파티션 수에 비례)
+    @Benchmark
+    public Set<String> ringMemberChange() {
+        Set<String> changed = new HashSet<>();
+        String member = memberNames.get(members / 2);
+        ring.remove(member, changed);
+        ring.add(member, changed);
+        return changed;
+    }
+
+    // 같은 후보 목록으로 배정을 처음부터 다시 계산합니다. (후보 수 × 가상 노드 수와 파티션 수에 비례)
+    @Benchmark
+    public BitSet ringRebuild() {
+        PartitionRing rebuilt = new PartitionRing(partitions, VIRTUAL_NODES);
+        Set<String> changed = new HashSet<>();
+        for (String name : memberNames) {
+            rebuilt.add(name, changed);
+        }
+        return rebuilt.partitionsOf(memberNames.get(0));
+    }
+
+    // 모든 후보의 배정 znode를 후보마다 setData() 한 번씩 씁니다. (후보 수만큼 왕복, 중간 상태가 보입니다)
+    @Benchmark
+    public int perMemberSetData() throws Exception {
+        int version = 0;
+        for (int m = 0; m < members; m++) {
+            version += zooKeeper.setData(ROOT + "/" + memberNames.get(m), assignments.get(m), -1).getVersion();
+        }
+        return version;
+    }
+
+    // 모든 후보의 배정 znode를 multi() 한 번으로 씁니다. (왕복 한 번, 원자적)
+    @Benchmark
+    public List<OpResult> batchedMulti() throws Exception {
+        List<Op> ops = new ArrayList<>(members);
+        for (int m = 0; m < members; m++) {
+            ops.add(Op.setData(ROOT + "/" + memberNames.get(m), assignments.get(m), -1));
+        }
+        return zooKeeper.multi(ops);
+    }
+}
@@ -0,0 +1,58 @@
+package distributed.systems.benchmarks;
+
+import org.apache.zookeeper.WatchedEvent;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Recipes 클래스는 기본 패키지에 있는 예제 레시피(LeaderReElection, WatcherMonitoring 등)를
+ * 이름 있는 패키지의 벤치마크에서 호출할 수 있도록 MethodHandle로 감쌉니다.
+ * - 기본 패키지의 클래스는 import 할 수 없으므로, 클래스 이름으로 찾아 public 메서드만 호출합니다.
+ * - MethodHandle은 setup 단계에서 한 번만 만들어 두므로 측정 구간의 반사(reflection) 비용은 무시할 수 있습니다.
+ */
+final class Recipes {
+
+    private static final PrintStream ORIGINAL_OUT = System.out;
+
+    private Recipes() {
+    }
+
+    /**
+     * newRecipe() 메서드는 기본 생성자로 레시피 인스턴스를 만듭니다.
+     * - 레시피의 ZOOKEEPER_ADDRESS 상수는 클래스 초기화 때 읽히므로, 먼저 zookeeper.address를 설정합니다.
+     */
+    static Object newRecipe(String className, String connectString) throws Throwable {
+        System.setProperty("zookeeper.address", connectString);
+        Class<?> recipeClass = Class.forName(className);
+        return MethodHandles.publicLookup()
+                .findConstructor(recipeClass, MethodType.methodType(void.class))
+                .invoke();
+    }
+
+    // 인자 없는 public 메서드(예: connectToZooKeeper, reelectLeader)의 MethodHandle을 반환합니다.
+    static MethodHandle noArgMethod(Object recipe, String methodName) throws ReflectiveOperationException {
+        return MethodHandles.publicLookup()
+                .findVirtual(recipe.getClass(), methodName, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(void.class, Object.class));
+    }
+
+    // Watcher.process(WatchedEvent)의 MethodHandle을 반환합니다.
+    static MethodHandle processMethod(Object recipe) throws ReflectiveOperationException {
+        return MethodHandles.publicLookup()
+                .findVirtual(recipe.getClass(), "process", MethodType.methodType(void.class, WatchedEvent.class))
+                .asType(MethodType.methodType(void.class, Object.class, WatchedEvent.class));
+    }
+
+    // 레시피의 System.out 출력이 측정 결과를 흐리지 않도록 출력을 버립니다.
+    static void silenceStdout() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    static void restoreStdout() {
+        System.setOut(ORIGINAL_OUT);
+    }
+}
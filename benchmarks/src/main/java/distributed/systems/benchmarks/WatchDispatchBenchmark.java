@@ -0,0 +1,84 @@
+package distributed.systems.benchmarks;
+
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WatchDispatchBenchmark는 LeaderReElection.process()로 들어오는 Watch 이벤트 처리 비용을 측정합니다.
+ * - nodeDeleted: 선행 후보의 NodeDeleted 이벤트 → reelectLeader() (getChildren + 정렬 + exists 재등록)
+ * - ignoredEvent: 처리 대상이 아닌 이벤트의 디스패치 비용 (기준값)
+ * 프로세스 내장 ZooKeeper 서버를 사용하므로 외부 서버가 필요 없습니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WatchDispatchBenchmark {
+
+    private static final String ELECTION_NAMESPACE = "/election";
+
+    @Param({"10", "100", "1000"})
+    public int children;
+
+    private EmbeddedZooKeeper embeddedZooKeeper;
+
+    // 다른 후보들을 등록해 두는 관리용 세션
+    private ZooKeeper adminZooKeeper;
+
+    private Object leaderReElection;
+    private MethodHandle process;
+
+    private WatchedEvent predecessorDeleted;
+    private WatchedEvent ignoredEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Recipes.silenceStdout();
+        embeddedZooKeeper = EmbeddedZooKeeper.start();
+        adminZooKeeper = embeddedZooKeeper.connect(30000, null);
+        EmbeddedZooKeeper.ensurePersistent(adminZooKeeper, ELECTION_NAMESPACE, new byte[]{});
+
+        // 측정 대상 후보보다 앞선 후보 (children - 1)개를 먼저 등록합니다.
+        String predecessor = null;
+        for (int i = 0; i < children - 1; i++) {
+            predecessor = adminZooKeeper.create(ELECTION_NAMESPACE + "/c_", new byte[]{},
+                    ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL_SEQUENTIAL);
+        }
+
+        leaderReElection = Recipes.newRecipe("LeaderReElection", embeddedZooKeeper.connectString());
+        Recipes.noArgMethod(leaderReElection, "connectToZooKeeper").invoke(leaderReElection);
+        Recipes.noArgMethod(leaderReElection, "volunteerForLeadership").invoke(leaderReElection);
+        Recipes.noArgMethod(leaderReElection, "reelectLeader").invoke(leaderReElection);
+        process = Recipes.processMethod(leaderReElection);
+
+        // 선행 후보가 실제로 삭제되지는 않았으므로, 재선출은 매번 같은 선행 후보에 Watcher를 다시 등록합니다.
+        String deletedPath = predecessor != null ? predecessor : ELECTION_NAMESPACE + "/c_none";
+        predecessorDeleted = new WatchedEvent(Watcher.Event.EventType.NodeDeleted,
+                Watcher.Event.KeeperState.SyncConnected, deletedPath);
+        ignoredEvent = new WatchedEvent(Watcher.Event.EventType.NodeDataChanged,
+                Watcher.Event.KeeperState.SyncConnected, deletedPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        Recipes.noArgMethod(leaderReElection, "close").invoke(leaderReElection);
+        adminZooKeeper.close();
+        embeddedZooKeeper.close();
+        Recipes.restoreStdout();
+    }
+
+    @Benchmark
+    public void nodeDeleted() throws Throwable {
+        process.invokeExact(leaderReElection, predecessorDeleted);
+    }
+
+    @Benchmark
+    public void ignoredEvent() throws Throwable {
+        process.invokeExact(leaderReElection, ignoredEvent);
+    }
+}
@@ -0,0 +1,74 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.dispatch.OrderedWatchDispatcher;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WatchDispatchScalingBenchmark는 여러 경로의 Watch 이벤트 처리량을 비교합니다.
+ * - eventThread: 기존 방식처럼 한 스레드(이벤트 스레드)에서 모든 이벤트를 차례로 처리
+ * - virtualThreads: OrderedWatchDispatcher로 경로별 순서를 지키며 가상 스레드에서 처리
+ * 각 이벤트 처리는 약간의 CPU 작업과 블로킹 호출(서버 왕복을 흉내 낸 대기)로 이루어집니다.
+ * 한 번의 측정은 EVENTS개의 이벤트를 paths개의 경로에 고르게 나누어 보내고 모두 처리될 때까지입니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WatchDispatchScalingBenchmark {
+
+    private static final int EVENTS = 1000;
+
+    // 이벤트 하나를 처리하며 블로킹되는 시간 (서버 왕복 흉내)
+    private static final long BLOCKING_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    @Param({"1", "64"})
+    public int paths;
+
+    private WatchedEvent[] events;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        events = new WatchedEvent[EVENTS];
+        for (int i = 0; i < EVENTS; i++) {
+            events[i] = new WatchedEvent(Watcher.Event.EventType.NodeDataChanged,
+                    Watcher.Event.KeeperState.SyncConnected, "/config/path_" + (i % paths));
+        }
+    }
+
+    private static void handle(WatchedEvent event) {
+        Blackhole.consumeCPU(200);
+        LockSupport.parkNanos(BLOCKING_NANOS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void eventThread() {
+        for (WatchedEvent event : events) {
+            handle(event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void virtualThreads() throws InterruptedException {
+        CountDownLatch processed = new CountDownLatch(EVENTS);
+        try (OrderedWatchDispatcher dispatcher = new OrderedWatchDispatcher(event -> {
+            handle(event);
+            processed.countDown();
+        })) {
+            for (WatchedEvent event : events) {
+                dispatcher.process(event);
+            }
+            processed.await();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package distributed.systems.benchmarks;
+
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WatcherMonitoringBenchmark는 WatcherMonitoring.watchTargetZnode()의 전체 읽기 + Watcher 재등록 경로를 측정합니다.
+ * - 한 번 호출할 때마다 모든 감시 경로에 getData / getChildren을 비동기로 보내고 응답을 모두 기다립니다.
+ * - 감시 경로 수를 바꿔 가며 요청 파이프라이닝의 효과를, 자식 수를 바꿔 가며 getChildren() 응답 크기의 영향을 봅니다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WatcherMonitoringBenchmark {
+
+    // WatcherMonitoring이 감시하는 대상 znode의 경로
+    private static final String TARGET_ZNODE = "/target_znode";
+
+    @Param({"0", "100", "1000"})
+    public int children;
+
+    // 감시할 경로 수 (1이면 TARGET_ZNODE 하나, 그 이상이면 TARGET_ZNODE_<i>)
+    @Param({"1", "100"})
+    public int paths;
+
+    private EmbeddedZooKeeper embeddedZooKeeper;
+    private ZooKeeper adminZooKeeper;
+
+    private Object watcherMonitoring;
+    private MethodHandle watchTargetZnode;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Recipes.silenceStdout();
+        embeddedZooKeeper = EmbeddedZooKeeper.start();
+        adminZooKeeper = embeddedZooKeeper.connect(30000, null);
+        List<String> monitoredPaths = new ArrayList<>();
+        for (int p = 0; p < paths; p++) {
+            String path = paths == 1 ? TARGET_ZNODE : TARGET_ZNODE + "_" + p;
+            monitoredPaths.add(path);
+            // 경로 하나와 그 자식들을 multi() 한 번으로 만듭니다.
+            List<Op> ops = new ArrayList<>();
+            ops.add(Op.create(path, "benchmark-config".getBytes(StandardCharsets.UTF_8),
+                    ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT));
+            for (int i = 0; i < children; i++) {
+                ops.add(Op.create(path + "/child_" + i, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT));
+            }
+            adminZooKeeper.multi(ops);
+        }
+
+        // WatcherMonitoring은 감시 경로를 클래스 초기화 때 읽으므로, 레시피를 만들기 전에 설정합니다.
+        System.setProperty("monitor.paths", String.join(",", monitoredPaths));
+        watcherMonitoring = Recipes.newRecipe("WatcherMonitoring", embeddedZooKeeper.connectString());
+        Recipes.noArgMethod(watcherMonitoring, "connectToZooKeeper").invoke(watcherMonitoring);
+        watchTargetZnode = Recipes.noArgMethod(watcherMonitoring, "watchTargetZnode");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        Recipes.noArgMethod(watcherMonitoring, "close").invoke(watcherMonitoring);
+        adminZooKeeper.close();
+        embeddedZooKeeper.close();
+        Recipes.restoreStdout();
+    }
+
+    @Benchmark
+    public void watchTargetZnode() throws Throwable {
+        watchTargetZnode.invokeExact(watcherMonitoring);
+    }
+}
@@ -0,0 +1,80 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.monitoring.ZnodeMonitor;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZnodeCacheBenchmark는 설정 znode 하나를 읽는 비용을 비교합니다.
+ * - serverRead: 기존 방식처럼 매번 ZooKeeper.getData() 후 new String()으로 변환 (서버 왕복 1번)
+ * - cachedRead: ZnodeMonitor.getData()의 캐시 적중 (로컬 메모리 조회)
+ * - cachedString: ZnodeMonitor.getDataAsString()의 캐시 적중 (같은 버전은 한 번만 디코딩)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZnodeCacheBenchmark {
+
+    private static final String CONFIG_ZNODE = "/config_znode";
+
+    // 설정값 크기 (바이트)
+    @Param({"64", "4096"})
+    public int dataSize;
+
+    private EmbeddedZooKeeper embeddedZooKeeper;
+    private ZooKeeper zooKeeper;
+    private ZnodeMonitor znodeMonitor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        embeddedZooKeeper = EmbeddedZooKeeper.start();
+        zooKeeper = embeddedZooKeeper.connect(30000, null);
+        EmbeddedZooKeeper.ensurePersistent(zooKeeper, CONFIG_ZNODE,
+                "x".repeat(dataSize).getBytes(StandardCharsets.UTF_8));
+
+        znodeMonitor = new ZnodeMonitor(zooKeeper, List.of(CONFIG_ZNODE), new ZnodeMonitor.Listener() {
+            @Override
+            public void dataChanged(String path, byte[] data, Stat stat) {
+            }
+
+            @Override
+            public void childrenChanged(String path, List<String> children) {
+            }
+
+            @Override
+            public void deleted(String path) {
+            }
+        });
+        znodeMonitor.loadAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        znodeMonitor.close();
+        zooKeeper.close();
+        embeddedZooKeeper.close();
+    }
+
+    @Benchmark
+    public String serverRead() throws Exception {
+        return new String(zooKeeper.getData(CONFIG_ZNODE, false, null), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] cachedRead() throws Exception {
+        return znodeMonitor.getData(CONFIG_ZNODE);
+    }
+
+    @Benchmark
+    public String cachedString() throws Exception {
+        return znodeMonitor.getDataAsString(CONFIG_ZNODE);
+    }
+}
@@ -0,0 +1,105 @@
+package distributed.systems.benchmarks;
+
+import distributed.systems.monitoring.ZnodeMonitor;
+import distributed.systems.monitoring.ZnodeSnapshot;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ZnodeSnapshotBenchmark는 재시작한 감시 프로세스가 모든 감시 경로를 서버와 맞출 때까지(loadAll()) 걸리는 시간을 비교합니다.
+ * - coldStart: 스냅샷 없이 모든 경로에 getData() + getChildren()을 보냅니다. (기존 방식)
+ * - warmStart: 스냅샷 파일을 열어(매핑 + 레코드 재생) 값을 먼저 제공하고, exists()로 Stat만 비교합니다.
+ *   바뀐 경로가 없으므로 데이터는 다시 읽지 않고, 자식 Watcher를 다시 거는 getChildren()만 함께 보냅니다.
+ * - 두 방식 모두 왕복 한 번이므로 차이는 응답에 실리는 데이터 양에서 나옵니다. (dataSize가 클수록 차이가 커집니다)
+ *   warmStart는 이와 별개로 loadAll()이 끝나기 전부터 복원한 값을 제공합니다.
+ * - 재시작을 흉내 내므로 호출마다 새 ZnodeMonitor(와 스냅샷)를 만들어 한 번만 측정합니다. (SingleShotTime)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 30)
+@Fork(1)
+public class ZnodeSnapshotBenchmark {
+
+    private static final String ROOT = "/snapshot_benchmark";
+
+    private static final ZnodeMonitor.Listener IGNORE = new ZnodeMonitor.Listener() {
+        @Override
+        public void dataChanged(String path, byte[] data, Stat stat) {
+        }
+
+        @Override
+        public void childrenChanged(String path, List<String> children) {
+        }
+
+        @Override
+        public void deleted(String path) {
+        }
+    };
+
+    @Param({"100", "1000"})
+    public int paths;
+
+    // 경로마다의 데이터 크기 (바이트)
+    @Param({"4096", "65536"})
+    public int dataSize;
+
+    private EmbeddedZooKeeper embeddedZooKeeper;
+    private ZooKeeper zooKeeper;
+    private List<String> monitoredPaths;
+    private Path snapshotFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        embeddedZooKeeper = EmbeddedZooKeeper.start();
+        zooKeeper = embeddedZooKeeper.connect(30000, null);
+        EmbeddedZooKeeper.ensurePersistent(zooKeeper, ROOT, new byte[0]);
+        byte[] data = new byte[dataSize];
+        monitoredPaths = new ArrayList<>();
+        for (int p = 0; p < paths; p++) {
+            String path = ROOT + "/config_" + p;
+            EmbeddedZooKeeper.ensurePersistent(zooKeeper, path, data);
+            EmbeddedZooKeeper.ensurePersistent(zooKeeper, path + "/member", new byte[0]);
+            monitoredPaths.add(path);
+        }
+
+        // 한 번 전체를 읽으며 스냅샷을 채워 둡니다. (이전 프로세스가 남긴 스냅샷)
+        snapshotFile = Files.createTempFile("znode-snapshot", ".bin");
+        Files.delete(snapshotFile);
+        try (ZnodeSnapshot snapshot = new ZnodeSnapshot(snapshotFile)) {
+            new ZnodeMonitor(zooKeeper, monitoredPaths, IGNORE, 0, ZnodeMonitor.DEFAULT_CACHE_BYTES, snapshot).loadAll();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        zooKeeper.close();
+        embeddedZooKeeper.close();
+        Files.deleteIfExists(snapshotFile);
+    }
+
+    @Benchmark
+    public ZnodeMonitor coldStart() throws Exception {
+        ZnodeMonitor znodeMonitor = new ZnodeMonitor(zooKeeper, monitoredPaths, IGNORE);
+        znodeMonitor.loadAll();
+        return znodeMonitor;
+    }
+
+    @Benchmark
+    public ZnodeMonitor warmStart() throws Exception {
+        try (ZnodeSnapshot snapshot = new ZnodeSnapshot(snapshotFile)) {
+            ZnodeMonitor znodeMonitor = new ZnodeMonitor(zooKeeper, monitoredPaths, IGNORE, 0,
+                    ZnodeMonitor.DEFAULT_CACHE_BYTES, snapshot);
+            znodeMonitor.loadAll();
+            return znodeMonitor;
+        }
+    }
+}
@@ -1,3 +1,7 @@
+import distributed.systems.dispatch.OrderedWatchDispatcher;
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import distributed.systems.session.SessionManager;
 import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
 import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
 import java.util.Collections;              // List 정렬을 위한 유틸리티 클래스를 임포트합니다.
@@ -5,21 +9,48 @@ import java.util.List;                     // List 인터페이스를 임포트
 
 public class LeaderElection implements Watcher {
 
-    // ZooKeeper 서버의 주소 (로컬호스트의 기본 포트 2181 사용)
-    private static final String ZOOKEEPER_ADDRESS = "localhost:2181";
+    // ZooKeeper 서버의 주소 (기본은 로컬호스트의 포트 2181, -Dzookeeper.address=host:port 로 변경 가능)
+    private static final String ZOOKEEPER_ADDRESS = System.getProperty("zookeeper.address", "localhost:2181");
 
     // ZooKeeper와 연결할 때 사용할 세션 타임아웃 (밀리초 단위, 여기서는 3000ms 즉 3초)
     private static final int SESSION_TIMEOUT = 3000;
 
+    // Watch 이벤트를 가상 스레드에서 경로별 순서대로 처리할지 여부 (-Dwatch.virtualThreads=true)
+    private static final boolean VIRTUAL_THREAD_DISPATCH = Boolean.getBoolean("watch.virtualThreads");
+
     // 리더 선출에 사용될 네임스페이스 경로
     private static final String ELECTION_NAMESPACE = "/election";
 
     // ZooKeeper 서버와의 연결을 나타내는 객체
     private ZooKeeper zooKeeper;
 
+    // 공유 세션 모드에서 연결을 소유하는 SessionManager, 자기 연결을 만드는 기본 모드에서는 null
+    private final SessionManager sessionManager;
+
+    // 공유 세션 모드에서 SessionManager에 등록한 연결 상태 리스너
+    private SessionManager.ConnectionListener connectionListener;
+
+    // 가상 스레드 디스패치 모드에서 이벤트를 넘겨받는 디스패처, 기본 모드에서는 null
+    private OrderedWatchDispatcher watchDispatcher;
+
     // 이 인스턴스가 생성한 후보 znode의 이름 (전체 경로에서 네임스페이스를 제거한 이름)
     private String currentZnodeName;
 
+    /**
+     * 기본 생성자는 connectToZooKeeper()에서 자기 연결을 만드는 인스턴스를 생성합니다.
+     */
+    public LeaderElection() {
+        this(null);
+    }
+
+    /**
+     * 이 생성자는 SessionManager의 공유 연결을 사용하는 인스턴스를 생성합니다.
+     * - 같은 JVM의 다른 레시피와 세션을 함께 쓰므로, close()는 연결을 닫지 않고 자신의 후보 znode만 삭제합니다.
+     */
+    public LeaderElection(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
     /**
      * main 메서드는 프로그램의 시작점입니다.
      * 여기서는 다음의 순서로 작업을 수행합니다.
@@ -48,7 +79,8 @@ public class LeaderElection implements Watcher {
         // 연결을 정상적으로 종료합니다.
         leaderElection.close();
 
-        // 연결 종료 후 종료 메시지를 출력합니다.
+        // 이벤트 로그에 남은 기록을 먼저 모두 출력한 뒤, 종료 메시지를 출력합니다.
+        EventLog.get().flush();
         System.out.println("Disconnected from ZooKeeper, exiting application");
     }
 
@@ -75,7 +107,7 @@ public class LeaderElection implements Watcher {
             );
 
             // 생성된 znode의 전체 경로를 출력합니다.
-            System.out.println("Znode created: " + znodeFullPath);
+            EventLog.log(LogEvent.ZNODE_CREATED, znodeFullPath);
             // 전체 경로에서 "/election/" 부분을 제거하여, 후보 노드의 이름만을 저장합니다.
             currentZnodeName = znodeFullPath.replace(ELECTION_NAMESPACE + "/", "");
         } catch (KeeperException | InterruptedException e) {
@@ -103,9 +135,10 @@ public class LeaderElection implements Watcher {
 
             // 현재 노드가 리더 후보와 동일한지 확인합니다.
             if (smallestChild.equals(currentZnodeName)) {
-                System.out.println("I am the leader");
+                EventLog.log(LogEvent.LEADER);
             } else {
-                System.out.println("I am not the leader. " + smallestChild + " is the leader");
+                EventLog.log(LogEvent.NOT_LEADER);
+                EventLog.log(LogEvent.CURRENT_LEADER, smallestChild);
             }
         } catch (KeeperException | InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -123,8 +156,22 @@ public class LeaderElection implements Watcher {
      */
     public void connectToZooKeeper() {
         try {
+            // 선택 사항: Watch 이벤트를 이벤트 스레드 대신 가상 스레드에서 경로별 순서대로 처리합니다.
+            Watcher watcher = this;
+            if (VIRTUAL_THREAD_DISPATCH) {
+                watchDispatcher = new OrderedWatchDispatcher(this);
+                watcher = watchDispatcher;
+            }
+            if (sessionManager != null) {
+                // 공유 세션 모드: 새 연결을 만들지 않고 연결 상태 변화만 등록해 받습니다.
+                Watcher handler = watcher;
+                zooKeeper = sessionManager.getZooKeeper();
+                connectionListener = state -> handler.process(new WatchedEvent(Event.EventType.None, state, null));
+                sessionManager.addConnectionListener(connectionListener);
+                return;
+            }
             // ZooKeeper 객체 생성 시 연결 요청을 보내고, 이 객체를 통해 서버와 상호작용합니다.
-            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, this);
+            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, watcher);
         } catch (IOException e) {
             System.err.println("Failed to connect to ZooKeeper: " + e.getMessage());
             e.printStackTrace();
@@ -155,7 +202,13 @@ public class LeaderElection implements Watcher {
      * - 연결이 존재하면 zooKeeper.close()를 호출하여 자원을 정리합니다.
      */
     public void close() {
-        if (zooKeeper != null) {
+        if (sessionManager != null) {
+            // 공유 세션 모드: 다른 레시피가 쓰는 연결은 그대로 두고, 세션이 끝나야 사라질 자신의 후보 znode를 직접 삭제합니다.
+            sessionManager.removeConnectionListener(connectionListener);
+            if (currentZnodeName != null) {
+                sessionManager.deleteOwnedNode(ELECTION_NAMESPACE + "/" + currentZnodeName);
+            }
+        } else if (zooKeeper != null) {
             try {
                 // ZooKeeper 연결 종료: 연결이 종료되면 클라이언트와 서버 간의 세션이 종료됩니다.
                 zooKeeper.close();
@@ -165,6 +218,10 @@ public class LeaderElection implements Watcher {
                 System.err.println("Interrupted while closing ZooKeeper connection: " + e.getMessage());
             }
         }
+        if (watchDispatcher != null) {
+            // 이미 넘겨받은 이벤트의 처리가 끝날 때까지 기다립니다.
+            watchDispatcher.close();
+        }
     }
 
     /**
@@ -184,11 +241,11 @@ public class LeaderElection implements Watcher {
                 // 연결 상태 변화 이벤트: 연결 성공 혹은 연결 종료/세션 만료 등
                 if (watchedEvent.getState() == Event.KeeperState.SyncConnected) {
                     // 성공적으로 연결되었을 때
-                    System.out.println("Successfully connected to ZooKeeper");
+                    EventLog.log(LogEvent.CONNECTED);
                 } else {
                     // 연결이 끊기거나 세션이 만료되었을 때
                     synchronized (zooKeeper) {  // 대기 중인 스레드를 깨우기 위해 zooKeeper 객체에 대해 락을 획득합니다.
-                        System.out.println("Disconnected from ZooKeeper event");
+                        EventLog.log(LogEvent.CONNECTION_LOST);
                         zooKeeper.notifyAll();  // run() 메서드에서 대기 중인 스레드를 깨웁니다.
                     }
                 }
@@ -0,0 +1,1195 @@
+import distributed.systems.dispatch.OrderedWatchDispatcher;
+import distributed.systems.election.AsyncLeaderElection;
+import distributed.systems.election.CandidateRecord;
+import distributed.systems.election.CandidateView;
+import distributed.systems.election.LeaderPlacement;
+import distributed.systems.election.Leadership;
+import distributed.systems.election.LeadershipListener;
+import distributed.systems.election.TournamentElection;
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import distributed.systems.metrics.FailoverMetrics;
+import distributed.systems.metrics.RecipeMetrics;
+import distributed.systems.partition.PartitionAssignment;
+import distributed.systems.session.SessionManager;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;
+
+import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
+import java.util.Collections;              // List 정렬을 위한 유틸리티 클래스를 임포트합니다.
+import java.nio.charset.StandardCharsets;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+public class LeaderReElection implements Watcher {
+
+    // ZooKeeper 서버의 주소 (기본은 로컬호스트의 포트 2181, -Dzookeeper.address=host:port 로 변경 가능)
+    private static final String ZOOKEEPER_ADDRESS = System.getProperty("zookeeper.address", "localhost:2181");
+
+    // ZooKeeper와 연결할 때 사용할 세션 타임아웃 (밀리초 단위, 여기서는 3000ms 즉 3초)
+    private static final int SESSION_TIMEOUT = 3000;
+
+    // 리더 선출에 사용될 네임스페이스 경로
+    private static final String ELECTION_NAMESPACE = "/election";
+
+    // Watch 이벤트를 가상 스레드에서 경로별 순서대로 처리할지 여부 (-Dwatch.virtualThreads=true)
+    private static final boolean VIRTUAL_THREAD_DISPATCH = Boolean.getBoolean("watch.virtualThreads");
+
+    // 토너먼트 선출 모드에서 사용할 상위 경로 ("/election"의 후보 목록과 섞이지 않도록 별도 경로를 사용)
+    private static final String TOURNAMENT_NAMESPACE = "/tournament";
+
+    // 리더의 바로 다음 후보가 리더를 감시하고 있음을 알리는 확인 znode의 상위 경로 (resign()의 인계 확인에 사용)
+    private static final String HANDOFF_NAMESPACE = "/election-handoff";
+
+    // 종료 신호(SIGTERM, Ctrl+C)를 받으면 resign()으로 리더 지위를 즉시 넘길지 여부 (-Delection.resignOnShutdown=true)
+    private static final boolean RESIGN_ON_SHUTDOWN = Boolean.getBoolean("election.resignOnShutdown");
+
+    // resign()에서 후계자의 확인을 기다릴 최대 시간 (밀리초, 기본 1000, -Delection.handoffTimeoutMillis=N)
+    private static final long HANDOFF_TIMEOUT_MILLIS = Long.getLong("election.handoffTimeoutMillis", 1000);
+
+    // 리더가 자신의 접속 정보(CandidateRecord)를 쓰는 znode (클라이언트는 LeaderDiscovery로 한 번에 읽습니다)
+    public static final String LEADER_PATH = "/election-leader";
+
+    // 후보가 알리는 서비스 프로토콜 버전
+    private static final int PROTOCOL_VERSION = 1;
+
+    // 용량 기반 리더 배치에서 리더를 넘겨받을 후보의 이름을 쓰는 znode 경로
+    private static final String TRANSFER_PATH = "/election-transfer";
+
+    // 선택 사항: 더 여유 있는 후보에게 리더를 옮기는 배치 정책 사용 여부 (-Delection.placement=true, election.advertise 필요)
+    private static final boolean PLACEMENT = Boolean.getBoolean("election.placement");
+
+    // 배치 정책: 자신보다 이 비율 이상 용량이 큰 후보가 있을 때만 옮깁니다. (기본 0.5 → 1.5배 이상)
+    private static final double PLACEMENT_MARGIN = Double.parseDouble(System.getProperty("election.placement.margin", "0.5"));
+
+    // 배치 정책: 리더가 된 뒤 옮기기를 고려하기 전까지의 최소 재임 시간 (밀리초)
+    private static final long PLACEMENT_MIN_TENURE_MILLIS = Long.getLong("election.placement.minTenureMillis", 30000);
+
+    // 리더가 나누어 줄 작업 파티션 수 (0이면 나누지 않습니다, -Delection.partitions=N)
+    private static final int PARTITIONS = Integer.getInteger("election.partitions", 0);
+
+    // 파티션 배정의 후보당 가상 노드 수 (많을수록 고르게 나뉩니다)
+    private static final int PARTITION_VIRTUAL_NODES = Integer.getInteger("election.partitions.virtualNodes", 64);
+
+    // 후보별 파티션 배정 znode의 상위 경로
+    private static final String ASSIGNMENT_NAMESPACE = "/election-assignments";
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체 (세션이 만료되면 새 연결로 교체됩니다)
+    private volatile ZooKeeper zooKeeper;
+
+    // 연결과 exists() 호출에 등록할 Watcher (기본은 자기 자신, 가상 스레드 디스패치 모드에서는 watchDispatcher,
+    // 공유 세션 모드에서는 이벤트를 경로로 나누어 주는 sessionManager)
+    private Watcher eventWatcher = this;
+
+    // 공유 세션 모드에서 연결을 소유하는 SessionManager, 자기 연결을 만드는 기본 모드에서는 null
+    private final SessionManager sessionManager;
+
+    // 공유 세션 모드에서 SessionManager에 등록한 연결 상태 리스너
+    private SessionManager.ConnectionListener connectionListener;
+
+    // 가상 스레드 디스패치 모드에서 이벤트를 넘겨받는 디스패처, 기본 모드에서는 null
+    private OrderedWatchDispatcher watchDispatcher;
+
+    // 이 인스턴스가 생성한 후보 znode의 이름 (전체 경로에서 네임스페이스를 제거한 이름)
+    private String currentZnodeName;
+
+    // 로컬 후보 목록 모드(-Delection.localView=true)에서 사용하는 정렬된 후보 목록, 기본 모드에서는 null
+    private CandidateView candidateView;
+
+    // 현재 감시 중인 선행 후보의 이름 (로컬 후보 목록 모드와 공유 세션 모드의 이벤트 구분에 사용)
+    private volatile String watchedPredecessorName;
+
+    // 비동기 선출 모드(-Delection.async=true)에서 사용하는 상태 머신, 기본 모드에서는 null
+    private AsyncLeaderElection asyncElection;
+
+    // 토너먼트 선출 모드(-Delection.buckets=N)에서 사용하는 2단계 선출, 기본 모드에서는 null
+    private TournamentElection tournamentElection;
+
+    // 용량 기반 리더 배치 정책 (사용하지 않으면 null)
+    private LeaderPlacement placement;
+
+    // 리더가 후보들에게 작업 파티션을 나누어 주는 배정 (사용하지 않으면 null)
+    private PartitionAssignment partitionAssignment;
+
+    // 시각이 기록되지 않았음을 나타내는 값 (System.nanoTime()은 음수도 될 수 있으므로 0 대신 사용)
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    // 장애 조치 단계별 소요 시간 히스토그램
+    private final FailoverMetrics failoverMetrics = new FailoverMetrics();
+
+    // 프로세스 전체의 ZooKeeper 호출 / Watcher / 선출 지표 (JMX로 노출)
+    private final RecipeMetrics recipeMetrics = RecipeMetrics.get();
+
+    // 선행 후보의 NodeDeleted 이벤트를 받은 시각 (진행 중인 장애 조치가 없으면 NO_TIMESTAMP)
+    private volatile long failoverStartNanos = NO_TIMESTAMP;
+
+    // 연결이 끊긴(Disconnected) 시각 (끊긴 적이 없으면 NO_TIMESTAMP)
+    private volatile long disconnectedAtNanos = NO_TIMESTAMP;
+
+    // 세션 만료(Expired)를 받은 시각. 새 세션에서 다시 후보로 등록해 선출 결과가 나오면 NO_TIMESTAMP로 돌아갑니다.
+    private volatile long expiredAtNanos = NO_TIMESTAMP;
+
+    // 세션이 만료되어, 다음 SyncConnected에서 새 세션으로 다시 후보 등록을 해야 하는지 여부
+    private volatile boolean reenrollPending = false;
+
+    // run()의 대기를 해제할지 여부 (인증 실패 등 복구할 수 없는 상태에서만 true가 됩니다)
+    private boolean stopped = false;
+
+    // run()이 대기하는 모니터. 세션이 만료되면 zooKeeper 객체가 바뀌므로 별도 객체를 사용합니다.
+    private final Object lifecycleLock = new Object();
+
+    // resign()으로 후보에서 물러났는지 여부 (물러난 뒤에는 재선출도, 세션 만료 후 재등록도 하지 않습니다)
+    private volatile boolean resigned = false;
+
+    // 리더의 바로 다음 후보일 때 만든 인계 확인 znode의 경로 (없으면 null)
+    private volatile String handoffAckPath;
+
+    // 후보 znode와 리더 znode에 쓸 접속 정보 (없으면 기존처럼 빈 데이터로 등록합니다)
+    private volatile CandidateRecord candidateRecord;
+
+    // 이 인스턴스가 리더 znode(LEADER_PATH)를 만들었는지 여부
+    private volatile boolean leaderRecordPublished = false;
+
+    // 리더가 되었을 때 통지받을 리스너 (선택 사항, 부하 테스트 등에서 사용)
+    private volatile LeadershipListener leadershipListener;
+
+    // 마지막 선출 결과 (리더 여부, 현재 리더, epoch). 연결이 끊기면 즉시 UNKNOWN으로 바뀝니다.
+    private volatile Leadership leadership = Leadership.UNKNOWN;
+
+    /**
+     * 기본 생성자는 connectToZooKeeper()에서 자기 연결을 만드는 인스턴스를 생성합니다.
+     */
+    public LeaderReElection() {
+        this(null);
+    }
+
+    /**
+     * 이 생성자는 SessionManager의 공유 연결 위에서 선출을 수행하는 인스턴스를 생성합니다.
+     * - 같은 JVM의 다른 레시피와 세션을 함께 쓰므로, close()는 연결을 닫지 않고 자신의 후보 znode만 삭제합니다.
+     */
+    public LeaderReElection(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    /**
+     * main 메서드는 프로그램의 시작점입니다.
+     * 여기서는 다음의 순서로 작업을 수행합니다.
+     * 1. ZooKeeper 서버와 연결
+     * 2. 현재 노드를 리더 선출 후보로 등록 (volunteerForLeadership)
+     * 3. 리더 선출 알고리즘 수행 (electLeader)
+     * 4. 복구할 수 없는 연결 상태가 될 때까지 대기 (run)
+     * 5. 연결 종료 (close)
+     */
+    public static void main(String[] args) {
+        LeaderReElection leaderElection = new LeaderReElection();
+
+        // ZooKeeper 서버와 연결을 시도합니다.
+        leaderElection.connectToZooKeeper();
+
+        // 선택 사항: 클라이언트가 리더를 찾을 수 있도록 접속 정보를 후보 znode의 데이터로 알립니다.
+        // (-Delection.advertise=host:port, 처리 용량은 -Delection.capacity=N, 기본은 CPU 수)
+        String advertise = System.getProperty("election.advertise");
+        if (advertise != null) {
+            leaderElection.setCandidateRecord(CandidateRecord.parse(advertise,
+                    Integer.getInteger("election.capacity", Runtime.getRuntime().availableProcessors()),
+                    PROTOCOL_VERSION));
+        }
+
+        // 후보로 등록하고 선출을 수행합니다. (세션이 만료되면 새 세션에서 같은 과정을 다시 수행합니다)
+        leaderElection.startElection();
+
+        // 선택 사항: 배포 등으로 종료될 때 세션 타임아웃을 기다리지 않고 다음 후보에게 리더 지위를 바로 넘깁니다.
+        if (RESIGN_ON_SHUTDOWN) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                leaderElection.resign(null, HANDOFF_TIMEOUT_MILLIS);
+                leaderElection.close();
+            }, "leadership-handoff"));
+        }
+
+        // 연결 상태를 유지하며 대기합니다.
+        // 연결이 잠시 끊기거나 세션이 만료되어도 대기는 계속되고, 인증 실패 등 복구할 수 없는 상태에서만 해제됩니다.
+        leaderElection.run();
+
+        // 연결을 정상적으로 종료합니다.
+        leaderElection.close();
+
+        // 이벤트 로그에 남은 기록을 먼저 모두 출력한 뒤, 종료 메시지를 출력합니다.
+        EventLog.get().flush();
+        System.out.println("Disconnected from ZooKeeper, exiting application");
+
+        // 실행 중에 측정한 장애 조치 단계별 소요 시간을 출력합니다.
+        System.out.print("Failover latency:\n" + leaderElection.getFailoverMetrics());
+        System.out.print("Metrics:\n" + RecipeMetrics.get().getSnapshot());
+        if (leaderElection.watchDispatcher != null) {
+            System.out.println("Watch dispatch: " + leaderElection.watchDispatcher);
+        }
+    }
+
+    /** 리더 선출 알고리즘 구현 ************************************************************************************************* */
+
+    /**
+     * startElection() 메서드는 시스템 속성으로 고른 방식으로 후보 등록과 선출을 시작합니다.
+     * - 기본: volunteerForLeadership() → reelectLeader()
+     *   (-Delection.localView=true이면 startCandidateView()가 초기 목록을 반영한 뒤 reelectLeader()를 호출합니다)
+     * - -Delection.async=true: startAsyncElection(), -Delection.buckets=N: startTournamentElection(N)
+     * - 세션 만료 후 새 세션에서 다시 등록할 때도 이 메서드를 사용합니다.
+     */
+    public void startElection() {
+        int tournamentBuckets = Integer.getInteger("election.buckets", 0);
+        if (Boolean.getBoolean("election.async")) {
+            // 선택 사항: 이벤트 스레드를 블로킹하지 않는 비동기 선출 상태 머신을 사용합니다.
+            startAsyncElection();
+        } else if (tournamentBuckets > 0) {
+            // 선택 사항: 후보가 매우 많을 때 버킷 → 결승의 2단계 토너먼트 선출을 사용합니다.
+            startTournamentElection(tournamentBuckets);
+        } else {
+            // 선택 사항: 리더가 된 뒤 더 여유 있는 후보가 있으면 그 후보에게 리더를 옮깁니다.
+            if (PLACEMENT) {
+                startPlacement(PLACEMENT_MARGIN, PLACEMENT_MIN_TENURE_MILLIS);
+            }
+
+            // 선택 사항: 리더가 작업 파티션을 살아 있는 후보들에게 나누어 주고, 각 후보는 자신의 배정만 감시합니다.
+            if (PARTITIONS > 0) {
+                startPartitionAssignment(PARTITIONS, PARTITION_VIRTUAL_NODES, null);
+            }
+
+            // 리더 선출 후보로 등록합니다.
+            volunteerForLeadership();
+
+            if (Boolean.getBoolean("election.localView")) {
+                // 선택 사항: 영구 재귀 Watcher로 유지되는 로컬 후보 목록을 사용합니다.
+                // 초기 목록은 비동기로 읽으므로, 목록이 반영되면 candidatesReloaded()에서 선출을 수행합니다.
+                // (세션 만료 후 이벤트 스레드에서 다시 등록할 때, 이벤트 스레드가 전달할 콜백을 기다리며 멈추지 않습니다)
+                startCandidateView();
+            } else {
+                // 리더 선출 알고리즘을 실행하여 자신이 리더인지 확인합니다.
+                reelectLeader();
+            }
+        }
+    }
+
+    /**
+     * reenroll() 메서드는 세션 만료 후 새 세션에서 다시 후보로 등록하고 선출을 수행합니다.
+     * - 만료된 세션의 후보 znode와 Watcher는 서버에서 이미 사라졌으므로, 이전 세션에 묶인 선출 상태를 모두 버립니다.
+     * - 새 세션의 첫 SyncConnected에서 호출되며, 프로세스 재시작 없이 세션 타임아웃 + 왕복 몇 번 안에 선출에 복귀합니다.
+     */
+    private synchronized void reenroll() {
+        if (resigned) {
+            return;
+        }
+        EventLog.log(LogEvent.REENROLLING);
+        if (asyncElection != null) {
+            asyncElection.close();
+            asyncElection = null;
+        }
+        if (tournamentElection != null) {
+            tournamentElection.close();
+            tournamentElection = null;
+        }
+        if (placement != null) {
+            placement.close();
+            placement = null;
+        }
+        if (partitionAssignment != null) {
+            partitionAssignment.close();
+            partitionAssignment = null;
+        }
+        candidateView = null;
+        watchedPredecessorName = null;
+        currentZnodeName = null;
+        handoffAckPath = null;
+        leaderRecordPublished = false;
+        failoverStartNanos = NO_TIMESTAMP;
+        startElection();
+    }
+
+    /**
+     * volunteerForLeadership() 메서드는 현재 노드를 리더 선출 후보로 등록합니다.
+     * - "/election" 네임스페이스 아래에 "c_" 접두사가 붙은 Ephemeral Sequential znode를 생성합니다.
+     * - Ephemeral znode는 클라이언트 세션이 종료되면 자동으로 삭제되므로, 동적 리더 선출에 유용합니다.
+     * - Sequential 옵션을 사용하면 ZooKeeper가 각 후보 znode에 순차적인 번호를 부여하여, 순서를 쉽게 비교할 수 있습니다.
+     */
+    public void volunteerForLeadership() {
+        try {
+            // c는 candidate(후보)의 약자입니다.
+            String znodePrefix = ELECTION_NAMESPACE + "/c_";
+            // zooKeeper.create()는 znode를 생성하며, 생성된 znode의 전체 경로를 반환합니다.
+            // OPEN_ACL_UNSAFE는 ACL(접근 제어 목록)을 모두 허용하는 설정이며,
+            // CreateMode.EPHEMERAL_SEQUENTIAL는 일시적이고 순차적인 znode를 생성함을 의미합니다.
+            long createStartNanos = System.nanoTime();
+            String znodeFullPath = zooKeeper.create(
+                    znodePrefix,
+                    candidateData(),             // 접속 정보를 알리지 않으면 빈 바이트 배열 사용
+                    ZooDefs.Ids.OPEN_ACL_UNSAFE, // 보안이 필요 없는 경우(테스트용) 사용
+                    CreateMode.EPHEMERAL_SEQUENTIAL
+            );
+            recipeMetrics.recordCall(RecipeMetrics.Operation.CREATE, createStartNanos);
+
+            // 생성된 znode의 전체 경로를 출력합니다.
+            EventLog.log(LogEvent.ZNODE_CREATED, znodeFullPath);
+            // 전체 경로에서 "/election/" 부분을 제거하여, 후보 노드의 이름만을 저장합니다.
+            currentZnodeName = znodeFullPath.replace(ELECTION_NAMESPACE + "/", "");
+            // 새 후보 이름의 파티션 배정을 감시합니다. (이전 이름의 배정은 리더가 지웁니다)
+            if (partitionAssignment != null) {
+                partitionAssignment.follow(currentZnodeName);
+            }
+        } catch (KeeperException e) {
+            // 이벤트 스레드에서 호출될 수 있으므로 인터럽트 상태를 건드리지 않습니다. (인터럽트되면 이벤트 스레드가 종료됩니다)
+            // 연결 손실 등으로 등록하지 못했으면, 다음 SyncConnected에서 새로 등록하도록 표시합니다.
+            System.err.println("Exception while volunteering for leadership: " + e.getMessage());
+            reenrollPending = true;
+        } catch (InterruptedException e) {
+            // InterruptedException이 발생하면 인터럽트 상태를 복원합니다.
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while volunteering for leadership: " + e.getMessage());
+        }
+    }
+
+    /**
+     * setCandidateRecord() 메서드는 후보 znode에 쓸 접속 정보를 지정합니다. startElection() 전에 호출해야 합니다.
+     * - 리더가 되면 같은 레코드를 LEADER_PATH에도 써서, 클라이언트가 LeaderDiscovery로 한 번에 찾을 수 있게 합니다.
+     */
+    public void setCandidateRecord(CandidateRecord candidateRecord) {
+        this.candidateRecord = candidateRecord;
+    }
+
+    private byte[] candidateData() {
+        CandidateRecord record = candidateRecord;
+        return record != null ? record.encode() : new byte[]{};
+    }
+
+    /**
+     * publishLeaderRecord() 메서드는 리더가 되었을 때 자신의 레코드를 LEADER_PATH에 Ephemeral znode로 씁니다.
+     * - 리더 교체 때마다 쓰기 한 번이 늘어나는 대신, 클라이언트는 후보 목록을 보지 않고 getData() 한 번으로 리더를 찾습니다.
+     * - Ephemeral이므로 리더의 세션이 끝나면 후보 znode와 함께 사라지고, LeaderDiscovery의 캐시가 무효화됩니다.
+     * - 같은 세션으로 재연결되어 다시 리더가 된 경우처럼 이미 자신의 znode가 있으면 그대로 둡니다.
+     *   다른 세션(이전 리더)의 znode가 남아 있으면 그 버전으로 지우고 한 번 더 만듭니다. 모든 요청은 응답을 기다리지 않습니다.
+     */
+    private void publishLeaderRecord(boolean replaceExisting) {
+        CandidateRecord record = candidateRecord;
+        if (record == null) {
+            return;
+        }
+        zooKeeper.create(LEADER_PATH, record.encode(), ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL,
+                (rc, path, ctx, name) -> {
+                    if (rc == KeeperException.Code.OK.intValue()) {
+                        leaderRecordPublished = true;
+                        // 만드는 동안 resign()했다면 남기지 않습니다.
+                        if (resigned) {
+                            withdrawLeaderRecord();
+                        }
+                    } else if (rc == KeeperException.Code.NODEEXISTS.intValue() && replaceExisting) {
+                        replaceLeaderRecord();
+                    } else if (rc != KeeperException.Code.NODEEXISTS.intValue()) {
+                        System.err.println("Failed to publish leader record: " + KeeperException.Code.get(rc));
+                    }
+                }, null);
+    }
+
+    // 남아 있는 리더 znode가 자신의 것이면 그대로 두고, 이전 리더의 것이면 지운 뒤 다시 만듭니다.
+    private void replaceLeaderRecord() {
+        zooKeeper.exists(LEADER_PATH, false, (rc, path, ctx, stat) -> {
+            if (stat == null) {
+                publishLeaderRecord(false);
+            } else if (stat.getEphemeralOwner() == zooKeeper.getSessionId()) {
+                leaderRecordPublished = true;
+            } else if (isLeader()) {
+                zooKeeper.delete(LEADER_PATH, stat.getVersion(),
+                        (deleteRc, deletePath, deleteCtx) -> publishLeaderRecord(false), null);
+            }
+        }, null);
+    }
+
+    // 이 인스턴스가 만든 리더 znode를 지웁니다.
+    private void withdrawLeaderRecord() {
+        if (leaderRecordPublished) {
+            leaderRecordPublished = false;
+            deleteOwnedNode(LEADER_PATH);
+        }
+    }
+
+    /**
+     * electLeader() 메서드는 리더 선출을 수행합니다.
+     * - /election 네임스페이스 아래에 있는 모든 후보 znode들을 가져옵니다.
+     * - 가져온 znode 리스트를 정렬하여, 가장 작은(순서가 앞선) znode가 리더임을 결정합니다.
+     * - 현재 노드의 이름(currentZnodeName)과 비교하여 자신이 리더인지 여부를 출력합니다.
+     * - 가상 스레드 디스패치 모드에서는 연결 이벤트와 동시에 호출될 수 있으므로 synchronized로 한 번에 하나만 수행합니다.
+     */
+    public synchronized void reelectLeader() {
+        // resign()으로 물러났거나 후보 등록에 실패했다면 선출할 후보가 없습니다.
+        if (resigned || currentZnodeName == null) {
+            return;
+        }
+
+        // NodeDeleted 이벤트로 시작된 재선출이라면, 이벤트 수신부터 여기까지의 지연을 기록합니다.
+        if (failoverStartNanos != NO_TIMESTAMP) {
+            failoverMetrics.recordSince(FailoverMetrics.Phase.NODE_DELETED_DELIVERY, failoverStartNanos);
+        }
+
+        // 로컬 후보 목록 모드에서는 서버 왕복 없이 선행 후보를 결정합니다.
+        // 초기 목록이 아직 반영되지 않았으면, 반영된 뒤 candidatesReloaded()에서 다시 호출됩니다.
+        if (candidateView != null) {
+            if (candidateView.isLoaded()) {
+                reelectLeaderFromView();
+            }
+            return;
+        }
+
+        try {
+            Stat predecessorStat = null;
+            String predecessorZnodeName = "";
+            String smallestChild = "";
+
+            // 자신보다 앞선 후보 노드가 나타날 때까지 반복합니다. -> null 이라는 것은 임시노드가 삭제된 상황!!!
+            while (predecessorStat == null) {
+                // /election 네임스페이스 아래의 모든 자식 znode 목록을 가져옵니다.
+                long getChildrenStartNanos = System.nanoTime();
+                List<String> children = zooKeeper.getChildren(ELECTION_NAMESPACE, false);
+                failoverMetrics.recordSince(FailoverMetrics.Phase.GET_CHILDREN, getChildrenStartNanos);
+                recipeMetrics.recordCall(RecipeMetrics.Operation.GET_CHILDREN, getChildrenStartNanos);
+                // 후보 목록을 오름차순으로 정렬합니다.
+                Collections.sort(children);
+                // 자신의 후보 znode가 목록에 없으면(삭제된 뒤 다시 만들지 못한 경우 등) 새로 등록하고 목록을 다시 읽습니다.
+                int currentIndex = Collections.binarySearch(children, currentZnodeName);
+                if (currentIndex < 0) {
+                    updateLeadership(Leadership.UNKNOWN);
+                    currentZnodeName = null;
+                    volunteerForLeadership();
+                    if (currentZnodeName == null) {
+                        return;
+                    }
+                    continue;
+                }
+                // 가장 작은 znode(리더 후보)를 확인합니다.
+                smallestChild = children.get(0);
+
+                // 만약 현재 노드가 가장 작은 znode라면 자신이 리더임을 출력합니다.
+                if (smallestChild.equals(currentZnodeName)) {
+                    // 배치 정책으로 다른 후보가 지정되어 있으면 그 후보가 리더가 되도록 물러납니다.
+                    if (yieldToDesignatedLeader()) {
+                        return;
+                    }
+                    EventLog.log(LogEvent.LEADER);
+                    claimLeadership();
+                    return;
+                } else {
+                    // 현재 노드가 리더가 아닌 경우,
+                    // 자신보다 바로 앞에 있는 후보 노드(즉, 자신보다 한 단계 낮은 순위)를 찾습니다.
+                    EventLog.log(LogEvent.NOT_LEADER);
+                    updateLeadership(Leadership.following(smallestChild));
+                    predecessorZnodeName = children.get(currentIndex - 1);
+                    watchedPredecessorName = predecessorZnodeName;
+                    // 자신보다 앞선 후보 노드의 존재 여부를 확인하면서 Watcher를 등록합니다.
+                    long existsStartNanos = System.nanoTime();
+                    predecessorStat = zooKeeper.exists(ELECTION_NAMESPACE + "/" + predecessorZnodeName, eventWatcher);
+                    failoverMetrics.recordSince(FailoverMetrics.Phase.EXISTS_REWATCH, existsStartNanos);
+                    recipeMetrics.recordCall(RecipeMetrics.Operation.EXISTS, existsStartNanos);
+                    if (predecessorStat != null) {
+                        recipeMetrics.watchRegistered(RecipeMetrics.WatchKind.DATA,
+                                ELECTION_NAMESPACE + "/" + predecessorZnodeName);
+                    }
+                }
+            }
+
+            // 자신보다 앞선 후보를 감시 대상으로 설정하고, 해당 후보의 상태 변경을 기다립니다.
+            // 리더가 되지 않고 새 선행 후보를 감시하게 되었으므로 이번 장애 조치 측정은 끝납니다.
+            failoverStartNanos = NO_TIMESTAMP;
+            // 리더를 바로 감시하는 후보라면, 리더가 resign()할 때 기다리는 인계 확인을 남깁니다.
+            if (predecessorZnodeName.equals(smallestChild)) {
+                acknowledgeHandoff(predecessorZnodeName);
+            }
+            EventLog.log(LogEvent.WATCHING_PREDECESSOR, predecessorZnodeName);
+            EventLog.log(LogEvent.CURRENT_ZNODE, currentZnodeName);
+        } catch (KeeperException e) {
+            // 연결 손실이면 다음 SyncConnected의 restoreLeadership()이 다시 선출합니다.
+            System.err.println("Exception while electing leader: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while electing leader: " + e.getMessage());
+        }
+    }
+
+    /**
+     * claimLeadership() 메서드는 리더 지위를 확정하고, 장애 조치 중이었다면 전체 소요 시간을 기록합니다.
+     */
+    private void claimLeadership() {
+        if (failoverStartNanos != NO_TIMESTAMP) {
+            failoverMetrics.recordSince(FailoverMetrics.Phase.LEADERSHIP_CLAIM, failoverStartNanos);
+            failoverStartNanos = NO_TIMESTAMP;
+        }
+        // 리더가 되었으므로 이전 리더에 대한 인계 확인은 더 이상 필요 없습니다.
+        clearHandoffAck();
+        updateLeadership(Leadership.leading(currentZnodeName));
+    }
+
+    /** 용량 기반 리더 배치 (placement) ************************************************************************************ */
+
+    /**
+     * startPlacement() 메서드는 후보가 알린 처리 용량을 보고 리더를 더 여유 있는 후보로 옮기는 배치 정책을 켭니다.
+     * - 리더는 최소 재임 시간이 지난 뒤, 자신보다 용량이 margin 비율 이상 큰 후보가 있으면 그 후보를 지정하고 물러납니다.
+     * - 그 후보보다 앞선 후보들은 리더가 될 차례에 지정을 보고 차례로 줄의 맨 뒤로 물러나므로, 지정된 후보가 리더가 됩니다.
+     *   지정 대상은 리더 바로 뒤의 몇 후보로 제한되므로, 한 번의 전환에서 물러나는 후보 수와 리더가 없는 시간도 제한됩니다.
+     * - setCandidateRecord() 이후, 기본 / 로컬 후보 목록 모드의 volunteerForLeadership() 전에 호출해야 합니다.
+     *   레코드가 없으면 비교할 용량이 없으므로 켜지 않고, 켜지 않으면 기본 선출 규칙이 그대로 적용됩니다.
+     */
+    public void startPlacement(double margin, long minTenureMillis) {
+        if (candidateRecord == null) {
+            System.err.println("Leader placement requires a candidate record (-Delection.advertise=host:port)");
+            return;
+        }
+        placement = new LeaderPlacement(zooKeeper, ELECTION_NAMESPACE, TRANSFER_PATH, margin, minTenureMillis,
+                this::stepDown);
+    }
+
+    // 리더가 될 차례에 배치 정책으로 지정된 다른 후보가 있으면 물러나고 true를 반환합니다.
+    private boolean yieldToDesignatedLeader() {
+        if (placement == null) {
+            return false;
+        }
+        try {
+            if (!placement.shouldYield(currentZnodeName)) {
+                return false;
+            }
+        } catch (KeeperException e) {
+            System.err.println("Exception while checking leadership transfer: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while checking leadership transfer: " + e.getMessage());
+            return false;
+        }
+        EventLog.log(LogEvent.YIELDING);
+        stepDown();
+        return true;
+    }
+
+    /**
+     * stepDown() 메서드는 후보 znode를 다시 만들어 줄의 맨 뒤로 물러납니다. (resign()과 달리 후보로 계속 남습니다)
+     * - 삭제된 후보 znode를 감시하던 다음 후보의 NodeDeleted Watcher가 바로 발생합니다.
+     */
+    private synchronized void stepDown() {
+        if (resigned || currentZnodeName == null) {
+            return;
+        }
+        updateLeadership(Leadership.UNKNOWN);
+        withdrawLeaderRecord();
+        clearHandoffAck();
+        deleteOwnedNode(ELECTION_NAMESPACE + "/" + currentZnodeName);
+        // 다시 만들지 못하면 삭제된 이름으로 재선출하지 않도록 바로 비웁니다.
+        currentZnodeName = null;
+        watchedPredecessorName = null;
+        volunteerForLeadership();
+        reelectLeader();
+    }
+
+    /** 파티션 배정 (partition assignment) ******************************************************************************* */
+
+    /**
+     * startPartitionAssignment() 메서드는 리더가 작업 파티션(0 ~ partitions-1)을 "/election"의 살아 있는 후보들에게 나누어 주게 합니다.
+     * - 리더는 후보 목록이 바뀔 때마다 일관 해싱으로 배정을 다시 계산해, 바뀐 후보의 배정 znode만 multi() 한 번으로 씁니다.
+     * - 모든 후보(리더 포함)는 "/election-assignments/<자신의 후보 이름>" 하나만 감시하며, 배정이 바뀌면 listener가 통지받습니다.
+     * - 기본 / 로컬 후보 목록 모드의 volunteerForLeadership() 전에 호출해야 합니다.
+     *
+     * @param listener 배정이 바뀔 때 호출할 리스너 (null이면 이벤트 로그에만 남깁니다)
+     */
+    public void startPartitionAssignment(int partitions, int virtualNodes, PartitionAssignment.Listener listener) {
+        partitionAssignment = new PartitionAssignment(zooKeeper, ELECTION_NAMESPACE, "c_", ASSIGNMENT_NAMESPACE,
+                partitions, virtualNodes, listener);
+    }
+
+    public PartitionAssignment getPartitionAssignment() {
+        return partitionAssignment;
+    }
+
+    /** 계획된 리더 교체 (resign) ********************************************************************************************* */
+
+    /**
+     * resign() 메서드는 후보에서 물러나 리더 지위를 다음 후보에게 바로 넘깁니다. (배포 등 계획된 리더 교체)
+     * 1. 선출 결과를 UNKNOWN으로 바꿉니다. isLeader()가 false가 되고 리스너가 통지받으므로 새 작업을 받지 않습니다.
+     * 2. drainInFlightWork로 진행 중인 작업을 마칩니다.
+     * 3. 리더였고 successorTimeoutMillis > 0 이면, 바로 다음 후보가 이 후보를 감시하고 있다는 인계 확인 znode를 기다립니다.
+     * 4. 자신의 후보 znode를 삭제합니다. 후계자의 NodeDeleted Watcher가 바로 발생하므로,
+     *    세션 타임아웃(SESSION_TIMEOUT)을 기다리지 않고 왕복 한 번 정도로 리더가 바뀝니다.
+     * - 대기는 호출한 스레드에서 하므로 ZooKeeper 이벤트 스레드(리스너 콜백 등)에서 호출하면 안 됩니다.
+     * - 물러난 뒤에는 재선출을 하지 않고, 세션이 만료되어도 다시 후보로 등록하지 않습니다.
+     *
+     * @param drainInFlightWork      후보 znode를 삭제하기 전에 실행할 작업 (null이면 생략)
+     * @param successorTimeoutMillis 후계자의 확인을 기다릴 최대 시간 (0이면 기다리지 않습니다)
+     * @return 후계자의 확인을 받은 뒤 넘겼으면 true, 기다리지 않았거나 후계자가 없거나 시간이 초과되었으면 false
+     */
+    public boolean resign(Runnable drainInFlightWork, long successorTimeoutMillis) {
+        boolean wasLeader;
+        String leaderZnodeName;
+        synchronized (this) {
+            if (resigned) {
+                return false;
+            }
+            resigned = true;
+            wasLeader = leadership.leader();
+            leaderZnodeName = currentZnodeName;
+            updateLeadership(Leadership.UNKNOWN);
+        }
+
+        if (drainInFlightWork != null) {
+            drainInFlightWork.run();
+        }
+
+        // 인계 확인은 후보 znode 이름으로 리더를 구분하는 기본 / 로컬 후보 목록 모드에서만 기다립니다.
+        boolean confirmed = false;
+        if (wasLeader && successorTimeoutMillis > 0 && leaderZnodeName != null) {
+            confirmed = awaitSuccessor(leaderZnodeName, successorTimeoutMillis);
+        }
+
+        withdrawCandidacy();
+        EventLog.log(confirmed ? LogEvent.RESIGNED_CONFIRMED : LogEvent.RESIGNED);
+        return confirmed;
+    }
+
+    // 후계자가 인계 확인 znode를 만들 때까지 최대 timeoutMillis 동안 기다립니다.
+    private boolean awaitSuccessor(String leaderZnodeName, long timeoutMillis) {
+        String ackPath = HANDOFF_NAMESPACE + "/" + leaderZnodeName;
+        try {
+            // 다른 후보가 없으면 기다릴 후계자도 없습니다.
+            if (zooKeeper.getChildren(ELECTION_NAMESPACE, false).size() <= 1) {
+                return false;
+            }
+            CountDownLatch created = new CountDownLatch(1);
+            if (zooKeeper.exists(ackPath, event -> created.countDown()) != null) {
+                return true;
+            }
+            // 연결 이벤트로도 Watcher가 발생할 수 있으므로, 깨어난 뒤 확인 znode가 실제로 있는지 다시 봅니다.
+            return created.await(timeoutMillis, TimeUnit.MILLISECONDS) && zooKeeper.exists(ackPath, false) != null;
+        } catch (KeeperException e) {
+            System.err.println("Exception while waiting for successor: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while waiting for successor: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // 모든 모드의 선출 상태를 멈추고, 이 인스턴스가 만든 후보 znode와 인계 확인 znode를 삭제합니다.
+    private synchronized void withdrawCandidacy() {
+        // 후계자가 새 리더 znode를 만든 뒤에 지우는 일이 없도록, 후보 znode보다 먼저 지웁니다.
+        withdrawLeaderRecord();
+        if (asyncElection != null) {
+            asyncElection.close();
+            if (asyncElection.getCurrentZnodeName() != null) {
+                deleteOwnedNode(ELECTION_NAMESPACE + "/" + asyncElection.getCurrentZnodeName());
+            }
+        }
+        if (tournamentElection != null) {
+            tournamentElection.close();
+            if (tournamentElection.getBucketZnodeName() != null) {
+                deleteOwnedNode(tournamentElection.bucketNamespace() + "/" + tournamentElection.getBucketZnodeName());
+            }
+            if (tournamentElection.getFinalZnodeName() != null) {
+                deleteOwnedNode(tournamentElection.finalNamespace() + "/" + tournamentElection.getFinalZnodeName());
+            }
+        }
+        if (currentZnodeName != null) {
+            deleteOwnedNode(ELECTION_NAMESPACE + "/" + currentZnodeName);
+            currentZnodeName = null;
+        }
+        watchedPredecessorName = null;
+        clearHandoffAck();
+        if (placement != null) {
+            placement.close();
+        }
+        if (partitionAssignment != null) {
+            partitionAssignment.close();
+        }
+    }
+
+    // 이미 삭제된 노드는 무시합니다.
+    private void deleteOwnedNode(String path) {
+        long deleteStartNanos = System.nanoTime();
+        try {
+            zooKeeper.delete(path, -1);
+            recipeMetrics.recordCall(RecipeMetrics.Operation.DELETE, deleteStartNanos);
+        } catch (KeeperException.NoNodeException e) {
+            // 세션 만료 등으로 이미 삭제되었으면 할 일이 없습니다.
+        } catch (KeeperException e) {
+            System.err.println("Exception while deleting " + path + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while deleting " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * acknowledgeHandoff() 메서드는 리더를 바로 감시하기 시작했음을 "/election-handoff/<리더 이름>" Ephemeral znode로 남깁니다.
+     * - 리더가 바뀔 때마다 바로 다음 후보 하나만 만들고, 응답을 기다리지 않는 비동기 요청이므로 재선출 지연에 더해지지 않습니다.
+     * - 상위 경로가 없으면 만든 뒤 다시 시도합니다.
+     */
+    private void acknowledgeHandoff(String leaderZnodeName) {
+        String ackPath = HANDOFF_NAMESPACE + "/" + leaderZnodeName;
+        if (ackPath.equals(handoffAckPath)) {
+            return;
+        }
+        clearHandoffAck();
+        handoffAckPath = ackPath;
+        createHandoffAck(ackPath, true);
+    }
+
+    private void createHandoffAck(String ackPath, boolean createNamespaceIfMissing) {
+        zooKeeper.create(ackPath, currentZnodeName.getBytes(StandardCharsets.UTF_8), ZooDefs.Ids.OPEN_ACL_UNSAFE,
+                CreateMode.EPHEMERAL, (rc, path, ctx, name) -> {
+                    if (rc == KeeperException.Code.NONODE.intValue() && createNamespaceIfMissing) {
+                        zooKeeper.create(HANDOFF_NAMESPACE, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE,
+                                CreateMode.PERSISTENT, (parentRc, parentPath, parentCtx, parentName) -> {
+                                    // 다른 후보가 먼저 만들었어도(NODEEXISTS) 그대로 이어 갑니다.
+                                    createHandoffAck(ackPath, false);
+                                }, null);
+                    }
+                }, null);
+    }
+
+    // 남아 있는 인계 확인 znode를 비동기로 삭제합니다.
+    private void clearHandoffAck() {
+        String ackPath = handoffAckPath;
+        if (ackPath != null) {
+            handoffAckPath = null;
+            zooKeeper.delete(ackPath, -1, (rc, path, ctx) -> {
+            }, null);
+        }
+    }
+
+    /**
+     * isLeader() 메서드는 이 인스턴스가 현재 리더인지 서버 왕복 없이 반환합니다.
+     * - volatile 필드 하나를 읽을 뿐이므로 리더 전용 코드의 핫 패스에서 매번 호출해도 됩니다.
+     * - 연결이 끊기면(Disconnected/Expired) 세션이 유효한지 확신할 수 없으므로 즉시 false가 됩니다.
+     */
+    public boolean isLeader() {
+        return leadership.leader();
+    }
+
+    /**
+     * currentLeader() 메서드는 마지막 선출 결과(현재 리더의 이름과 epoch)를 서버 왕복 없이 반환합니다.
+     * - 리더는 epoch를 펜싱 토큰으로 외부 자원에 함께 전달하여, 자신보다 오래된 리더의 늦은 쓰기를 거부하게 할 수 있습니다.
+     * - 한 번 읽은 값 안의 리더 여부, 리더 이름, epoch는 항상 같은 선출 결과에서 나온 값입니다.
+     */
+    public Leadership currentLeader() {
+        return leadership;
+    }
+
+    // 선출 결과를 교체하고, 리더 여부가 바뀐 경우에만 리스너에 통지합니다.
+    private synchronized void updateLeadership(Leadership next) {
+        boolean wasLeader = leadership.leader();
+        recipeMetrics.leadershipChanged(ELECTION_NAMESPACE, leadership, next);
+        leadership = next;
+        // 세션 만료 후 새 세션에서 처음으로 선출 결과가 나왔다면, 선출에서 빠져 있던 시간을 기록합니다.
+        if (next != Leadership.UNKNOWN && expiredAtNanos != NO_TIMESTAMP && !reenrollPending) {
+            failoverMetrics.recordSince(FailoverMetrics.Phase.REENROLLMENT, expiredAtNanos);
+            expiredAtNanos = NO_TIMESTAMP;
+        }
+        if (wasLeader != next.leader()) {
+            if (next.leader()) {
+                publishLeaderRecord(true);
+            }
+            if (placement != null) {
+                if (next.leader()) {
+                    placement.startLeading(currentZnodeName, candidateRecord.capacity());
+                } else {
+                    placement.stopLeading();
+                }
+            }
+            if (partitionAssignment != null) {
+                if (next.leader()) {
+                    partitionAssignment.startLeading(currentZnodeName);
+                } else {
+                    partitionAssignment.stopLeading();
+                }
+            }
+            notifyLeadership(next.leader());
+        }
+    }
+
+    /**
+     * setLeadershipListener() 메서드는 리더 여부가 결정될 때 호출될 리스너를 등록합니다.
+     * - 리스너는 ZooKeeper 이벤트 스레드에서 호출됩니다.
+     */
+    public void setLeadershipListener(LeadershipListener leadershipListener) {
+        this.leadershipListener = leadershipListener;
+    }
+
+    private void notifyLeadership(boolean leader) {
+        LeadershipListener listener = leadershipListener;
+        if (listener != null) {
+            listener.leadershipChanged(ELECTION_NAMESPACE, leader);
+        }
+    }
+
+    /**
+     * getFailoverMetrics() 메서드는 장애 조치 단계별 지연 시간 히스토그램을 반환합니다.
+     * - snapshot()으로 단계별 p50 / p99 / p999 / max 를 조회할 수 있습니다.
+     */
+    public FailoverMetrics getFailoverMetrics() {
+        return failoverMetrics;
+    }
+
+    /**
+     * startCandidateView() 메서드는 /election 아래의 후보 목록을 로컬에 유지하는 CandidateView를 시작합니다.
+     * - addWatch(PERSISTENT_RECURSIVE)로 한 번만 등록된 Watcher가 후보의 생성/삭제를 계속 전달합니다.
+     * - 이후 reelectLeader()는 getChildren() + 정렬 대신 정렬된 로컬 목록에서 O(log n)으로 선행 후보를 찾습니다.
+     * - 자신의 후보 znode가 목록에 포함되도록 volunteerForLeadership() 이후에 호출해야 합니다.
+     * - 초기 목록을 기다리지 않고 반환하며, 목록이 반영되면 candidatesReloaded()에서 첫 선출을 수행합니다.
+     */
+    public void startCandidateView() {
+        CandidateView view = new CandidateView(zooKeeper, ELECTION_NAMESPACE, new CandidateView.Listener() {
+            @Override
+            public void candidateRemoved(String candidateName) {
+                // 감시 중인 선행 후보가 삭제된 경우에만 재선출을 수행합니다. (기존의 NodeDeleted 처리와 동일)
+                if (candidateName.equals(watchedPredecessorName)) {
+                    failoverStartNanos = System.nanoTime();
+                    reelectLeader();
+                }
+            }
+
+            @Override
+            public void candidatesReloaded() {
+                // 초기 목록이 반영되었거나, 재연결 후 목록이 교체되어 선행 후보가 바뀌었을 수 있으므로 다시 확인합니다.
+                reelectLeader();
+            }
+        });
+        // 초기 목록의 콜백이 start() 반환 전에 올 수 있으므로, 먼저 필드에 둡니다.
+        candidateView = view;
+        try {
+            view.start();
+            recipeMetrics.persistentWatchAdded();
+        } catch (KeeperException e) {
+            // 영구 Watcher를 등록하지 못했으면 서버에서 후보 목록을 읽는 기본 방식으로 선출합니다.
+            System.err.println("Exception while starting candidate view: " + e.getMessage());
+            candidateView = null;
+            reelectLeader();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while starting candidate view: " + e.getMessage());
+            candidateView = null;
+        }
+    }
+
+    /**
+     * reelectLeaderFromView() 메서드는 로컬 후보 목록만으로 리더 여부와 선행 후보를 결정합니다.
+     * - 후보 목록은 이미 정렬되어 있으므로 정렬과 이진 탐색이 필요 없고, 서버 왕복도 발생하지 않습니다.
+     * - 선행 후보의 삭제는 영구 Watcher가 전달하므로 exists() Watcher도 등록하지 않습니다.
+     */
+    private void reelectLeaderFromView() {
+        String predecessorZnodeName = candidateView.predecessorOf(currentZnodeName);
+        watchedPredecessorName = predecessorZnodeName;
+
+        if (predecessorZnodeName == null) {
+            if (yieldToDesignatedLeader()) {
+                return;
+            }
+            EventLog.log(LogEvent.LEADER);
+            claimLeadership();
+            return;
+        }
+
+        failoverStartNanos = NO_TIMESTAMP;
+        updateLeadership(Leadership.following(candidateView.leader()));
+        // 리더를 바로 감시하는 후보라면, 리더가 resign()할 때 기다리는 인계 확인을 남깁니다.
+        if (predecessorZnodeName.equals(candidateView.leader())) {
+            acknowledgeHandoff(predecessorZnodeName);
+        }
+
+        EventLog.log(LogEvent.NOT_LEADER);
+        EventLog.log(LogEvent.WATCHING_PREDECESSOR, predecessorZnodeName);
+        EventLog.log(LogEvent.CURRENT_ZNODE, currentZnodeName);
+    }
+
+    /**
+     * startAsyncElection() 메서드는 비동기 API 기반의 AsyncLeaderElection으로 선출을 시작합니다.
+     * - 후보 등록, 선행 후보 결정, Watcher 재등록이 모두 콜백으로 이어지므로 이벤트 스레드가 멈추지 않습니다.
+     * - 이 모드에서는 volunteerForLeadership()과 reelectLeader()를 호출하지 않습니다.
+     */
+    public void startAsyncElection() {
+        asyncElection = new AsyncLeaderElection(zooKeeper, ELECTION_NAMESPACE, new LeadershipListener() {
+            @Override
+            public void leadershipChanged(String namespace, boolean leader) {
+                EventLog.log(leader ? LogEvent.LEADER : LogEvent.NOT_LEADER);
+                updateLeadership(leader
+                        ? Leadership.leading(asyncElection.getCurrentZnodeName())
+                        : Leadership.following(asyncElection.getLeaderZnodeName()));
+            }
+
+            @Override
+            public void electionFailed(String namespace, KeeperException.Code code) {
+                stateMachineFailed(namespace, code);
+            }
+        });
+        asyncElection.setCandidateData(candidateData());
+        asyncElection.start();
+    }
+
+    /**
+     * startTournamentElection() 메서드는 TournamentElection으로 2단계 선출을 시작합니다.
+     * - 후보는 "/tournament/bucket_<k>" 중 무작위로 고른 버킷 하나에만 등록하고, 버킷 승자만 결승에 진출합니다.
+     * - 각 후보는 자신의 버킷 목록만 조회하므로, 전체 후보 수가 늘어나도 선출 한 번의 비용이 버킷 크기로 제한됩니다.
+     * - 버킷에서 진 후보도 "리더 아님"으로 확정되지만, 결승을 감시하지 않으므로 currentLeader()의 리더 이름은 null입니다.
+     *
+     * @param bucketCount 버킷 수 (대략 전체 후보 수의 제곱근이면 버킷과 결승의 크기가 비슷해집니다)
+     */
+    public void startTournamentElection(int bucketCount) {
+        int bucket = ThreadLocalRandom.current().nextInt(bucketCount);
+        tournamentElection = new TournamentElection(zooKeeper, TOURNAMENT_NAMESPACE, bucket, new LeadershipListener() {
+            @Override
+            public void leadershipChanged(String namespace, boolean leader) {
+                EventLog.log(leader ? LogEvent.LEADER : LogEvent.NOT_LEADER);
+                updateLeadership(leader
+                        ? Leadership.leading(tournamentElection.getFinalZnodeName())
+                        : Leadership.following(tournamentElection.getFinalLeaderZnodeName()));
+            }
+
+            @Override
+            public void electionFailed(String namespace, KeeperException.Code code) {
+                stateMachineFailed(namespace, code);
+            }
+        });
+        tournamentElection.setCandidateData(candidateData());
+        tournamentElection.start();
+    }
+
+    // 비동기 / 토너먼트 선출이 중단되면 리더 여부를 알 수 없으므로 UNKNOWN으로 둡니다.
+    // (세션 만료로 중단되었다면 Expired 처리가 새 세션에서 다시 등록합니다)
+    private void stateMachineFailed(String namespace, KeeperException.Code code) {
+        System.err.println("Leader election in " + namespace + " stopped: " + code);
+        updateLeadership(Leadership.UNKNOWN);
+    }
+
+    /**
+     * restoreLeadership() 메서드는 재연결 후 현재 모드의 선출 상태로부터 선출 결과를 다시 계산합니다.
+     * - 비동기/토너먼트 모드의 상태 머신은 연결이 끊겨도 그대로이므로 그 상태를 그대로 반영합니다.
+     *   아직 결과가 나오지 않았거나 중단된 상태 머신은 UNKNOWN으로 두고, 결과는 리스너 통지로 받습니다.
+     * - 기본 모드는 재선출을 수행하여 리더 여부와 선행 후보 감시를 다시 확인합니다.
+     */
+    private void restoreLeadership() {
+        if (resigned) {
+            return;
+        }
+        if (asyncElection != null) {
+            AsyncLeaderElection.State state = asyncElection.getState();
+            if (state == AsyncLeaderElection.State.LEADING) {
+                updateLeadership(Leadership.leading(asyncElection.getCurrentZnodeName()));
+            } else if (state == AsyncLeaderElection.State.FOLLOWING) {
+                updateLeadership(Leadership.following(asyncElection.getLeaderZnodeName()));
+            } else {
+                updateLeadership(Leadership.UNKNOWN);
+            }
+        } else if (tournamentElection != null) {
+            if (tournamentElection.isLeader()) {
+                updateLeadership(Leadership.leading(tournamentElection.getFinalZnodeName()));
+            } else if (tournamentElection.isFailed()) {
+                updateLeadership(Leadership.UNKNOWN);
+            } else {
+                updateLeadership(Leadership.following(tournamentElection.getFinalLeaderZnodeName()));
+            }
+        } else if (currentZnodeName != null) {
+            reelectLeader();
+        }
+    }
+
+    /** Zookeeper 클라이언트의 스레딩 모델과 Java API**************************************************************************** */
+
+    /**
+     * connectToZooKeeper() 메서드는 ZooKeeper 서버와 연결을 생성합니다.
+     * - ZooKeeper 생성자에 서버 주소, 세션 타임아웃, 그리고 이벤트 처리를 위한 Watcher(현재 객체)를 전달합니다.
+     * - 연결이 성공하면 ZooKeeper 객체를 반환하며, 실패 시 IOException을 처리합니다.
+     */
+    public void connectToZooKeeper() {
+        try {
+            // 선택 사항: Watch 이벤트를 이벤트 스레드 대신 가상 스레드에서 경로별 순서대로 처리합니다.
+            // (재선출의 동기 getChildren() / exists() 호출이 이벤트 스레드를 막지 않습니다)
+            if (VIRTUAL_THREAD_DISPATCH) {
+                watchDispatcher = new OrderedWatchDispatcher(this);
+                eventWatcher = watchDispatcher;
+            }
+            if (sessionManager != null) {
+                // 공유 세션 모드: 새 연결을 만들지 않고, "/election" 아래의 이벤트와 연결 상태 변화만 등록해 받습니다.
+                Watcher handler = eventWatcher;
+                zooKeeper = sessionManager.getZooKeeper();
+                sessionManager.registerWatcher(ELECTION_NAMESPACE, handler);
+                connectionListener = state -> handler.process(new WatchedEvent(Event.EventType.None, state, null));
+                sessionManager.addConnectionListener(connectionListener);
+                eventWatcher = sessionManager;
+                return;
+            }
+            // ZooKeeper 객체 생성 시 연결 요청을 보내고, 이 객체를 통해 서버와 상호작용합니다.
+            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, eventWatcher);
+        } catch (IOException e) {
+            System.err.println("Failed to connect to ZooKeeper: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1); // 연결 실패 시 프로그램을 종료합니다.
+        }
+    }
+
+    /**
+     * reconnect() 메서드는 세션이 만료되었을 때 새 세션으로 연결을 다시 만듭니다. (자기 연결을 만드는 기본 모드에서만 사용)
+     * - 생성자는 연결 요청만 보내고 즉시 반환하므로 이벤트 스레드에서 호출해도 됩니다.
+     * - 새 세션의 SyncConnected에서 reenroll()이 교체된 연결을 읽으므로, 같은 락으로 교체합니다.
+     */
+    private synchronized void reconnect() {
+        EventLog.log(LogEvent.SESSION_EXPIRED);
+        try {
+            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, eventWatcher);
+        } catch (IOException e) {
+            System.err.println("Failed to create a new ZooKeeper session: " + e.getMessage());
+            stop();
+        }
+    }
+
+    /**
+     * run() 메서드는 stop()이 호출될 때까지 현재 스레드를 대기 상태로 만듭니다.
+     * - Disconnected는 클라이언트가 같은 세션으로 다시 연결하고, Expired는 새 세션으로 다시 등록하므로 대기를 해제하지 않습니다.
+     * - 세션이 만료되면 zooKeeper 객체가 바뀌므로, zooKeeper 대신 lifecycleLock을 모니터(락)로 사용합니다.
+     */
+    public void run() {
+        synchronized (lifecycleLock) {
+            try {
+                // 대기 상태: stop()이 notifyAll()을 호출할 때까지 현재 스레드는 여기서 멈춥니다.
+                while (!stopped) {
+                    lifecycleLock.wait();
+                }
+            } catch (InterruptedException e) {
+                // wait() 도중 인터럽트가 발생하면, 현재 스레드의 인터럽트 상태를 복원하고 에러 메시지를 출력합니다.
+                Thread.currentThread().interrupt();
+                System.err.println("Thread interrupted while waiting: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * stop() 메서드는 run()의 대기를 해제합니다. 이후 main은 close()로 연결을 종료합니다.
+     */
+    public void stop() {
+        synchronized (lifecycleLock) {
+            stopped = true;
+            lifecycleLock.notifyAll();  // run() 메서드에서 대기 중인 스레드를 깨웁니다.
+        }
+    }
+
+    /**
+     * close() 메서드는 ZooKeeper와의 연결을 안전하게 종료합니다.
+     * - 연결이 존재하면 zooKeeper.close()를 호출하여 자원을 정리합니다.
+     */
+    public void close() {
+        if (sessionManager != null) {
+            // 공유 세션 모드: 다른 레시피가 쓰는 연결은 그대로 두고, 세션이 끝나야 사라질 자신의 후보 znode를 직접 삭제합니다.
+            closeSharedSession();
+        } else if (zooKeeper != null) {
+            try {
+                // ZooKeeper 연결 종료: 연결이 종료되면 클라이언트와 서버 간의 세션이 종료됩니다.
+                zooKeeper.close();
+            } catch (InterruptedException e) {
+                // 연결 종료 도중 인터럽트가 발생하면, 인터럽트 상태를 복원하고 에러 메시지를 출력합니다.
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while closing ZooKeeper connection: " + e.getMessage());
+            }
+        }
+        if (watchDispatcher != null) {
+            // 이미 넘겨받은 이벤트의 처리가 끝날 때까지 기다립니다.
+            watchDispatcher.close();
+        }
+    }
+
+    // 공유 세션에서 이 인스턴스의 등록과 후보 znode를 정리합니다.
+    private void closeSharedSession() {
+        sessionManager.removeConnectionListener(connectionListener);
+        sessionManager.unregisterWatcher(ELECTION_NAMESPACE, watchDispatcher != null ? watchDispatcher : this);
+        resigned = true;
+        withdrawCandidacy();
+        updateLeadership(Leadership.UNKNOWN);
+    }
+
+    /**
+     * process() 메서드는 ZooKeeper의 Watcher 인터페이스를 구현한 것으로,
+     * ZooKeeper에서 발생한 이벤트를 처리합니다.
+     * - 이벤트 타입이 None인 경우, 주로 연결 상태의 변화를 나타냅니다.
+     *   - SyncConnected: 같은 세션으로 재연결되었으면 선출 결과를 복원하고, 새 세션이면 다시 후보로 등록합니다.
+     *   - Disconnected: 리더 여부를 무효화하고, 클라이언트가 세션 타임아웃 안에 다시 연결하기를 기다립니다.
+     *   - Expired: 새 세션을 만들고, 그 세션의 SyncConnected에서 다시 후보로 등록합니다.
+     *   - 인증 실패 등 복구할 수 없는 상태에서만 run() 메서드의 대기를 해제합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        recipeMetrics.eventReceived(watchedEvent);
+        // 이벤트 타입에 따라 처리할 로직을 구분합니다.
+        switch (watchedEvent.getType()) {
+            case None:
+                // 연결 상태 변화 이벤트: 연결 성공 혹은 연결 종료/세션 만료 등
+                switch (watchedEvent.getState()) {
+                    case SyncConnected:
+                        // 성공적으로 연결되었을 때
+                        boolean reconnected = disconnectedAtNanos != NO_TIMESTAMP;
+                        disconnectedAtNanos = NO_TIMESTAMP;
+                        EventLog.log(LogEvent.CONNECTED);
+                        if (reenrollPending) {
+                            // 세션이 만료된 뒤의 새 세션이라면, 이전 후보 znode는 사라졌으므로 다시 후보로 등록합니다.
+                            reenrollPending = false;
+                            if (sessionManager != null) {
+                                zooKeeper = sessionManager.getZooKeeper();
+                            }
+                            reenroll();
+                        } else if (reconnected) {
+                            // 같은 세션으로 다시 연결되었다면, 끊긴 동안 UNKNOWN으로 바꿔 둔 선출 결과를 복원합니다.
+                            restoreLeadership();
+                        }
+                        break;
+                    case Disconnected:
+                        // 세션이 유효한지 확신할 수 없으므로, 리더 전용 작업이 즉시 멈추도록 선출 결과를 무효화합니다.
+                        // 세션은 아직 살아 있을 수 있으므로 종료하지 않고 클라이언트의 재연결을 기다립니다.
+                        updateLeadership(Leadership.UNKNOWN);
+                        disconnectedAtNanos = System.nanoTime();
+                        EventLog.log(LogEvent.DISCONNECTED);
+                        break;
+                    case Expired:
+                        updateLeadership(Leadership.UNKNOWN);
+                        // 연결이 끊긴 시각부터 세션 만료를 통지받기까지의 시간을 기록합니다.
+                        if (disconnectedAtNanos != NO_TIMESTAMP) {
+                            failoverMetrics.recordSince(FailoverMetrics.Phase.SESSION_LOSS_DETECTION, disconnectedAtNanos);
+                            disconnectedAtNanos = NO_TIMESTAMP;
+                        }
+                        expiredAtNanos = System.nanoTime();
+                        reenrollPending = true;
+                        // 공유 세션 모드에서는 SessionManager가 새 세션을 만듭니다.
+                        if (sessionManager == null) {
+                            reconnect();
+                        }
+                        break;
+                    case Closed:
+                        // close()로 직접 연결을 닫은 경우입니다.
+                        updateLeadership(Leadership.UNKNOWN);
+                        break;
+                    default:
+                        // 인증 실패 등 복구할 수 없는 상태: 대기 중인 스레드를 깨워 프로그램을 종료합니다.
+                        updateLeadership(Leadership.UNKNOWN);
+                        EventLog.log(LogEvent.CONNECTION_LOST);
+                        stop();
+                        break;
+                }
+                break;
+            case NodeDeleted:
+                // 공유 세션 모드에서는 "/election" 아래의 다른 znode 이벤트도 오므로, 감시 중인 선행 후보만 처리합니다.
+                if (sessionManager != null && !isWatchedPredecessor(watchedEvent.getPath())) {
+                    break;
+                }
+                failoverStartNanos = System.nanoTime();
+                reelectLeader();
+                break;
+            default:
+                // 추가적인 이벤트(예: 노드 생성, 삭제, 데이터 변경 등)가 발생할 경우, 해당 이벤트에 대한 처리 로직을 추가할 수 있습니다.
+                break;
+        }
+    }
+
+    private boolean isWatchedPredecessor(String path) {
+        String predecessorName = watchedPredecessorName;
+        return predecessorName != null && path.equals(ELECTION_NAMESPACE + "/" + predecessorName);
+    }
+}
@@ -0,0 +1,174 @@
+import distributed.systems.election.MultiElectionManager;
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+
+import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
+
+public class MultiLeaderElection implements Watcher {
+
+    // ZooKeeper 서버의 주소 (기본은 로컬호스트의 포트 2181, -Dzookeeper.address=host:port 로 변경 가능)
+    private static final String ZOOKEEPER_ADDRESS = System.getProperty("zookeeper.address", "localhost:2181");
+
+    // ZooKeeper와 연결할 때 사용할 세션 타임아웃 (밀리초 단위, 여기서는 3000ms 즉 3초)
+    private static final int SESSION_TIMEOUT = 3000;
+
+    // 샤드별 선출 네임스페이스들의 상위 경로 (각 샤드는 "/elections/shard-<번호>"를 사용)
+    // LeaderReElection의 "/election" 후보 목록과 그 감시(CandidateView)에 섞이지 않도록 별도의 경로를 씁니다.
+    private static final String ELECTION_NAMESPACE = "/elections";
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체 (모든 샤드의 선출이 이 세션 하나를 공유하며, 세션이 만료되면 바뀝니다)
+    private volatile ZooKeeper zooKeeper;
+
+    // 여러 선출을 하나의 세션으로 묶어 관리하는 객체
+    private volatile MultiElectionManager electionManager;
+
+    // run()의 대기와 stop()의 해제에 사용하는 모니터 (세션이 만료되면 zooKeeper 객체가 바뀌므로 별도로 둡니다)
+    private final Object lifecycleLock = new Object();
+
+    // stop()이 호출되었는지 여부
+    private boolean stopped = false;
+
+    /**
+     * main 메서드는 프로그램의 시작점입니다.
+     * 1. ZooKeeper 서버와 연결 (세션 하나)
+     * 2. -Delection.shards=N 개의 샤드 선출에 참여 (joinShards)
+     * 3. 복구할 수 없는 연결 상태가 될 때까지 대기 (run, 세션 만료는 새 세션으로 복구)
+     * 4. 모든 선출에서 빠진 뒤 연결 종료 (close)
+     */
+    public static void main(String[] args) {
+        MultiLeaderElection multiLeaderElection = new MultiLeaderElection();
+
+        // ZooKeeper 서버와 연결을 시도합니다.
+        multiLeaderElection.connectToZooKeeper();
+
+        // 샤드 수만큼 선출에 참여합니다. 모든 참여는 비동기로 진행되므로 즉시 반환됩니다.
+        multiLeaderElection.joinShards(Integer.getInteger("election.shards", 16));
+
+        // 연결 상태를 유지하며 대기합니다.
+        multiLeaderElection.run();
+
+        // 연결을 정상적으로 종료합니다.
+        multiLeaderElection.close();
+
+        System.out.println("Disconnected from ZooKeeper, exiting application");
+    }
+
+    /**
+     * joinShards() 메서드는 "shard-0" ~ "shard-(N-1)" 선출에 모두 참여합니다.
+     * - 각 샤드의 리더 여부가 바뀔 때마다 콜백에서 결과를 출력합니다.
+     */
+    public void joinShards(int shardCount) {
+        electionManager = new MultiElectionManager(zooKeeper, ELECTION_NAMESPACE);
+        for (int shard = 0; shard < shardCount; shard++) {
+            electionManager.join("shard-" + shard, (namespace, leader) ->
+                    EventLog.log(leader ? LogEvent.SHARD_LEADER : LogEvent.SHARD_NOT_LEADER, namespace));
+        }
+    }
+
+    /**
+     * connectToZooKeeper() 메서드는 ZooKeeper 서버와 연결을 생성합니다.
+     */
+    public void connectToZooKeeper() {
+        try {
+            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, this);
+        } catch (IOException e) {
+            System.err.println("Failed to connect to ZooKeeper: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1); // 연결 실패 시 프로그램을 종료합니다.
+        }
+    }
+
+    /**
+     * reconnect() 메서드는 세션이 만료되었을 때 새 세션을 만들고, 모든 샤드 선출이 새 세션에서 다시 후보로 등록하게 합니다.
+     * - 생성자는 연결 요청만 보내고 즉시 반환하므로 이벤트 스레드에서 호출해도 됩니다.
+     */
+    private void reconnect() {
+        EventLog.log(LogEvent.SESSION_EXPIRED);
+        try {
+            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, this);
+        } catch (IOException e) {
+            System.err.println("Failed to create a new ZooKeeper session: " + e.getMessage());
+            stop();
+            return;
+        }
+        if (electionManager != null) {
+            electionManager.sessionExpired(zooKeeper);
+        }
+    }
+
+    /**
+     * run() 메서드는 stop()이 호출될 때까지 현재 스레드를 대기 상태로 만듭니다.
+     */
+    public void run() {
+        synchronized (lifecycleLock) {
+            try {
+                while (!stopped) {
+                    lifecycleLock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Thread interrupted while waiting: " + e.getMessage());
+            }
+        }
+    }
+
+    // run()의 대기를 해제합니다.
+    public void stop() {
+        synchronized (lifecycleLock) {
+            stopped = true;
+            lifecycleLock.notifyAll();
+        }
+    }
+
+    /**
+     * close() 메서드는 모든 선출에서 빠진 뒤 ZooKeeper와의 연결을 종료합니다.
+     */
+    public void close() {
+        if (electionManager != null) {
+            electionManager.close();
+        }
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while closing ZooKeeper connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * process() 메서드는 세션의 연결 상태 이벤트만 처리합니다.
+     * - 샤드별 선행 후보 Watcher 이벤트는 MultiElectionManager가 직접 받아 해당 선출로 전달합니다.
+     * - Disconnected: 클라이언트가 같은 세션으로 다시 연결하기를 기다립니다.
+     * - Expired: 새 세션을 만들고 모든 샤드 선출에 다시 참여합니다.
+     * - 인증 실패 등 복구할 수 없는 상태에서만 run() 메서드의 대기를 해제합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        if (watchedEvent.getType() != Event.EventType.None) {
+            return;
+        }
+        switch (watchedEvent.getState()) {
+            case SyncConnected:
+                EventLog.log(LogEvent.CONNECTED);
+                break;
+            case Disconnected:
+                EventLog.log(LogEvent.DISCONNECTED);
+                break;
+            case Expired:
+                reconnect();
+                break;
+            case Closed:
+                // close()로 직접 연결을 닫은 경우입니다.
+                break;
+            default:
+                EventLog.log(LogEvent.CONNECTION_LOST);
+                stop();
+                break;
+        }
+    }
+}
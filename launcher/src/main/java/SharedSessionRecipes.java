@@ -0,0 +1,57 @@
+import distributed.systems.session.SessionManager;
+import org.apache.zookeeper.KeeperException;
+
+import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SharedSessionRecipes는 리더 재선출(LeaderReElection)과 znode 감시(WatcherMonitoring)를
+ * SessionManager의 ZooKeeper 연결 하나 위에서 함께 실행하는 예제입니다.
+ * - 레시피마다 연결을 만들 때와 달리 소켓, 하트비트, 서버의 세션 상태가 하나뿐입니다.
+ * - 연결 상태 변화는 SessionManager가 받아 두 레시피에 모두 전달합니다.
+ */
+public class SharedSessionRecipes {
+
+    // ZooKeeper 서버의 주소 (기본은 로컬호스트의 포트 2181, -Dzookeeper.address=host:port 로 변경 가능)
+    private static final String ZOOKEEPER_ADDRESS = System.getProperty("zookeeper.address", "localhost:2181");
+
+    // ZooKeeper와 연결할 때 사용할 세션 타임아웃 (밀리초 단위, 여기서는 3000ms 즉 3초)
+    private static final int SESSION_TIMEOUT = 3000;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SessionManager sessionManager = new SessionManager(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT);
+
+        // 공유 연결을 만들고, 레시피가 요청을 보내기 전에 연결이 완료될 때까지 기다립니다.
+        sessionManager.connect();
+        if (!sessionManager.awaitConnected(SESSION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            System.err.println("Failed to connect to ZooKeeper within " + SESSION_TIMEOUT + "ms");
+            sessionManager.close();
+            System.exit(1);
+        }
+        System.out.println("Successfully connected to ZooKeeper");
+
+        // 두 레시피 모두 새 연결을 만들지 않고 공유 연결에 등록만 합니다.
+        LeaderReElection leaderElection = new LeaderReElection(sessionManager);
+        leaderElection.connectToZooKeeper();
+        leaderElection.startElection();
+
+        WatcherMonitoring watcherMonitoring = new WatcherMonitoring(sessionManager);
+        watcherMonitoring.connectToZooKeeper();
+        try {
+            watcherMonitoring.watchTargetZnode();
+        } catch (KeeperException e) {
+            throw new RuntimeException(e);
+        }
+
+        // 선출 레시피가 stop()될 때까지 대기합니다. (연결 끊김과 세션 만료는 SessionManager와 레시피가 복구하므로,
+        // 인증 실패 등 복구할 수 없는 상태에서만 대기가 해제됩니다)
+        leaderElection.run();
+
+        // 레시피를 먼저 닫아 등록과 후보 znode를 정리한 뒤, 공유 연결을 종료합니다.
+        watcherMonitoring.close();
+        leaderElection.close();
+        sessionManager.close();
+
+        System.out.println("Disconnected from ZooKeeper, exiting application");
+    }
+}
@@ -0,0 +1,353 @@
+import distributed.systems.dispatch.OrderedWatchDispatcher;
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import distributed.systems.metrics.RecipeMetrics;
+import distributed.systems.monitoring.MembershipView;
+import distributed.systems.monitoring.ZnodeMonitor;
+import distributed.systems.monitoring.ZnodeSnapshot;
+import distributed.systems.session.SessionManager;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;      // ZooKeeper의 상태 정보를 담는 Stat 클래스를 임포트합니다.
+
+import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+
+public class WatcherMonitoring implements Watcher, ZnodeMonitor.Listener {
+
+    // ZooKeeper 서버의 주소 (기본은 로컬호스트의 포트 2181, -Dzookeeper.address=host:port 로 변경 가능)
+    private static final String ZOOKEEPER_ADDRESS = System.getProperty("zookeeper.address", "localhost:2181");
+
+    // ZooKeeper와 연결할 때 사용할 세션 타임아웃 (밀리초 단위, 여기서는 3000ms 즉 3초)
+    private static final int SESSION_TIMEOUT = 3000;
+
+    // Watch 이벤트를 가상 스레드에서 경로별 순서대로 처리할지 여부 (-Dwatch.virtualThreads=true)
+    private static final boolean VIRTUAL_THREAD_DISPATCH = Boolean.getBoolean("watch.virtualThreads");
+
+    // 감시할 대상 znode의 경로
+    private static final String TARGET_ZONE = "/target_znode";
+
+    // 감시할 znode 경로 목록 (기본은 TARGET_ZONE 하나, -Dmonitor.paths=/a,/b,/c 로 변경 가능)
+    private static final List<String> MONITORED_PATHS =
+            Arrays.asList(System.getProperty("monitor.paths", TARGET_ZONE).split(","));
+
+    // 같은 경로의 이벤트를 모아 한 번에 다시 읽을 구간 (밀리초, 기본 0 = 진행 중인 읽기와만 병합, -Dmonitor.coalesceMillis=N)
+    private static final long COALESCE_WINDOW_MILLIS = Long.getLong("monitor.coalesceMillis", 0);
+
+    // 읽은 znode 데이터/자식 목록을 보관할 캐시의 바이트 예산 (기본 64MiB, -Dmonitor.cacheBytes=N)
+    private static final long CACHE_BYTES = Long.getLong("monitor.cacheBytes", ZnodeMonitor.DEFAULT_CACHE_BYTES);
+
+    // 감시 경로의 상태를 기록해 두고 재시작 시 바로 제공할 스냅샷 파일 (기본은 사용하지 않음, -Dmonitor.snapshot=경로)
+    private static final String SNAPSHOT_FILE = System.getProperty("monitor.snapshot");
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체 (세션이 만료되면 새 연결로 교체됩니다)
+    private volatile ZooKeeper zooKeeper;
+
+    // 연결에 등록한 기본 Watcher (자기 자신 또는 watchDispatcher, 세션을 다시 만들 때도 사용합니다)
+    private Watcher connectionWatcher = this;
+
+    // 세션이 만료되어, 다음 SyncConnected에서 새 세션으로 감시를 다시 등록해야 하는지 여부
+    private volatile boolean rewatchPending = false;
+
+    // run()의 대기를 해제할지 여부 (인증 실패 등 복구할 수 없는 상태에서만 true가 됩니다)
+    private boolean stopped = false;
+
+    // run()이 대기하는 모니터. 세션이 만료되면 zooKeeper 객체가 바뀌므로 별도 객체를 사용합니다.
+    private final Object lifecycleLock = new Object();
+
+    // 공유 세션 모드에서 연결을 소유하는 SessionManager, 자기 연결을 만드는 기본 모드에서는 null
+    private final SessionManager sessionManager;
+
+    // 공유 세션 모드에서 SessionManager에 등록한 연결 상태 리스너
+    private SessionManager.ConnectionListener connectionListener;
+
+    // 가상 스레드 디스패치 모드에서 이벤트를 넘겨받는 디스패처, 기본 모드에서는 null
+    // (노드 이벤트는 ZnodeMonitor가 논블로킹으로 처리하므로 여기로는 연결 이벤트만 옵니다)
+    private OrderedWatchDispatcher watchDispatcher;
+
+    // 감시 대상 znode들의 데이터와 자식 목록을 비동기로 읽고 Watcher를 유지하는 객체
+    private ZnodeMonitor znodeMonitor;
+
+    // 선택 사항: 감시 경로의 상태를 기록하는 로컬 스냅샷 (사용하지 않으면 null)
+    private ZnodeSnapshot snapshot;
+
+    /**
+     * 기본 생성자는 connectToZooKeeper()에서 자기 연결을 만드는 인스턴스를 생성합니다.
+     */
+    public WatcherMonitoring() {
+        this(null);
+    }
+
+    /**
+     * 이 생성자는 SessionManager의 공유 연결을 사용하는 인스턴스를 생성합니다.
+     * - 같은 JVM의 다른 레시피와 세션을 함께 쓰므로, close()는 연결을 닫지 않고 자신의 등록만 해제합니다.
+     */
+    public WatcherMonitoring(SessionManager sessionManager) {
+        this.sessionManager = sessionManager;
+    }
+
+    public static void main(String[] args) {
+        // WatcherMonitoring 클래스의 인스턴스를 생성합니다.
+        WatcherMonitoring watcherMonitoring = new WatcherMonitoring();
+
+        // ZooKeeper 서버와 연결을 시도합니다.
+        watcherMonitoring.connectToZooKeeper();
+
+        // 감시 대상 znode들에 대한 감시를 시작합니다.
+        // 이 메서드는 모든 경로의 데이터와 자식 노드를 한꺼번에 읽으며 Watcher를 등록합니다.
+        try {
+            watcherMonitoring.watchTargetZnode();
+        } catch (KeeperException e) {
+            throw new RuntimeException(e);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+
+        // 연결 상태를 유지하며 대기합니다.
+        // 연결이 잠시 끊기거나 세션이 만료되어도 대기는 계속되고, 인증 실패 등 복구할 수 없는 상태에서만 해제됩니다.
+        watcherMonitoring.run();
+
+        // 연결을 정상적으로 종료합니다.
+        watcherMonitoring.close();
+
+        // 이벤트 로그에 남은 기록을 먼저 출력한 뒤, 받은 이벤트 수와 병합 후 실제로 다시 읽은 횟수를 출력합니다.
+        EventLog.get().flush();
+        System.out.println("Events received: " + watcherMonitoring.znodeMonitor.getEventsReceived()
+                + ", refreshes performed: " + watcherMonitoring.znodeMonitor.getRefreshesPerformed());
+        System.out.println("Cache: " + watcherMonitoring.znodeMonitor.getCache());
+        if (watcherMonitoring.snapshot != null) {
+            System.out.println("Snapshot: " + watcherMonitoring.snapshot);
+        }
+        System.out.print("Metrics:\n" + RecipeMetrics.get().getSnapshot());
+    }
+
+    /**
+     * connectToZooKeeper() 메서드는 ZooKeeper 서버와 연결을 생성합니다.
+     * - ZooKeeper 생성자에 서버 주소, 세션 타임아웃, 그리고 이벤트 처리를 위한 Watcher(현재 객체)를 전달합니다.
+     * - 연결이 성공하면 ZooKeeper 객체가 생성되어 서버와 상호작용할 수 있습니다.
+     */
+    public void connectToZooKeeper() {
+        try {
+            // 선택 사항: Watch 이벤트를 이벤트 스레드 대신 가상 스레드에서 경로별 순서대로 처리합니다.
+            Watcher watcher = this;
+            if (VIRTUAL_THREAD_DISPATCH) {
+                watchDispatcher = new OrderedWatchDispatcher(this);
+                watcher = watchDispatcher;
+            }
+            connectionWatcher = watcher;
+            // 선택 사항: 스냅샷 파일을 열어 두면 loadAll()이 저장된 값을 먼저 제공하고 바뀐 부분만 다시 읽습니다.
+            if (SNAPSHOT_FILE != null) {
+                openSnapshot();
+            }
+            if (sessionManager != null) {
+                // 공유 세션 모드: 새 연결을 만들지 않고 연결 상태 변화만 등록해 받습니다.
+                Watcher handler = watcher;
+                zooKeeper = sessionManager.getZooKeeper();
+                connectionListener = state -> handler.process(new WatchedEvent(Event.EventType.None, state, null));
+                sessionManager.addConnectionListener(connectionListener);
+                znodeMonitor = new ZnodeMonitor(zooKeeper, MONITORED_PATHS, this, COALESCE_WINDOW_MILLIS, CACHE_BYTES,
+                        snapshot);
+                return;
+            }
+            // ZooKeeper 객체 생성 시 연결 요청을 보내고, 이 객체를 통해 서버와 통신합니다.
+            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, watcher);
+            // 노드 이벤트는 ZnodeMonitor가 받아 필요한 부분만 다시 읽고, 결과를 이 객체(Listener)에 알려 줍니다.
+            znodeMonitor = new ZnodeMonitor(zooKeeper, MONITORED_PATHS, this, COALESCE_WINDOW_MILLIS, CACHE_BYTES,
+                    snapshot);
+        } catch (IOException e) {
+            // 연결 중 IOException이 발생하면, 에러 메시지를 출력하고 프로그램을 종료합니다.
+            System.err.println("Failed to connect to ZooKeeper: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * openSnapshot() 메서드는 -Dmonitor.snapshot 파일을 엽니다. 열지 못하면 스냅샷 없이 계속합니다.
+     */
+    private void openSnapshot() {
+        try {
+            snapshot = new ZnodeSnapshot(Path.of(SNAPSHOT_FILE));
+        } catch (IOException e) {
+            System.err.println("Failed to open znode snapshot " + SNAPSHOT_FILE + ", continuing without it: "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * reconnect() 메서드는 세션이 만료되었을 때 새 세션으로 연결을 다시 만듭니다. (자기 연결을 만드는 기본 모드에서만 사용)
+     * - 생성자는 연결 요청만 보내고 즉시 반환하므로 이벤트 스레드에서 호출해도 됩니다.
+     */
+    private synchronized void reconnect() {
+        EventLog.log(LogEvent.SESSION_EXPIRED);
+        try {
+            zooKeeper = new ZooKeeper(ZOOKEEPER_ADDRESS, SESSION_TIMEOUT, connectionWatcher);
+        } catch (IOException e) {
+            System.err.println("Failed to create a new ZooKeeper session: " + e.getMessage());
+            stop();
+        }
+    }
+
+    // 새 세션으로 모든 감시 경로를 다시 읽으며 Watcher를 등록합니다. (응답을 기다리지 않습니다)
+    private synchronized void rewatch() {
+        if (sessionManager != null) {
+            zooKeeper = sessionManager.getZooKeeper();
+        }
+        znodeMonitor.sessionRenewed(zooKeeper);
+    }
+
+    /**
+     * run() 메서드는 stop()이 호출될 때까지 현재 스레드를 대기 상태로 만듭니다.
+     * - Disconnected는 클라이언트가 같은 세션으로 다시 연결하고, Expired는 새 세션으로 감시를 다시 등록하므로 대기를 해제하지 않습니다.
+     * - 세션이 만료되면 zooKeeper 객체가 바뀌므로, zooKeeper 대신 lifecycleLock을 모니터(락)로 사용합니다.
+     */
+    public void run() {
+        synchronized (lifecycleLock) {
+            try {
+                // 현재 스레드를 대기 상태로 전환하여, stop()이 notifyAll()을 호출할 때까지 멈춥니다.
+                while (!stopped) {
+                    lifecycleLock.wait();
+                }
+            } catch (InterruptedException e) {
+                // 대기 도중 인터럽트가 발생하면, 현재 스레드의 인터럽트 상태를 복원하고 에러 메시지를 출력합니다.
+                Thread.currentThread().interrupt();
+                System.err.println("Thread interrupted while waiting: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * stop() 메서드는 run()의 대기를 해제합니다. 이후 main은 close()로 연결을 종료합니다.
+     */
+    public void stop() {
+        synchronized (lifecycleLock) {
+            stopped = true;
+            // lifecycleLock에 대해 wait() 중인 모든 스레드를 깨워 run() 메서드의 대기를 해제합니다.
+            lifecycleLock.notifyAll();
+        }
+    }
+
+    /**
+     * close() 메서드는 ZooKeeper와의 연결을 안전하게 종료합니다.
+     * - 연결이 존재하면 zooKeeper.close()를 호출하여 서버와의 세션을 종료하고 자원을 정리합니다.
+     */
+    public void close() {
+        if (znodeMonitor != null) {
+            // 병합 구간을 기다리던 다시 읽기를 정리합니다.
+            znodeMonitor.close();
+        }
+        if (sessionManager != null) {
+            // 공유 세션 모드: 다른 레시피가 쓰는 연결은 그대로 두고 연결 상태 리스너만 해제합니다.
+            sessionManager.removeConnectionListener(connectionListener);
+        } else if (zooKeeper != null) {
+            try {
+                // ZooKeeper 연결 종료: 서버와의 세션이 종료되고, 관련 자원이 정리됩니다.
+                zooKeeper.close();
+            } catch (InterruptedException e) {
+                // 연결 종료 도중 인터럽트가 발생하면, 인터럽트 상태를 복원하고 에러 메시지를 출력합니다.
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while closing ZooKeeper connection: " + e.getMessage());
+            }
+        }
+        if (watchDispatcher != null) {
+            // 이미 넘겨받은 이벤트의 처리가 끝날 때까지 기다립니다.
+            watchDispatcher.close();
+        }
+        if (snapshot != null) {
+            // 이벤트 처리가 모두 끝난 뒤 스냅샷을 디스크에 쓰고 닫습니다.
+            snapshot.close();
+        }
+    }
+
+    /**
+     * watchTargetZnode() 메서드는 감시 대상 znode들에 대한 감시를 설정합니다.
+     * - 모든 경로에 대해 비동기 getData()와 getChildren()을 한꺼번에 보내므로,
+     *   요청들이 파이프라인으로 겹쳐 경로 수와 관계없이 대략 한 번의 왕복 시간만 걸립니다.
+     * - 두 호출이 Watcher를 함께 등록하므로 별도의 exists() 호출은 노드가 없을 때만 보냅니다.
+     * - 스냅샷(-Dmonitor.snapshot)이 있으면 저장된 값을 먼저 알리고, exists()로 받은 Stat과 비교해 바뀐 부분만 다시 읽습니다.
+     * - 이후의 변화는 ZnodeMonitor가 이벤트 타입에 맞는 부분만 다시 읽어 dataChanged() 등으로 알려 줍니다.
+     *
+     * @throws KeeperException    ZooKeeper 서버와의 통신 중 발생하는 예외
+     * @throws InterruptedException 스레드가 인터럽트되었을 때 발생하는 예외
+     */
+    public void watchTargetZnode() throws KeeperException, InterruptedException {
+        znodeMonitor.loadAll();
+        if (znodeMonitor.getRestoredPaths() > 0) {
+            EventLog.log(LogEvent.SNAPSHOT_REVALIDATED, znodeMonitor.getRestoredPaths(), znodeMonitor.getPartsRefetched());
+        }
+    }
+
+    /** ZnodeMonitor.Listener 구현 ************************************************************************************** */
+
+    @Override
+    public void dataChanged(String path, byte[] data, Stat stat) {
+        // 데이터 배열을 그대로 넘기고, 문자열 변환은 이벤트 로그의 출력 스레드가 합니다.
+        EventLog.log(LogEvent.DATA_CHANGED, path, data);
+    }
+
+    @Override
+    public void childrenChanged(String path, List<String> children) {
+        // 전체 목록은 출력하지 않습니다. 바뀐 구성원만 membershipChanged()에서 출력합니다.
+    }
+
+    @Override
+    public void membershipChanged(String path, MembershipView.Diff diff) {
+        // 추가 / 삭제된 자식만 출력하므로, 자식이 많아도 출력량은 변경된 수에 비례합니다.
+        EventLog.log(LogEvent.CHILDREN_CHANGED, path, diff);
+    }
+
+    @Override
+    public void deleted(String path) {
+        EventLog.log(LogEvent.ZNODE_MISSING, path);
+    }
+
+    /**
+     * process() 메서드는 ZooKeeper의 Watcher 인터페이스를 구현한 것으로,
+     * 연결 상태 변화 이벤트를 처리합니다.
+     * - Disconnected: 같은 세션으로 재연결되면 클라이언트가 Watcher를 자동으로 다시 등록하므로 기다리기만 합니다.
+     * - Expired: 새 세션을 만들고, 그 세션의 SyncConnected에서 모든 경로를 다시 읽으며 Watcher를 등록합니다.
+     * - 인증 실패 등 복구할 수 없는 상태에서만 run() 메서드의 대기를 해제합니다.
+     * - 노드 관련 이벤트(NodeCreated, NodeDeleted, NodeDataChanged, NodeChildrenChanged)는
+     *   ZnodeMonitor에 등록된 Watcher로 전달되므로 여기서는 다시 읽지 않습니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        // 연결 상태 변화 이벤트: 연결 성공 혹은 연결 종료/세션 만료 등을 나타냅니다.
+        if (watchedEvent.getType() != Event.EventType.None) {
+            return;
+        }
+        RecipeMetrics.get().eventReceived(watchedEvent);
+        switch (watchedEvent.getState()) {
+            case SyncConnected:
+                // ZooKeeper와 성공적으로 연결되었을 때
+                EventLog.log(LogEvent.CONNECTED);
+                if (rewatchPending) {
+                    // 세션이 만료된 뒤의 새 세션이라면, 이전 세션의 Watcher는 사라졌으므로 다시 등록합니다.
+                    rewatchPending = false;
+                    rewatch();
+                }
+                break;
+            case Disconnected:
+                EventLog.log(LogEvent.DISCONNECTED);
+                break;
+            case Expired:
+                rewatchPending = true;
+                // 공유 세션 모드에서는 SessionManager가 새 세션을 만듭니다.
+                if (sessionManager == null) {
+                    reconnect();
+                }
+                break;
+            case Closed:
+                // close()로 직접 연결을 닫은 경우입니다.
+                break;
+            default:
+                // 인증 실패 등 복구할 수 없는 상태: 대기 중인 스레드를 깨워 프로그램을 종료합니다.
+                EventLog.log(LogEvent.CONNECTION_LOST);
+                stop();
+                break;
+        }
+    }
+}
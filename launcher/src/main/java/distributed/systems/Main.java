@@ -0,0 +1,122 @@
+package distributed.systems;
+
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.metrics.RecipeMetrics;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Main 클래스는 launcher.jar 하나로 선출 / 재선출 / 감시 예제 중 하나를 실행 시 골라 실행하는 진입점입니다.
+ * - 모드는 첫 번째 인자로 고르고(java -jar launcher.jar monitoring), 인자가 없으면 -Dlauncher.mode, 그것도 없으면 reelection입니다.
+ *   나머지 인자는 고른 예제의 main에 그대로 넘깁니다.
+ * - 예제 클래스는 기본 패키지에 있어 이름으로 직접 참조할 수 없으므로, 클래스 이름으로 main을 찾아 호출합니다.
+ * - -Dlauncher.startupReport=true: JVM 시작부터 후보 znode 생성("Znode created")과 첫 선출 결과까지 걸린 시간을 출력합니다.
+ *   (reelection 모드만 RecipeMetrics에 기록하므로 이 모드에서만 의미가 있습니다)
+ * - -Dlauncher.exitAfterElection=true: 첫 선출 결과가 나오면 시간을 출력하고 종료합니다.
+ *   -XX:ArchiveClassesAtExit와 함께 AppCDS 아카이브의 학습 실행에 사용합니다. (launcher/pom.xml의 appcds 프로필)
+ */
+public class Main {
+
+    /**
+     * Mode는 실행할 수 있는 예제와 그 main 클래스입니다.
+     */
+    enum Mode {
+        ELECTION("LeaderElection"),
+        REELECTION("LeaderReElection"),
+        MULTI("MultiLeaderElection"),
+        MONITORING("WatcherMonitoring"),
+        SHARED_SESSION("SharedSessionRecipes");
+
+        private final String mainClass;
+
+        Mode(String mainClass) {
+            this.mainClass = mainClass;
+        }
+
+        // 명령행 이름 (소문자, '_' 대신 '-')
+        String argument() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        static Mode fromArgument(String argument) {
+            for (Mode mode : values()) {
+                if (mode.argument().equals(argument)) {
+                    return mode;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final long PROBE_INTERVAL_NANOS = 1_000_000;
+
+    public static void main(String[] args) throws Throwable {
+        String argument = args.length > 0 ? args[0] : System.getProperty("launcher.mode", Mode.REELECTION.argument());
+        Mode mode = Mode.fromArgument(argument);
+        if (mode == null) {
+            System.err.println("Unknown mode: " + argument);
+            printUsage();
+            return;
+        }
+        String[] modeArgs = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+
+        boolean exitAfterElection = Boolean.getBoolean("launcher.exitAfterElection");
+        if (exitAfterElection || Boolean.getBoolean("launcher.startupReport")) {
+            startStartupProbe(exitAfterElection);
+        }
+
+        // 기본 패키지의 예제 클래스에서 public static void main(String[])을 찾아 호출합니다.
+        MethodHandle main = MethodHandles.publicLookup().findStatic(Class.forName(mode.mainClass), "main",
+                MethodType.methodType(void.class, String[].class));
+        main.invokeExact(modeArgs);
+    }
+
+    private static void printUsage() {
+        StringBuilder modes = new StringBuilder();
+        for (Mode mode : Mode.values()) {
+            modes.append(modes.length() == 0 ? "" : "|").append(mode.argument());
+        }
+        System.err.println("Usage: java -jar launcher.jar [" + modes + "] [args...]");
+    }
+
+    /**
+     * startStartupProbe() 메서드는 JVM 시작부터 후보 znode 생성과 첫 선출 결과까지 걸린 시간을 재는 데몬 스레드를 시작합니다.
+     * - 예제 코드를 바꾸지 않도록, 예제가 기록하는 RecipeMetrics(CREATE 호출 수, 선출별 현재 리더)를 1ms 간격으로 확인합니다.
+     *   리더가 정해진 선출이 하나라도 생기면 첫 선출 결과로 봅니다.
+     *   측정값은 최대 1ms 늦게 잡힐 수 있습니다.
+     *
+     * @param exitAfterElection true이면 첫 선출 결과가 나온 뒤 프로세스를 종료합니다.
+     */
+    private static void startStartupProbe(boolean exitAfterElection) {
+        Thread probe = new Thread(() -> {
+            RecipeMetrics metrics = RecipeMetrics.get();
+            long znodeCreatedMillis = -1;
+            while (metrics.getCurrentLeaders().isEmpty()) {
+                if (znodeCreatedMillis < 0 && metrics.histogram(RecipeMetrics.Operation.CREATE).count() > 0) {
+                    znodeCreatedMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+                }
+                LockSupport.parkNanos(PROBE_INTERVAL_NANOS);
+            }
+            long electedMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            if (znodeCreatedMillis < 0) {
+                znodeCreatedMillis = electedMillis;
+            }
+
+            // 이벤트 로그에 남은 기록을 먼저 모두 출력한 뒤, 측정값을 출력합니다.
+            EventLog.get().flush();
+            System.out.println("Startup: znode created " + znodeCreatedMillis + " ms, first election "
+                    + electedMillis + " ms after JVM start (leaders: " + metrics.getCurrentLeaders() + ")");
+            if (exitAfterElection) {
+                System.exit(0);
+            }
+        }, "startup-probe");
+        probe.setDaemon(true);
+        probe.start();
+    }
+}
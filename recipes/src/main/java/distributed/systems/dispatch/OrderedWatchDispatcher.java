@@ -0,0 +1,151 @@
+package distributed.systems.dispatch;
+
+import distributed.systems.metrics.LatencyHistogram;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OrderedWatchDispatcher는 ZooKeeper 이벤트 스레드로 들어온 WatchedEvent를 가상 스레드에서 처리하도록 넘겨주는 Watcher입니다.
+ * - 같은 znode 경로의 이벤트는 도착 순서대로 하나씩 처리하고, 서로 다른 경로의 이벤트는 동시에 처리합니다.
+ *   연결 상태 이벤트(경로 없음)는 하나의 별도 순서로 처리합니다.
+ * - 따라서 감싼 Watcher의 process()가 동기 ZooKeeper 호출이나 I/O로 블로킹되어도, 다른 경로의 Watch는 멈추지 않습니다.
+ * - 경로마다 대기열이 있을 때만 맵에 항목이 있고, 대기열이 비면 제거되므로 감시 경로 수만큼 메모리가 남지 않습니다.
+ * - 대기 중인 이벤트 수와 디스패치 지연(이벤트 스레드가 넘긴 시각 → 처리 시작)을 지표로 제공합니다.
+ *
+ * 주의: 경로가 다른 이벤트와 연결 이벤트 사이의 순서는 보장하지 않으므로, 감싼 Watcher는 스레드 안전해야 합니다.
+ */
+public class OrderedWatchDispatcher implements Watcher, AutoCloseable {
+
+    // 연결 상태 이벤트에 사용하는 순서 키
+    private static final String CONNECTION_KEY = "";
+
+    // 실제로 이벤트를 처리할 Watcher
+    private final Watcher delegate;
+
+    // 이벤트 하나당 가상 스레드 하나가 아니라, 경로 대기열 하나당 가상 스레드 하나를 사용합니다.
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // 처리 중이거나 처리를 기다리는 이벤트가 있는 경로의 대기열
+    private final ConcurrentHashMap<String, PathQueue> queues = new ConcurrentHashMap<>();
+
+    // 지표: 현재 대기 중인 이벤트 수, 관찰된 최대 대기 수, 처리한 이벤트 수, 디스패치 지연
+    private final LongAdder queueDepth = new LongAdder();
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+    private final LongAdder dispatched = new LongAdder();
+    private final LatencyHistogram dispatchLag = new LatencyHistogram();
+
+    public OrderedWatchDispatcher(Watcher delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * process() 메서드는 이벤트를 경로별 대기열에 넣고 즉시 반환합니다.
+     * - 대기열이 새로 만들어진 경우에만 그 대기열을 비울 가상 스레드를 시작합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        String key = watchedEvent.getPath() != null ? watchedEvent.getPath() : CONNECTION_KEY;
+        Pending pending = new Pending(watchedEvent, System.nanoTime());
+        boolean[] started = {false};
+        PathQueue queue = queues.compute(key, (k, existing) -> {
+            PathQueue target = existing;
+            if (target == null) {
+                target = new PathQueue(k);
+                started[0] = true;
+            }
+            target.events.add(pending);
+            return target;
+        });
+        queueDepth.increment();
+        maxQueueDepth.accumulateAndGet(queueDepth.sum(), Math::max);
+        if (started[0]) {
+            executor.execute(() -> drain(queue));
+        }
+    }
+
+    // 대기열이 빌 때까지 순서대로 처리하고, 비면 맵에서 제거합니다.
+    private void drain(PathQueue queue) {
+        while (true) {
+            Pending pending;
+            while ((pending = queue.events.poll()) != null) {
+                queueDepth.decrement();
+                dispatchLag.recordSince(pending.enqueuedNanos);
+                try {
+                    delegate.process(pending.event);
+                } catch (RuntimeException e) {
+                    // 한 이벤트의 실패가 같은 경로의 이후 이벤트 처리를 막지 않도록 출력만 합니다.
+                    System.err.println("Exception while dispatching " + pending.event + ": " + e.getMessage());
+                }
+                dispatched.increment();
+            }
+            // compute() 안에서 비었는지 확인하므로, 그 사이에 들어온 이벤트를 놓치지 않습니다.
+            boolean[] finished = {false};
+            queues.compute(queue.key, (k, existing) -> {
+                if (existing.events.isEmpty()) {
+                    finished[0] = true;
+                    return null;
+                }
+                return existing;
+            });
+            if (finished[0]) {
+                return;
+            }
+        }
+    }
+
+    // 현재 처리를 기다리는 이벤트 수
+    public long queueDepth() {
+        return queueDepth.sum();
+    }
+
+    // 지금까지 관찰된 최대 대기 이벤트 수
+    public long maxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    // 지금까지 처리한 이벤트 수
+    public long dispatched() {
+        return dispatched.sum();
+    }
+
+    // 이벤트 스레드에서 넘긴 시각부터 처리 시작까지의 지연 히스토그램
+    public LatencyHistogram dispatchLag() {
+        return dispatchLag;
+    }
+
+    /**
+     * close() 메서드는 새 이벤트를 받지 않고, 이미 받은 이벤트의 처리가 끝날 때까지 기다립니다.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    @Override
+    public String toString() {
+        return "dispatched=" + dispatched() + " queueDepth=" + queueDepth() + " maxQueueDepth=" + maxQueueDepth()
+                + " lag: " + dispatchLag.snapshot();
+    }
+
+    private record Pending(WatchedEvent event, long enqueuedNanos) {
+    }
+
+    private static final class PathQueue {
+        private final String key;
+        private final Queue<Pending> events = new ConcurrentLinkedQueue<>();
+
+        private PathQueue(String key) {
+            this.key = key;
+        }
+    }
+}
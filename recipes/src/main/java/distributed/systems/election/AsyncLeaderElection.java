@@ -0,0 +1,313 @@
+package distributed.systems.election;
+
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;
+
+import java.util.Collections;              // List 정렬을 위한 유틸리티 클래스를 임포트합니다.
+import java.util.Comparator;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.UUID;
+
+/**
+ * AsyncLeaderElection 클래스는 LeaderReElection과 같은 선행 후보 감시(predecessor-watch) 알고리즘을
+ * ZooKeeper의 비동기 API(StringCallback, ChildrenCallback, StatCallback)만으로 구현합니다.
+ * - 후보 등록(create) → 후보 목록 조회(getChildren) → 선행 후보 감시(exists)가
+ *   콜백으로 이어지는 논블로킹 상태 머신으로 동작합니다.
+ * - 어떤 단계도 이벤트 스레드를 블로킹하지 않으므로, 같은 JVM의 다른 Watcher 콜백이 뒤에서 기다리지 않습니다.
+ * - 상태 전이는 모두 이벤트 스레드에서 순서대로 일어나므로 별도의 락이 필요 없습니다.
+ * - 후보 이름은 "c_<인스턴스 GUID>-<순번>"입니다. create() 응답을 연결 손실로 받지 못해도 목록에서 GUID로 자신의 후보를
+ *   찾아 이어 쓰므로, 서버에만 만들어진 후보가 아무도 처리하지 않는 리더/선행 후보로 남아 선출을 멈추지 않습니다.
+ *   GUID 때문에 이름순과 생성 순서가 다르므로, 후보 순서는 순번 접미사로 비교합니다.
+ */
+public class AsyncLeaderElection implements Watcher {
+
+    /**
+     * State는 선출 상태 머신의 단계를 나타냅니다.
+     */
+    public enum State {
+        IDLE,         // 아직 시작하지 않음
+        VOLUNTEERING, // 후보 znode 생성 요청 중
+        ELECTING,     // 후보 목록 조회 요청 중
+        WATCHING,     // 선행 후보에 exists() Watcher 등록 요청 중
+        FOLLOWING,    // 선행 후보를 감시하며 대기 중
+        LEADING,      // 리더
+        FAILED,       // 복구할 수 없는 오류로 중단됨
+        CLOSED        // 종료됨
+    }
+
+    // 후보 순서: 순번 접미사(EPHEMERAL_SEQUENTIAL)의 오름차순 (이름에 GUID가 있으므로 문자열 순서를 쓰지 않습니다)
+    private static final Comparator<String> SEQUENCE_ORDER =
+            Comparator.comparingLong(Leadership::epochOf).thenComparing(Comparator.naturalOrder());
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체
+    private final ZooKeeper zooKeeper;
+
+    // 이 인스턴스의 후보 이름 접두사 ("c_<GUID>-"), 연결 손실 뒤 자신의 후보를 찾는 데 사용합니다.
+    private final String candidatePrefix = "c_" + UUID.randomUUID() + "-";
+
+    // 리더 선출에 사용될 네임스페이스 경로
+    private final String namespace;
+
+    // 리더 여부가 바뀔 때 통지받을 리스너
+    private final LeadershipListener listener;
+
+    // 선행 후보의 exists() Watcher로 등록할 객체 (기본은 자기 자신, 여러 선출을 묶을 때는 공용 디스패처)
+    private final Watcher predecessorWatcher;
+
+    // 현재 상태 (이벤트 스레드에서만 변경하고, 다른 스레드에서는 읽기만 합니다)
+    private volatile State state = State.IDLE;
+
+    // 이 인스턴스가 생성한 후보 znode의 이름 (전체 경로에서 네임스페이스를 제거한 이름)
+    private volatile String currentZnodeName;
+
+    // 현재 감시 중인 선행 후보 znode의 이름
+    private volatile String predecessorZnodeName;
+
+    // 마지막 선출에서 확인한 리더 후보 znode의 이름
+    private volatile String leaderZnodeName;
+
+    // 마지막으로 리스너에 통지한 리더 여부 (아직 통지 전이면 null)
+    private Boolean lastNotifiedLeader;
+
+    // 후보 znode의 데이터 (기본은 빈 배열, 접속 정보를 알릴 때는 CandidateRecord.encode()의 결과)
+    private volatile byte[] candidateData = new byte[]{};
+
+    public AsyncLeaderElection(ZooKeeper zooKeeper, String namespace, LeadershipListener listener) {
+        this(zooKeeper, namespace, listener, null);
+    }
+
+    /**
+     * 선행 후보 감시 이벤트를 다른 Watcher가 받아 process()로 전달하는 경우에 사용하는 생성자입니다.
+     * - 여러 선출이 하나의 Watcher 객체를 공유하면, 선출 수가 늘어나도 Watcher 등록이 경로별로 하나씩만 유지됩니다.
+     *
+     * @param predecessorWatcher exists() 호출에 등록할 Watcher, null이면 자기 자신
+     */
+    public AsyncLeaderElection(ZooKeeper zooKeeper, String namespace, LeadershipListener listener,
+                               Watcher predecessorWatcher) {
+        this.zooKeeper = zooKeeper;
+        this.namespace = namespace;
+        this.listener = listener;
+        this.predecessorWatcher = predecessorWatcher != null ? predecessorWatcher : this;
+    }
+
+    /**
+     * start() 메서드는 후보 등록 요청을 보내고 즉시 반환합니다.
+     * - 이후 단계는 모두 콜백에서 이어집니다.
+     */
+    public void start() {
+        state = State.VOLUNTEERING;
+        // c는 candidate(후보)의 약자입니다.
+        zooKeeper.create(
+                namespace + "/" + candidatePrefix,
+                candidateData,
+                ZooDefs.Ids.OPEN_ACL_UNSAFE,
+                CreateMode.EPHEMERAL_SEQUENTIAL,
+                this::onCreated,
+                null
+        );
+    }
+
+    /**
+     * close() 메서드는 상태 머신을 중지합니다.
+     * - 이후 도착하는 콜백과 이벤트는 무시됩니다. 후보 znode는 세션 종료 시 자동으로 삭제됩니다.
+     */
+    public void close() {
+        state = State.CLOSED;
+    }
+
+    // 후보 znode에 쓸 데이터를 지정합니다. start() 전에 호출해야 합니다.
+    public void setCandidateData(byte[] candidateData) {
+        this.candidateData = candidateData;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isLeader() {
+        return state == State.LEADING;
+    }
+
+    public String getCurrentZnodeName() {
+        return currentZnodeName;
+    }
+
+    public String getPredecessorZnodeName() {
+        return predecessorZnodeName;
+    }
+
+    public String getLeaderZnodeName() {
+        return leaderZnodeName;
+    }
+
+    /** 상태 머신 단계 *********************************************************************************************** */
+
+    // create() 완료 콜백: 후보 이름을 저장하고 선출 단계로 넘어갑니다.
+    private void onCreated(int rc, String path, Object ctx, String name) {
+        if (rc == KeeperException.Code.CONNECTIONLOSS.intValue()) {
+            // 서버가 후보를 만들었는지 알 수 없으므로, 목록에서 GUID로 찾아 이어 쓰거나 없으면 다시 만듭니다.
+            recoverCandidate();
+            return;
+        }
+        if (state == State.CLOSED) {
+            // 생성 요청 중에 종료되었다면, 남은 후보가 다른 후보의 선출을 막지 않도록 바로 삭제합니다.
+            if (rc == KeeperException.Code.OK.intValue()) {
+                deleteCandidate(name);
+            }
+            return;
+        }
+        if (rc != KeeperException.Code.OK.intValue()) {
+            fail("Exception while volunteering for leadership", rc, path);
+            return;
+        }
+        adoptCandidate(name.substring(namespace.length() + 1));
+    }
+
+    // 연결 손실 뒤 후보 목록을 읽어 이 인스턴스의 후보가 만들어졌는지 확인합니다. (읽기는 멱등이므로 연결 손실이면 다시 보냅니다)
+    private void recoverCandidate() {
+        zooKeeper.getChildren(namespace, false, this::onRecoveryChildren, null);
+    }
+
+    // recoverCandidate()의 getChildren() 완료 콜백
+    private void onRecoveryChildren(int rc, String path, Object ctx, List<String> children) {
+        if (rc == KeeperException.Code.CONNECTIONLOSS.intValue()) {
+            recoverCandidate();
+            return;
+        }
+        if (rc != KeeperException.Code.OK.intValue()) {
+            if (state != State.CLOSED) {
+                fail("Exception while recovering candidate", rc, path);
+            }
+            return;
+        }
+        String ownCandidate = null;
+        for (String child : children) {
+            if (child.startsWith(candidatePrefix)) {
+                ownCandidate = child;
+                break;
+            }
+        }
+        if (state == State.CLOSED) {
+            if (ownCandidate != null) {
+                deleteCandidate(namespace + "/" + ownCandidate);
+            }
+        } else if (ownCandidate != null) {
+            adoptCandidate(ownCandidate);
+        } else {
+            start();
+        }
+    }
+
+    private void adoptCandidate(String znodeName) {
+        currentZnodeName = znodeName;
+        EventLog.log(LogEvent.ZNODE_CREATED, namespace + "/" + znodeName);
+        elect();
+    }
+
+    private void deleteCandidate(String fullPath) {
+        zooKeeper.delete(fullPath, -1, (deleteRc, deletePath, deleteCtx) -> { }, null);
+    }
+
+    // 후보 목록 조회 요청을 보냅니다. (Watcher 없이 한 번만 읽습니다)
+    private void elect() {
+        state = State.ELECTING;
+        zooKeeper.getChildren(namespace, false, this::onChildren, null);
+    }
+
+    // getChildren() 완료 콜백: 자신이 리더인지, 아니라면 선행 후보가 누구인지 결정합니다.
+    private void onChildren(int rc, String path, Object ctx, List<String> children) {
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (rc == KeeperException.Code.CONNECTIONLOSS.intValue()) {
+            // 읽기 요청은 멱등이므로 그대로 다시 보냅니다.
+            elect();
+            return;
+        }
+        if (rc != KeeperException.Code.OK.intValue()) {
+            fail("Exception while electing leader", rc, path);
+            return;
+        }
+
+        children.sort(SEQUENCE_ORDER);
+        int currentIndex = Collections.binarySearch(children, currentZnodeName, SEQUENCE_ORDER);
+        if (currentIndex < 0) {
+            // 자신의 후보 znode가 사라졌다면(다른 클라이언트가 삭제한 경우 등) 다시 후보로 등록합니다.
+            // 세션이 만료되어 사라졌다면 create()가 SESSIONEXPIRED로 실패하고 리스너에 통지됩니다.
+            currentZnodeName = null;
+            start();
+            return;
+        }
+        leaderZnodeName = children.get(0);
+        if (currentIndex == 0) {
+            predecessorZnodeName = null;
+            state = State.LEADING;
+            notifyListener(true);
+            return;
+        }
+
+        // 자신보다 바로 앞의 후보에 Watcher를 등록합니다. 결과는 onPredecessorStat()에서 이어집니다.
+        String predecessor = children.get(currentIndex - 1);
+        predecessorZnodeName = predecessor;
+        state = State.WATCHING;
+        zooKeeper.exists(namespace + "/" + predecessor, predecessorWatcher, this::onPredecessorStat, predecessor);
+    }
+
+    // exists() 완료 콜백: 선행 후보가 여전히 있으면 대기하고, 이미 사라졌다면 곧바로 다시 선출합니다.
+    private void onPredecessorStat(int rc, String path, Object ctx, Stat stat) {
+        if (state == State.CLOSED || !ctx.equals(predecessorZnodeName)) {
+            return;
+        }
+        if (rc == KeeperException.Code.OK.intValue()) {
+            state = State.FOLLOWING;
+            EventLog.log(LogEvent.WATCHING_PREDECESSOR, predecessorZnodeName);
+            EventLog.log(LogEvent.CURRENT_ZNODE, currentZnodeName);
+            notifyListener(false);
+        } else if (rc == KeeperException.Code.NONODE.intValue()
+                || rc == KeeperException.Code.CONNECTIONLOSS.intValue()) {
+            // 목록 조회와 exists() 사이에 선행 후보가 사라졌거나 연결이 끊겼으므로 다시 선출합니다.
+            elect();
+        } else {
+            fail("Exception while watching predecessor", rc, path);
+        }
+    }
+
+    /**
+     * process() 메서드는 선행 후보에 등록한 exists() Watcher의 이벤트를 처리합니다.
+     * - 감시 중인 선행 후보가 삭제되면 비동기 선출을 다시 시작하고 즉시 반환합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        if (state != State.FOLLOWING && state != State.WATCHING) {
+            return;
+        }
+        if (watchedEvent.getType() == Event.EventType.NodeDeleted
+                && watchedEvent.getPath().equals(namespace + "/" + predecessorZnodeName)) {
+            elect();
+        }
+    }
+
+    // 리더 여부가 바뀐 경우에만 리스너에 통지합니다.
+    private void notifyListener(boolean leader) {
+        if (lastNotifiedLeader != null && lastNotifiedLeader == leader) {
+            return;
+        }
+        lastNotifiedLeader = leader;
+        listener.leadershipChanged(namespace, leader);
+    }
+
+    // 선출을 중단하고 리스너에 알립니다. 리스너는 이후 이 선출의 리더 여부를 알 수 없는 상태로 다룹니다.
+    private void fail(String message, int rc, String path) {
+        state = State.FAILED;
+        System.err.println(message + ": " + KeeperException.create(KeeperException.Code.get(rc), path).getMessage());
+        listener.electionFailed(namespace, KeeperException.Code.get(rc));
+    }
+}
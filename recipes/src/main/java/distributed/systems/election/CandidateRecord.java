@@ -0,0 +1,136 @@
+package distributed.systems.election;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * CandidateRecord는 후보 znode의 데이터로 저장하는 후보의 접속 정보입니다. (호스트, 포트, 시작 시각, 처리 용량, 프로토콜 버전)
+ * - 고정 길이 헤더 뒤에 호스트 이름이 오는 작은 바이너리 형식이므로, 보통 30바이트 안팎입니다.
+ * - port(bytes), host(bytes) 같은 static 메서드는 getData()가 반환한 배열에서 필요한 필드만 바로 읽으며 객체를 만들지 않습니다.
+ *   decode()는 모든 필드가 필요할 때 레코드 하나만 만듭니다.
+ *
+ * 형식 (big-endian):
+ * <pre>
+ *  0      1          3      5                13         17         18
+ *  +------+----------+------+----------------+----------+----------+----------------+
+ *  | 형식 | 프로토콜 | 포트 | 시작 시각 (ms) | 처리 용량 | 호스트 길이 | 호스트 (UTF-8) |
+ *  +------+----------+------+----------------+----------+----------+----------------+
+ * </pre>
+ * - 형식 버전이 올라가도 필드는 뒤에만 추가하므로, 이전 버전의 디코더도 앞의 필드를 그대로 읽을 수 있습니다.
+ */
+public record CandidateRecord(String host, int port, long startTimeMillis, int capacity, int protocolVersion) {
+
+    // 이 클래스가 쓰는 형식 버전
+    public static final int FORMAT_VERSION = 1;
+
+    private static final int FORMAT_OFFSET = 0;
+    private static final int PROTOCOL_OFFSET = 1;
+    private static final int PORT_OFFSET = 3;
+    private static final int START_TIME_OFFSET = 5;
+    private static final int CAPACITY_OFFSET = 13;
+    private static final int HOST_LENGTH_OFFSET = 17;
+    private static final int HOST_OFFSET = 18;
+
+    // 호스트 이름의 최대 바이트 수 (길이를 1바이트로 저장합니다)
+    private static final int MAX_HOST_BYTES = 255;
+
+    // byte[]에서 big-endian 정수를 할당 없이 읽고 쓰기 위한 VarHandle
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    public CandidateRecord {
+        if (port < 0 || port > 0xFFFF) {
+            throw new IllegalArgumentException("port out of range: " + port);
+        }
+        if (protocolVersion < 0 || protocolVersion > 0xFFFF) {
+            throw new IllegalArgumentException("protocolVersion out of range: " + protocolVersion);
+        }
+    }
+
+    /**
+     * parse() 메서드는 "host:port" 문자열로 현재 프로세스의 레코드를 만듭니다. (시작 시각은 JVM 시작 시각)
+     */
+    public static CandidateRecord parse(String hostAndPort, int capacity, int protocolVersion) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("expected host:port but was " + hostAndPort);
+        }
+        return new CandidateRecord(hostAndPort.substring(0, colon), Integer.parseInt(hostAndPort.substring(colon + 1)),
+                ProcessHandle.current().info().startInstant().map(Instant::toEpochMilli)
+                        .orElse(System.currentTimeMillis()),
+                capacity, protocolVersion);
+    }
+
+    /**
+     * encode() 메서드는 레코드를 znode 데이터로 쓸 바이트 배열로 만듭니다.
+     */
+    public byte[] encode() {
+        byte[] hostBytes = host.getBytes(StandardCharsets.UTF_8);
+        if (hostBytes.length > MAX_HOST_BYTES) {
+            throw new IllegalArgumentException("host longer than " + MAX_HOST_BYTES + " bytes: " + host);
+        }
+        byte[] bytes = new byte[HOST_OFFSET + hostBytes.length];
+        bytes[FORMAT_OFFSET] = FORMAT_VERSION;
+        SHORT.set(bytes, PROTOCOL_OFFSET, (short) protocolVersion);
+        SHORT.set(bytes, PORT_OFFSET, (short) port);
+        LONG.set(bytes, START_TIME_OFFSET, startTimeMillis);
+        INT.set(bytes, CAPACITY_OFFSET, capacity);
+        bytes[HOST_LENGTH_OFFSET] = (byte) hostBytes.length;
+        System.arraycopy(hostBytes, 0, bytes, HOST_OFFSET, hostBytes.length);
+        return bytes;
+    }
+
+    /**
+     * decode() 메서드는 znode 데이터에서 레코드를 읽습니다.
+     *
+     * @return 레코드, 데이터가 비어 있거나(레코드를 쓰지 않는 후보) 형식이 맞지 않으면 null
+     */
+    public static CandidateRecord decode(byte[] bytes) {
+        if (!isValid(bytes)) {
+            return null;
+        }
+        return new CandidateRecord(host(bytes), port(bytes), startTimeMillis(bytes), capacity(bytes),
+                protocolVersion(bytes));
+    }
+
+    // 알 수 있는 형식의 레코드인지 확인합니다. (아래의 필드 읽기 메서드는 이 검사를 통과한 배열에만 사용해야 합니다)
+    public static boolean isValid(byte[] bytes) {
+        return bytes != null
+                && bytes.length >= HOST_OFFSET
+                && (bytes[FORMAT_OFFSET] & 0xFF) >= FORMAT_VERSION
+                && bytes.length >= HOST_OFFSET + (bytes[HOST_LENGTH_OFFSET] & 0xFF);
+    }
+
+    public static int formatVersion(byte[] bytes) {
+        return bytes[FORMAT_OFFSET] & 0xFF;
+    }
+
+    public static int protocolVersion(byte[] bytes) {
+        return (short) SHORT.get(bytes, PROTOCOL_OFFSET) & 0xFFFF;
+    }
+
+    public static int port(byte[] bytes) {
+        return (short) SHORT.get(bytes, PORT_OFFSET) & 0xFFFF;
+    }
+
+    public static long startTimeMillis(byte[] bytes) {
+        return (long) LONG.get(bytes, START_TIME_OFFSET);
+    }
+
+    public static int capacity(byte[] bytes) {
+        return (int) INT.get(bytes, CAPACITY_OFFSET);
+    }
+
+    public static String host(byte[] bytes) {
+        return new String(bytes, HOST_OFFSET, bytes[HOST_LENGTH_OFFSET] & 0xFF, StandardCharsets.UTF_8);
+    }
+
+    // "host:port" 형식의 접속 주소
+    public String endpoint() {
+        return host + ":" + port;
+    }
+}
@@ -0,0 +1,188 @@
+package distributed.systems.election;
+
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+
+import java.util.HashSet;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.NavigableSet;             // 정렬된 집합 인터페이스를 임포트합니다.
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * CandidateView 클래스는 선출 네임스페이스(예: "/election") 아래의 후보 znode 목록을
+ * 로컬 메모리에 정렬된 상태로 유지합니다.
+ * - ZooKeeper 3.6+ 의 addWatch(..., AddWatchMode.PERSISTENT_RECURSIVE)로 한 번만 Watcher를 등록하고,
+ *   이후 NodeCreated / NodeDeleted 이벤트로 목록을 점진적으로 갱신합니다.
+ * - 따라서 리더 확인과 선행 후보 조회가 서버 왕복 없이 O(log n)의 로컬 연산이 됩니다.
+ * - 초기 목록은 비동기 getChildren()으로 읽어, Watch 이벤트와 같은 이벤트 스레드에서 순서대로 반영합니다.
+ */
+public class CandidateView implements Watcher {
+
+    /**
+     * Listener는 후보 목록의 변화를 통지받는 콜백입니다.
+     * - 모든 콜백은 ZooKeeper 이벤트 스레드에서 호출되므로 오래 걸리는 작업을 하면 안 됩니다.
+     */
+    public interface Listener {
+        // 후보 znode가 삭제되었을 때 호출됩니다.
+        void candidateRemoved(String candidateName);
+
+        // 후보 znode가 생성되었을 때 호출됩니다. (필요한 경우에만 재정의)
+        default void candidateAdded(String candidateName) {
+        }
+
+        // 전체 목록을 서버에서 읽어 교체했을 때 호출됩니다. (start() 후 초기 목록을 반영했을 때, 재연결 이후 등)
+        default void candidatesReloaded() {
+        }
+    }
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체
+    private final ZooKeeper zooKeeper;
+
+    // 감시할 선출 네임스페이스 경로 (예: "/election")
+    private final String namespace;
+
+    // 후보 변화 통지를 받을 리스너
+    private final Listener listener;
+
+    // 정렬된 후보 이름 집합 (lower/first 조회가 O(log n))
+    private final NavigableSet<String> candidates = new ConcurrentSkipListSet<>();
+
+    // 연결이 끊겼다가 다시 연결되었는지 여부 (재연결 시 목록을 다시 읽기 위해 사용)
+    private volatile boolean needsReload = false;
+
+    // 초기 목록이 반영되었는지 여부 (반영되기 전의 목록은 비어 있으므로 선행 후보 조회에 쓰면 안 됩니다)
+    private volatile boolean loaded = false;
+
+    public CandidateView(ZooKeeper zooKeeper, String namespace, Listener listener) {
+        this.zooKeeper = zooKeeper;
+        this.namespace = namespace;
+        this.listener = listener;
+    }
+
+    /**
+     * start() 메서드는 영구 재귀 Watcher를 등록하고 초기 후보 목록을 읽어옵니다.
+     * - Watcher를 먼저 등록한 뒤 목록을 읽으므로, 그 사이에 발생한 변화도 놓치지 않습니다.
+     * - 초기 목록은 기다리지 않고 비동기로 읽으며, 반영되면 Listener.candidatesReloaded()가 호출됩니다.
+     *   목록을 전달하는 콜백은 이벤트 스레드에서 실행되므로, 이벤트 스레드에서 호출해도 멈추지 않습니다.
+     *
+     * @throws KeeperException    ZooKeeper 서버와의 통신 중 발생하는 예외
+     * @throws InterruptedException 스레드가 인터럽트되었을 때 발생하는 예외
+     */
+    public void start() throws KeeperException, InterruptedException {
+        zooKeeper.addWatch(namespace, this, AddWatchMode.PERSISTENT_RECURSIVE);
+        reload();
+    }
+
+    // 초기 목록이 반영되었는지 확인합니다.
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * leader() 메서드는 현재 가장 작은 순번의 후보(리더) 이름을 반환합니다.
+     *
+     * @return 리더 후보 이름, 후보가 없으면 null
+     */
+    public String leader() {
+        try {
+            return candidates.first();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    /**
+     * predecessorOf() 메서드는 주어진 후보 바로 앞의 후보 이름을 반환합니다.
+     *
+     * @param candidateName 기준이 되는 후보 이름
+     * @return 바로 앞 순번의 후보 이름, 없으면(자신이 리더이면) null
+     */
+    public String predecessorOf(String candidateName) {
+        return candidates.lower(candidateName);
+    }
+
+    // 현재 후보 수를 반환합니다.
+    public int size() {
+        return candidates.size();
+    }
+
+    // 주어진 후보가 목록에 있는지 확인합니다.
+    public boolean contains(String candidateName) {
+        return candidates.contains(candidateName);
+    }
+
+    /**
+     * reload() 메서드는 비동기 getChildren()으로 후보 목록 전체를 다시 읽어 교체합니다.
+     * - 콜백은 이벤트 스레드에서 Watch 이벤트와 같은 순서로 실행되므로,
+     *   목록을 읽기 전에 도착한 이벤트는 읽은 결과로 덮어쓰이고, 이후 이벤트는 그 위에 반영됩니다.
+     * - 읽지 못했으면 다음 SyncConnected에서 다시 읽습니다.
+     */
+    private void reload() {
+        zooKeeper.getChildren(namespace, false, (rc, path, ctx, children) -> {
+            if (rc == KeeperException.Code.OK.intValue()) {
+                replaceAll(children);
+                loaded = true;
+                listener.candidatesReloaded();
+            } else {
+                needsReload = true;
+                System.err.println("Failed to load candidates of " + namespace + ": " + KeeperException.Code.get(rc));
+            }
+        }, null);
+    }
+
+    private void replaceAll(List<String> children) {
+        // List.contains()는 선형 탐색이므로 HashSet으로 감싸서 비교합니다.
+        candidates.retainAll(new HashSet<>(children));
+        candidates.addAll(children);
+    }
+
+    /**
+     * process() 메서드는 영구 재귀 Watcher로 전달된 이벤트를 처리합니다.
+     * - 영구 Watcher는 한 번 발생한 뒤에도 해제되지 않으므로 재등록이 필요 없습니다.
+     * - 네임스페이스의 직계 자식에 대한 NodeCreated / NodeDeleted 이벤트만 반영합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        switch (watchedEvent.getType()) {
+            case None:
+                // 연결이 끊긴 동안의 변화는 이벤트로 전달되지 않을 수 있으므로, 재연결 시 목록을 다시 읽습니다.
+                if (watchedEvent.getState() == Event.KeeperState.SyncConnected) {
+                    if (needsReload) {
+                        needsReload = false;
+                        reload();
+                    }
+                } else {
+                    needsReload = true;
+                }
+                break;
+            case NodeCreated: {
+                String candidateName = childName(watchedEvent.getPath());
+                if (candidateName != null && candidates.add(candidateName)) {
+                    listener.candidateAdded(candidateName);
+                }
+                break;
+            }
+            case NodeDeleted: {
+                String candidateName = childName(watchedEvent.getPath());
+                if (candidateName != null && candidates.remove(candidateName)) {
+                    listener.candidateRemoved(candidateName);
+                }
+                break;
+            }
+            default:
+                // 데이터 변경 등 나머지 이벤트는 후보 목록과 무관하므로 무시합니다.
+                break;
+        }
+    }
+
+    // 전체 경로가 네임스페이스의 직계 자식이면 자식 이름을, 아니면 null을 반환합니다.
+    private String childName(String path) {
+        if (path == null || path.length() <= namespace.length() + 1 || !path.startsWith(namespace + "/")) {
+            return null;
+        }
+        String name = path.substring(namespace.length() + 1);
+        return name.indexOf('/') < 0 ? name : null;
+    }
+}
@@ -0,0 +1,108 @@
+package distributed.systems.election;
+
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+
+/**
+ * LeaderDiscovery 클래스는 현재 리더의 접속 정보(CandidateRecord)를 찾아 다음 리더 교체 때까지 캐시합니다.
+ * - 리더는 리더가 될 때 자신의 레코드를 리더 znode(예: "/election-leader")에 Ephemeral로 씁니다.
+ *   따라서 후보 목록 조회 + 리더 후보 읽기의 두 단계 없이 getData() 한 번으로 리더를 찾습니다.
+ * - 읽을 때 Watcher를 등록하므로, 리더가 바뀌거나(NodeDataChanged / NodeCreated) 사라지면(NodeDeleted) 캐시가 무효화됩니다.
+ *   그 전까지 leader() 호출은 서버 왕복 없이 캐시된 값을 반환합니다.
+ * - 리더가 없을 때도 exists() Watcher로 생성을 감시하며 "리더 없음"을 캐시하므로, 반복 조회가 서버로 가지 않습니다.
+ */
+public class LeaderDiscovery implements Watcher {
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체
+    private final ZooKeeper zooKeeper;
+
+    // 리더가 자신의 레코드를 쓰는 znode 경로
+    private final String leaderPath;
+
+    // 캐시된 조회 결과 (아직 읽지 않았거나 무효화되었으면 null)
+    private volatile Resolved resolved;
+
+    // 무효화될 때마다 증가합니다. 읽는 도중 무효화되었다면 그 결과는 캐시하지 않습니다.
+    private volatile long generation;
+
+    // 서버에서 읽은 횟수 (캐시 적중률 확인용)
+    private volatile long reads;
+
+    public LeaderDiscovery(ZooKeeper zooKeeper, String leaderPath) {
+        this.zooKeeper = zooKeeper;
+        this.leaderPath = leaderPath;
+    }
+
+    /**
+     * leader() 메서드는 현재 리더의 레코드를 반환합니다.
+     * - 캐시에 있으면 서버 왕복 없이 반환하고, 없으면 getData() 한 번으로 읽어 캐시합니다.
+     *
+     * @return 리더의 레코드, 리더가 없거나 리더가 레코드를 쓰지 않았으면 null
+     */
+    public CandidateRecord leader() throws KeeperException, InterruptedException {
+        Resolved current = resolved;
+        if (current == null) {
+            current = resolve();
+        }
+        return current.record;
+    }
+
+    /**
+     * leaderBytes() 메서드는 리더 레코드의 원본 바이트를 반환합니다.
+     * - CandidateRecord.port(bytes) 등으로 필요한 필드만 객체 생성 없이 읽을 때 사용합니다. 배열을 수정하면 안 됩니다.
+     *
+     * @return 리더 znode의 데이터, 리더가 없으면 null
+     */
+    public byte[] leaderBytes() throws KeeperException, InterruptedException {
+        Resolved current = resolved;
+        if (current == null) {
+            current = resolve();
+        }
+        return current.bytes;
+    }
+
+    public long getReads() {
+        return reads;
+    }
+
+    // 서버에서 리더 znode를 읽고, 그 사이에 무효화되지 않았다면 캐시합니다.
+    private synchronized Resolved resolve() throws KeeperException, InterruptedException {
+        Resolved current = resolved;
+        if (current != null) {
+            return current;
+        }
+        long readGeneration = generation;
+        reads++;
+        byte[] bytes;
+        try {
+            bytes = zooKeeper.getData(leaderPath, this, null);
+        } catch (KeeperException.NoNodeException e) {
+            // 리더가 없습니다. 리더가 생기면 알 수 있도록 생성을 감시합니다.
+            bytes = zooKeeper.exists(leaderPath, this) != null ? zooKeeper.getData(leaderPath, this, null) : null;
+        }
+        current = new Resolved(bytes, CandidateRecord.decode(bytes));
+        if (readGeneration == generation) {
+            resolved = current;
+        }
+        return current;
+    }
+
+    /**
+     * process() 메서드는 리더 znode의 변화를 받아 캐시를 무효화합니다.
+     * - 다시 읽기는 다음 leader() 호출 때 합니다. (리더가 자주 바뀌어도 조회하지 않는 동안에는 서버에 요청하지 않습니다)
+     * - 세션이 만료되면 Watcher가 사라지므로 캐시를 버립니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        if (watchedEvent.getType() == Event.EventType.None
+                && watchedEvent.getState() != Event.KeeperState.Expired) {
+            return;
+        }
+        generation++;
+        resolved = null;
+    }
+
+    private record Resolved(byte[] bytes, CandidateRecord record) {
+    }
+}
@@ -0,0 +1,302 @@
+package distributed.systems.election;
+
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LeaderPlacement 클래스는 후보가 알린 처리 용량(CandidateRecord.capacity)을 보고 리더를 더 여유 있는 노드로 옮기는 정책입니다.
+ * - 리더 쪽: 리더가 된 뒤 최소 재임 시간이 지나면 후보 목록을 감시하며, 자신보다 용량이 margin 비율 이상 큰 후보가 있으면
+ *   그 후보 이름을 전환 znode(transferPath)에 Ephemeral로 쓰고, transfer 콜백으로 후보 줄의 맨 뒤로 물러납니다.
+ * - 후보 쪽: 가장 작은 순번이 되어 리더가 되려는 후보는 shouldYield()로 전환 znode를 확인합니다.
+ *   살아 있는 다른 후보가 지정되어 있으면 자신도 맨 뒤로 물러나고, 지정된 후보가 되면 전환 znode를 지우고 리더가 됩니다.
+ * - 지정된 후보 앞의 후보들이 차례로 물러나는 동안은 리더가 없고 물러난 후보는 줄의 맨 뒤로 갑니다. 그래서 리더 바로 뒤
+ *   MAX_YIELDS + 1개의 후보만 지정 대상으로 삼아, 한 번의 전환에서 물러나는 후보를 MAX_YIELDS개 이하로 제한합니다.
+ *   (더 뒤의 후보는 전환과 재선출로 줄이 돌면서 앞으로 옵니다)
+ * - 전환 znode의 내용은 Watcher와 함께 캐시하므로, 지정이 바뀌지 않는 한 shouldYield()는 서버에 요청하지 않습니다.
+ * - 흔들림(flapping) 방지: 용량 차이가 margin보다 커야 하고, 새 리더도 최소 재임 시간 동안은 옮기지 않습니다.
+ *   전환 znode는 이전 리더의 Ephemeral이므로, 전환 도중 이전 리더가 죽으면 사라지고 기본 규칙(가장 작은 순번)으로 돌아갑니다.
+ * - 후보의 레코드는 이름별로 캐시하므로, 후보 목록이 바뀌어도 새 후보의 데이터만 읽습니다.
+ */
+public class LeaderPlacement implements Watcher {
+
+    // 한 번의 전환에서 지정된 후보에게 차례를 넘기려고 물러나는 후보 수의 상한
+    private static final int MAX_YIELDS = 2;
+
+    // 전환 znode가 없음을 나타내는 캐시 값
+    private static final String NOT_DESIGNATED = "";
+
+    // 후보 순서: 순번 접미사의 오름차순 (리더는 맨 앞 후보입니다)
+    private static final Comparator<String> SEQUENCE_ORDER =
+            Comparator.comparingLong(Leadership::epochOf).thenComparing(Comparator.naturalOrder());
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체
+    private final ZooKeeper zooKeeper;
+
+    // 후보 znode들의 상위 경로 (예: "/election")
+    private final String namespace;
+
+    // 리더를 넘겨받을 후보의 이름을 쓰는 znode 경로 (예: "/election-transfer")
+    private final String transferPath;
+
+    // 이 비율 이상 용량이 큰 후보가 있을 때만 옮깁니다. (예: 0.5 → 1.5배 이상)
+    private final double margin;
+
+    // 리더가 된 뒤 옮기기를 고려하기 전까지 기다리는 최소 재임 시간 (밀리초)
+    private final long minTenureMillis;
+
+    // 리더가 물러날 때 호출되는 콜백 (후보 znode를 다시 만들어 줄의 맨 뒤로 갑니다)
+    private final Runnable stepDown;
+
+    // 재임 시간이 지난 뒤 평가를 실행하는 스케줄러
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leader-placement");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 후보 이름 → 알린 용량 (레코드가 없으면 0, 평가 스레드에서만 사용합니다)
+    private final Map<String, Integer> capacityByCandidate = new HashMap<>();
+
+    // 전환 znode에 지정된 후보 이름 (없으면 NOT_DESIGNATED, 아직 읽지 않았거나 Watcher가 무효화했으면 null)
+    private String designated;
+
+    // 전환 znode의 Watcher가 캐시를 무효화한 횟수 (읽는 도중 무효화되었으면 읽은 값을 캐시하지 않습니다)
+    private long invalidations;
+
+    // 현재 리더로 있는 자신의 후보 이름 (리더가 아니면 null)
+    private String leaderName;
+
+    // 자신의 용량
+    private int ownCapacity;
+
+    // 리더가 된 시각 (System.nanoTime())
+    private long leadingSinceNanos;
+
+    // 지금까지 리더를 옮긴 횟수
+    private volatile long transfers;
+
+    public LeaderPlacement(ZooKeeper zooKeeper, String namespace, String transferPath, double margin,
+                           long minTenureMillis, Runnable stepDown) {
+        this.zooKeeper = zooKeeper;
+        this.namespace = namespace;
+        this.transferPath = transferPath;
+        this.margin = margin;
+        this.minTenureMillis = minTenureMillis;
+        this.stepDown = stepDown;
+    }
+
+    /** 리더 쪽 ******************************************************************************************************* */
+
+    /**
+     * startLeading() 메서드는 리더가 되었을 때 호출합니다.
+     * - 최소 재임 시간 동안은 옮기지 않으므로, 리더 확정 경로에는 서버 요청을 더하지 않고 평가를 그 뒤로 예약만 합니다.
+     */
+    public synchronized void startLeading(String leaderName, int ownCapacity) {
+        this.leaderName = leaderName;
+        this.ownCapacity = ownCapacity;
+        this.leadingSinceNanos = System.nanoTime();
+        scheduler.schedule(this::evaluate, minTenureMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // 리더가 아니게 되었을 때 호출합니다. 이후 평가와 후보 목록 이벤트는 무시됩니다.
+    public synchronized void stopLeading() {
+        leaderName = null;
+    }
+
+    public long getTransfers() {
+        return transfers;
+    }
+
+    public void close() {
+        stopLeading();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * evaluate() 메서드는 후보 목록을 다시 보고, 충분히 더 여유 있는 후보가 있으면 리더를 넘깁니다.
+     * - getChildren()으로 목록 변화 Watcher를 등록하므로, 새 후보가 참여하면 다시 평가합니다.
+     */
+    private void evaluate() {
+        String leader;
+        int capacity;
+        long since;
+        synchronized (this) {
+            if (leaderName == null) {
+                return;
+            }
+            long tenureMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - leadingSinceNanos);
+            if (tenureMillis < minTenureMillis) {
+                scheduler.schedule(this::evaluate, minTenureMillis - tenureMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+            leader = leaderName;
+            capacity = ownCapacity;
+            since = leadingSinceNanos;
+        }
+
+        // 서버 요청은 락 밖에서 합니다. (이벤트 스레드의 stopLeading()이 응답을 기다리지 않도록)
+        String target;
+        try {
+            target = bestCandidate(zooKeeper.getChildren(namespace, this), leader, capacity);
+        } catch (KeeperException e) {
+            System.err.println("Exception while evaluating leader placement: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while evaluating leader placement: " + e.getMessage());
+            return;
+        }
+        if (target == null) {
+            return;
+        }
+        synchronized (this) {
+            // 읽는 동안 리더에서 내려왔거나 새 임기가 시작되었으면 이번 평가는 버립니다.
+            if (!leader.equals(leaderName) || leadingSinceNanos != since) {
+                return;
+            }
+            leaderName = null;
+        }
+        transferTo(target);
+    }
+
+    // 리더 바로 뒤 MAX_YIELDS + 1개의 후보 중 용량이 margin 이상 큰 가장 큰 후보 (같으면 앞 후보), 없으면 null
+    private String bestCandidate(List<String> children, String leader, int ownCapacity)
+            throws KeeperException, InterruptedException {
+        children.sort(SEQUENCE_ORDER);
+        capacityByCandidate.keySet().retainAll(children);
+        if (children.isEmpty() || !children.get(0).equals(leader)) {
+            return null;
+        }
+        String best = null;
+        int bestCapacity = (int) Math.min(Integer.MAX_VALUE, Math.floor(ownCapacity * (1 + margin)));
+        for (String child : children.subList(1, Math.min(children.size(), MAX_YIELDS + 2))) {
+            Integer capacity = capacityByCandidate.get(child);
+            if (capacity == null) {
+                capacity = readCapacity(child);
+                capacityByCandidate.put(child, capacity);
+            }
+            if (capacity > bestCapacity) {
+                best = child;
+                bestCapacity = capacity;
+            }
+        }
+        return best;
+    }
+
+    private int readCapacity(String child) throws KeeperException, InterruptedException {
+        try {
+            byte[] data = zooKeeper.getData(namespace + "/" + child, false, null);
+            return CandidateRecord.isValid(data) ? CandidateRecord.capacity(data) : 0;
+        } catch (KeeperException.NoNodeException e) {
+            return 0;
+        }
+    }
+
+    // 넘겨받을 후보를 전환 znode에 쓰고, 리더는 물러납니다.
+    private void transferTo(String target) {
+        EventLog.log(LogEvent.LEADERSHIP_TRANSFER, target, capacityByCandidate.get(target));
+        byte[] data = target.getBytes(StandardCharsets.UTF_8);
+        try {
+            try {
+                zooKeeper.create(transferPath, data, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
+            } catch (KeeperException.NodeExistsException e) {
+                zooKeeper.setData(transferPath, data, -1);
+            }
+        } catch (KeeperException e) {
+            System.err.println("Exception while transferring leadership: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while transferring leadership: " + e.getMessage());
+            return;
+        }
+        transfers++;
+        stepDown.run();
+    }
+
+    /** 후보 쪽 ******************************************************************************************************* */
+
+    /**
+     * shouldYield() 메서드는 가장 작은 순번이 된 후보가 리더가 되기 전에 호출합니다.
+     * - 살아 있는 다른 후보가 지정되어 있으면 true (그 후보가 리더가 되도록 물러나야 합니다).
+     * - 자신이 지정되었거나, 지정된 후보가 이미 없으면 전환 znode를 지우고 false (기본 규칙대로 리더가 됩니다).
+     * - 전환 znode가 없고 캐시가 유효하면 서버 요청 없이 false를 반환합니다.
+     */
+    public boolean shouldYield(String candidateName) throws KeeperException, InterruptedException {
+        String designated = designated();
+        if (designated.equals(NOT_DESIGNATED)) {
+            return false;
+        }
+        if (!designated.equals(candidateName) && zooKeeper.exists(namespace + "/" + designated, false) != null) {
+            return true;
+        }
+        try {
+            zooKeeper.delete(transferPath, -1);
+        } catch (KeeperException.NoNodeException e) {
+            // 다른 후보가 먼저 지웠습니다.
+        }
+        return false;
+    }
+
+    // 캐시된 지정 후보를 반환합니다. 캐시가 없으면 전환 znode를 Watcher와 함께 읽어 캐시합니다.
+    private String designated() throws KeeperException, InterruptedException {
+        long seen;
+        synchronized (this) {
+            if (designated != null) {
+                return designated;
+            }
+            seen = invalidations;
+        }
+        String read = readDesignated();
+        synchronized (this) {
+            if (invalidations == seen) {
+                designated = read;
+            }
+        }
+        return read;
+    }
+
+    // 전환 znode를 읽고 Watcher를 등록합니다. 없으면 생성을 감시합니다.
+    private String readDesignated() throws KeeperException, InterruptedException {
+        while (true) {
+            try {
+                return new String(zooKeeper.getData(transferPath, this, null), StandardCharsets.UTF_8);
+            } catch (KeeperException.NoNodeException e) {
+                if (zooKeeper.exists(transferPath, this) == null) {
+                    return NOT_DESIGNATED;
+                }
+            }
+        }
+    }
+
+    /**
+     * process() 메서드는 ZooKeeper 이벤트를 처리합니다.
+     * - 후보 목록 변화(NodeChildrenChanged): 리더인 동안 다시 평가합니다.
+     * - 전환 znode의 변화, 연결 끊김과 세션 만료: 캐시된 지정을 무효화합니다. (다음 shouldYield()가 다시 읽습니다)
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        if (watchedEvent.getType() == Event.EventType.NodeChildrenChanged) {
+            scheduler.execute(this::evaluate);
+        } else if (transferPath.equals(watchedEvent.getPath())
+                || (watchedEvent.getType() == Event.EventType.None
+                && watchedEvent.getState() != Event.KeeperState.SyncConnected)) {
+            synchronized (this) {
+                invalidations++;
+                designated = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package distributed.systems.election;
+
+/**
+ * Leadership은 한 시점의 선출 결과(리더 여부, 현재 리더, 리더의 epoch)를 담는 불변 값입니다.
+ * - 선출이 끝날 때마다 새 값으로 통째로 교체하므로, volatile 필드 하나만 읽으면 세 값이 항상 일관되게 보입니다.
+ * - epoch는 리더 후보 znode의 순번(EPHEMERAL_SEQUENTIAL 접미사)입니다. 새 리더는 항상 이전 리더보다 나중에
+ *   생성된 후보이므로 epoch는 리더가 바뀔 때마다 증가하며, 리더가 쓰는 외부 자원의 펜싱 토큰으로 사용할 수 있습니다.
+ *
+ * @param leader          이 인스턴스가 리더이면 true
+ * @param leaderZnodeName 현재 리더 후보의 znode 이름, 알 수 없으면 null
+ * @param epoch           현재 리더의 epoch, 알 수 없으면 NO_EPOCH
+ */
+public record Leadership(boolean leader, String leaderZnodeName, long epoch) {
+
+    // epoch를 알 수 없음을 나타내는 값
+    public static final long NO_EPOCH = -1;
+
+    // 연결이 끊겼거나 아직 선출 전이라 리더 여부를 확신할 수 없는 상태
+    public static final Leadership UNKNOWN = new Leadership(false, null, NO_EPOCH);
+
+    // 자신이 리더인 상태
+    public static Leadership leading(String currentZnodeName) {
+        return new Leadership(true, currentZnodeName, epochOf(currentZnodeName));
+    }
+
+    // 다른 후보가 리더인 상태 (리더 이름을 모르면 null)
+    public static Leadership following(String leaderZnodeName) {
+        return new Leadership(false, leaderZnodeName, epochOf(leaderZnodeName));
+    }
+
+    /**
+     * epochOf() 메서드는 후보 znode 이름의 순번 접미사(예: "c_0000000012" → 12)를 반환합니다.
+     *
+     * @return 순번, 이름이 null이거나 순번이 없으면 NO_EPOCH
+     */
+    public static long epochOf(String znodeName) {
+        if (znodeName == null) {
+            return NO_EPOCH;
+        }
+        int start = znodeName.length();
+        while (start > 0 && Character.isDigit(znodeName.charAt(start - 1))) {
+            start--;
+        }
+        if (start == znodeName.length()) {
+            return NO_EPOCH;
+        }
+        return Long.parseLong(znodeName, start, znodeName.length(), 10);
+    }
+}
@@ -0,0 +1,29 @@
+package distributed.systems.election;
+
+import org.apache.zookeeper.KeeperException;
+
+/**
+ * LeadershipListener는 선출 결과(리더 여부)가 바뀔 때마다 통지받는 콜백입니다.
+ * - 콜백은 ZooKeeper 이벤트 스레드에서 호출되므로, 오래 걸리는 작업은 별도 스레드로 넘겨야 합니다.
+ */
+@FunctionalInterface
+public interface LeadershipListener {
+
+    /**
+     * leadershipChanged() 메서드는 리더 여부가 결정되거나 바뀌었을 때 호출됩니다.
+     *
+     * @param namespace 선출 네임스페이스 경로 (예: "/election")
+     * @param leader    이 인스턴스가 리더이면 true
+     */
+    void leadershipChanged(String namespace, boolean leader);
+
+    /**
+     * electionFailed() 메서드는 복구할 수 없는 오류로 선출이 중단되었을 때 호출됩니다. (필요한 경우에만 재정의)
+     * - 이후에는 leadershipChanged()가 호출되지 않으므로, 리더 여부를 알 수 없는 상태로 다루어야 합니다.
+     *
+     * @param namespace 선출 네임스페이스 경로
+     * @param code      중단시킨 오류 코드 (예: SESSIONEXPIRED)
+     */
+    default void electionFailed(String namespace, KeeperException.Code code) {
+    }
+}
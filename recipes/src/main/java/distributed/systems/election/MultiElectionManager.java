@@ -0,0 +1,201 @@
+package distributed.systems.election;
+
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+
+import java.util.ArrayList;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MultiElectionManager 클래스는 하나의 ZooKeeper 세션 위에서 여러 개의 독립적인 선출을 동시에 수행합니다.
+ * - 각 선출은 "<root>/<이름>" (예: "/elections/shard-42") 네임스페이스를 사용하는 AsyncLeaderElection입니다.
+ *   루트는 다른 선출의 후보 목록(예: "/election")과 겹치지 않는 전용 경로여야 하며, 없으면 만듭니다.
+ * - 세션이 만료되면 세션을 소유한 쪽이 새 연결로 sessionExpired()를 호출하고, 모든 선출이 새 세션에서 다시 후보로 등록합니다.
+ * - 모든 선출의 선행 후보 Watcher로 이 객체 하나를 등록하고, 이벤트 경로의 부모(네임스페이스)로
+ *   해당 선출을 찾아 전달하는 경로 인덱스 디스패처로 동작합니다.
+ * - 세션 수, 하트비트 트래픽, Watcher 객체 수가 샤드 수와 무관하게 일정하게 유지됩니다.
+ */
+public class MultiElectionManager implements Watcher {
+
+    // 모든 선출이 공유하는 ZooKeeper 세션 (세션이 만료되면 sessionExpired()로 바뀝니다)
+    private volatile ZooKeeper zooKeeper;
+
+    // 선출 네임스페이스들의 상위 경로 (예: "/elections")
+    private final String rootNamespace;
+
+    // 네임스페이스 경로 → 선출 인스턴스 (경로 인덱스 디스패처)
+    private final Map<String, AsyncLeaderElection> elections = new ConcurrentHashMap<>();
+
+    // 네임스페이스 경로 → 리스너 (새 세션에서 다시 참여할 때 같은 리스너를 사용합니다)
+    private final Map<String, LeadershipListener> listeners = new ConcurrentHashMap<>();
+
+    public MultiElectionManager(ZooKeeper zooKeeper, String rootNamespace) {
+        this.zooKeeper = zooKeeper;
+        this.rootNamespace = rootNamespace;
+    }
+
+    /**
+     * join() 메서드는 이름으로 구분되는 선출에 참여합니다.
+     * - 선출 네임스페이스(Persistent znode)를 비동기로 만들고, 이미 있으면 그대로 사용한 뒤 후보를 등록합니다.
+     * - 호출은 즉시 반환되며, 결과는 listener로 통지됩니다.
+     *
+     * @param electionName 선출 이름 (예: 샤드/파티션 식별자)
+     * @param listener     이 선출의 리더 여부가 바뀔 때 호출될 콜백
+     */
+    public void join(String electionName, LeadershipListener listener) {
+        String namespace = namespaceOf(electionName);
+        AsyncLeaderElection election = new AsyncLeaderElection(zooKeeper, namespace, listener, this);
+        if (elections.putIfAbsent(namespace, election) != null) {
+            throw new IllegalStateException("Already joined election: " + namespace);
+        }
+        listeners.put(namespace, listener);
+        enroll(namespace, election);
+    }
+
+    // 선출 네임스페이스를 만들고(이미 있으면 그대로 사용) 후보를 등록합니다. 루트가 없으면 루트부터 만듭니다.
+    private void enroll(String namespace, AsyncLeaderElection election) {
+        zooKeeper.create(namespace, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT,
+                (rc, path, ctx, name) -> {
+                    if (elections.get(namespace) != election) {
+                        // 그 사이 선출에서 빠졌거나 새 세션으로 다시 참여했습니다.
+                        return;
+                    }
+                    if (rc == KeeperException.Code.OK.intValue()
+                            || rc == KeeperException.Code.NODEEXISTS.intValue()) {
+                        election.start();
+                    } else if (rc == KeeperException.Code.NONODE.intValue()) {
+                        createRoot(namespace, election);
+                    } else {
+                        elections.remove(namespace, election);
+                        listeners.remove(namespace);
+                        System.err.println("Failed to create election namespace " + path + ": " + KeeperException.Code.get(rc));
+                    }
+                }, null);
+    }
+
+    private void createRoot(String namespace, AsyncLeaderElection election) {
+        zooKeeper.create(rootNamespace, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT,
+                (rc, path, ctx, name) -> {
+                    if (rc == KeeperException.Code.OK.intValue()
+                            || rc == KeeperException.Code.NODEEXISTS.intValue()) {
+                        enroll(namespace, election);
+                    } else {
+                        elections.remove(namespace, election);
+                        listeners.remove(namespace);
+                        System.err.println("Failed to create election root " + path + ": " + KeeperException.Code.get(rc));
+                    }
+                }, null);
+    }
+
+    /**
+     * sessionExpired() 메서드는 세션이 만료된 뒤 새 세션으로 참여 중인 모든 선출에 다시 참여합니다.
+     * - 이전 세션의 후보 znode는 서버가 지웠으므로, 리더였던 선출에는 리더가 아니게 되었음을 먼저 통지합니다.
+     * - 새 연결의 생성자만 호출한 상태에서 불러도 됩니다. 요청은 연결이 맺어진 뒤 순서대로 전송됩니다.
+     *
+     * @param newZooKeeper 새 세션의 ZooKeeper 객체 (기본 Watcher는 호출한 쪽이 소유합니다)
+     */
+    public void sessionExpired(ZooKeeper newZooKeeper) {
+        zooKeeper = newZooKeeper;
+        for (Map.Entry<String, AsyncLeaderElection> entry : elections.entrySet()) {
+            String namespace = entry.getKey();
+            AsyncLeaderElection expired = entry.getValue();
+            LeadershipListener listener = listeners.get(namespace);
+            if (listener == null) {
+                continue;
+            }
+            boolean wasLeader = expired.isLeader();
+            expired.close();
+            AsyncLeaderElection election = new AsyncLeaderElection(newZooKeeper, namespace, listener, this);
+            if (!elections.replace(namespace, expired, election)) {
+                // 그 사이 선출에서 빠졌습니다.
+                continue;
+            }
+            if (wasLeader) {
+                listener.leadershipChanged(namespace, false);
+            }
+            enroll(namespace, election);
+        }
+    }
+
+    /**
+     * leave() 메서드는 선출에서 빠지고 후보 znode를 삭제합니다.
+     * - 후보 znode가 즉시 삭제되므로 후속 후보의 NodeDeleted Watcher가 바로 발생합니다.
+     *
+     * @param electionName 선출 이름
+     */
+    public void leave(String electionName) {
+        AsyncLeaderElection election = elections.remove(namespaceOf(electionName));
+        listeners.remove(namespaceOf(electionName));
+        if (election == null) {
+            return;
+        }
+        election.close();
+        String currentZnodeName = election.getCurrentZnodeName();
+        if (currentZnodeName != null) {
+            zooKeeper.delete(election.getNamespace() + "/" + currentZnodeName, -1, (rc, path, ctx) -> {
+                if (rc != KeeperException.Code.OK.intValue() && rc != KeeperException.Code.NONODE.intValue()) {
+                    System.err.println("Failed to delete candidate " + path + ": " + KeeperException.Code.get(rc));
+                }
+            }, null);
+        }
+    }
+
+    // 주어진 선출에서 이 인스턴스가 리더인지 확인합니다.
+    public boolean isLeader(String electionName) {
+        AsyncLeaderElection election = elections.get(namespaceOf(electionName));
+        return election != null && election.isLeader();
+    }
+
+    // 이 인스턴스가 리더인 선출의 네임스페이스 목록을 반환합니다.
+    public List<String> leadingElections() {
+        List<String> leading = new ArrayList<>();
+        for (AsyncLeaderElection election : elections.values()) {
+            if (election.isLeader()) {
+                leading.add(election.getNamespace());
+            }
+        }
+        return leading;
+    }
+
+    // 참여 중인 선출의 수를 반환합니다.
+    public int size() {
+        return elections.size();
+    }
+
+    /**
+     * close() 메서드는 참여 중인 모든 선출에서 빠집니다. 세션은 호출한 쪽이 닫습니다.
+     */
+    public void close() {
+        for (String namespace : new ArrayList<>(elections.keySet())) {
+            leave(namespace.substring(rootNamespace.length() + 1));
+        }
+    }
+
+    /**
+     * process() 메서드는 모든 선출의 선행 후보 Watcher 이벤트를 받아 해당 선출로 전달합니다.
+     * - 이벤트 경로 "<namespace>/<후보>"에서 부모 경로를 잘라 Map 조회 한 번으로 선출을 찾습니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        String path = watchedEvent.getPath();
+        if (path == null) {
+            // 연결 상태 이벤트는 세션을 소유한 쪽(기본 Watcher)에서 처리합니다.
+            return;
+        }
+        int lastSlash = path.lastIndexOf('/');
+        if (lastSlash <= 0) {
+            return;
+        }
+        AsyncLeaderElection election = elections.get(path.substring(0, lastSlash));
+        if (election != null) {
+            election.process(watchedEvent);
+        }
+    }
+
+    private String namespaceOf(String electionName) {
+        return rootNamespace + "/" + electionName;
+    }
+}
@@ -0,0 +1,203 @@
+package distributed.systems.election;
+
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * TournamentElection 클래스는 후보가 매우 많을 때 사용하는 2단계(토너먼트) 리더 선출입니다.
+ * - 1단계: 각 후보는 "<root>/bucket_<k>" 버킷 하나에만 등록하고, 버킷 안에서 선행 후보 감시 방식으로 버킷 승자를 뽑습니다.
+ * - 2단계: 버킷 승자만 "<root>/final"에 등록하여 같은 방식으로 최종 리더를 뽑습니다.
+ * - 각 후보는 자신의 버킷만 조회하므로 getChildren() 응답 크기와 정렬 비용이 전체 후보 수가 아니라
+ *   버킷 크기(전체 / 버킷 수)와 결승 크기(최대 버킷 수)로 제한되어 jute.maxbuffer에 가까워지지 않습니다.
+ * - 두 단계 모두 AsyncLeaderElection을 그대로 사용하므로 이벤트 스레드를 블로킹하지 않습니다.
+ */
+public class TournamentElection {
+
+    // 결승(최종 선출) 네임스페이스 이름
+    private static final String FINAL_NAME = "final";
+
+    // 버킷 네임스페이스 이름의 접두사
+    private static final String BUCKET_PREFIX = "bucket_";
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체
+    private final ZooKeeper zooKeeper;
+
+    // 토너먼트 전체의 상위 경로 (예: "/tournament")
+    private final String rootNamespace;
+
+    // 이 후보가 참가하는 버킷 번호
+    private final int bucket;
+
+    // 최종 리더 여부가 바뀔 때 통지받을 리스너 (버킷에서 진 후보도 "리더 아님"으로 한 번 통지받습니다)
+    private final LeadershipListener listener;
+
+    // 1단계(버킷) 선출
+    private volatile AsyncLeaderElection bucketElection;
+
+    // 2단계(결승) 선출, 버킷 승자가 된 뒤에만 생성됩니다.
+    private volatile AsyncLeaderElection finalElection;
+
+    // 종료 여부
+    private volatile boolean closed = false;
+
+    // 버킷과 결승의 후보 znode에 쓸 데이터 (기본은 빈 배열)
+    private volatile byte[] candidateData = new byte[]{};
+
+    /**
+     * @param rootNamespace 토너먼트 전체의 상위 경로 (예: "/tournament")
+     * @param bucket        이 후보가 참가할 버킷 번호 (0 이상, 보통 후보 식별자의 해시 % 버킷 수)
+     * @param listener      최종 리더 여부가 바뀔 때 호출될 콜백 (버킷에서 지면 false로 호출됩니다)
+     */
+    public TournamentElection(ZooKeeper zooKeeper, String rootNamespace, int bucket, LeadershipListener listener) {
+        this.zooKeeper = zooKeeper;
+        this.rootNamespace = rootNamespace;
+        this.bucket = bucket;
+        this.listener = listener;
+    }
+
+    /**
+     * start() 메서드는 토너먼트 네임스페이스를 (없으면) 만든 뒤 자신의 버킷 선출을 시작합니다.
+     * - 모든 요청은 비동기로 보내지고 즉시 반환됩니다.
+     */
+    public void start() {
+        Deque<String> paths = new ArrayDeque<>();
+        paths.add(rootNamespace);
+        paths.add(bucketNamespace());
+        paths.add(finalNamespace());
+        ensurePaths(paths, this::startBucketElection);
+    }
+
+    /**
+     * close() 메서드는 두 단계의 선출을 모두 중지합니다. 후보 znode는 세션 종료 시 자동으로 삭제됩니다.
+     */
+    public void close() {
+        closed = true;
+        if (bucketElection != null) {
+            bucketElection.close();
+        }
+        if (finalElection != null) {
+            finalElection.close();
+        }
+    }
+
+    // 후보 znode에 쓸 데이터를 지정합니다. start() 전에 호출해야 합니다.
+    public void setCandidateData(byte[] candidateData) {
+        this.candidateData = candidateData;
+    }
+
+    // 최종 리더인지 확인합니다.
+    public boolean isLeader() {
+        AsyncLeaderElection election = finalElection;
+        return election != null && election.isLeader();
+    }
+
+    // 버킷이나 결승 선출이 복구할 수 없는 오류로 중단되었는지 확인합니다.
+    public boolean isFailed() {
+        AsyncLeaderElection bucket = bucketElection;
+        AsyncLeaderElection last = finalElection;
+        return (bucket != null && bucket.getState() == AsyncLeaderElection.State.FAILED)
+                || (last != null && last.getState() == AsyncLeaderElection.State.FAILED);
+    }
+
+    // 버킷 승자(결승 진출자)인지 확인합니다.
+    public boolean isBucketWinner() {
+        AsyncLeaderElection election = bucketElection;
+        return election != null && election.isLeader();
+    }
+
+    // 버킷 후보 znode의 이름 (등록 전이면 null)
+    public String getBucketZnodeName() {
+        AsyncLeaderElection election = bucketElection;
+        return election != null ? election.getCurrentZnodeName() : null;
+    }
+
+    // 결승 후보 znode의 이름 (결승에 진출하기 전이면 null)
+    public String getFinalZnodeName() {
+        AsyncLeaderElection election = finalElection;
+        return election != null ? election.getCurrentZnodeName() : null;
+    }
+
+    // 결승의 리더 후보 znode의 이름 (결승에 진출하기 전이면 null)
+    public String getFinalLeaderZnodeName() {
+        AsyncLeaderElection election = finalElection;
+        return election != null ? election.getLeaderZnodeName() : null;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public String bucketNamespace() {
+        return rootNamespace + "/" + BUCKET_PREFIX + bucket;
+    }
+
+    public String finalNamespace() {
+        return rootNamespace + "/" + FINAL_NAME;
+    }
+
+    // 1단계: 자신의 버킷에서만 선출을 수행합니다.
+    private void startBucketElection() {
+        if (closed) {
+            return;
+        }
+        bucketElection = new AsyncLeaderElection(zooKeeper, bucketNamespace(), new LeadershipListener() {
+            @Override
+            public void leadershipChanged(String namespace, boolean leader) {
+                if (finalElection != null || closed) {
+                    return;
+                }
+                // 선행 후보 감시 방식에서는 한 번 리더가 되면 세션이 끝날 때까지 리더이므로, 결승 참가는 한 번만 일어납니다.
+                if (leader) {
+                    EventLog.log(LogEvent.BUCKET_WON, namespace);
+                    startFinalElection();
+                } else {
+                    // 버킷에서 진 후보는 최종 리더가 될 수 없으므로 "리더 아님"으로 통지합니다.
+                    // (결승을 감시하지 않으므로 최종 리더의 이름은 모릅니다)
+                    listener.leadershipChanged(finalNamespace(), false);
+                }
+            }
+
+            @Override
+            public void electionFailed(String namespace, KeeperException.Code code) {
+                // 버킷 선출이 중단되면 결승에도 나갈 수 없으므로 토너먼트 전체의 실패로 알립니다.
+                if (!closed) {
+                    listener.electionFailed(finalNamespace(), code);
+                }
+            }
+        });
+        bucketElection.setCandidateData(candidateData);
+        bucketElection.start();
+    }
+
+    // 2단계: 버킷 승자끼리 결승 선출을 수행합니다.
+    private void startFinalElection() {
+        finalElection = new AsyncLeaderElection(zooKeeper, finalNamespace(), listener);
+        finalElection.setCandidateData(candidateData);
+        finalElection.start();
+    }
+
+    /**
+     * ensurePaths() 메서드는 주어진 Persistent znode들을 순서대로 비동기 생성합니다.
+     * - 이미 있으면(NODEEXISTS) 그대로 다음 경로로 넘어가고, 모두 준비되면 next를 실행합니다.
+     */
+    private void ensurePaths(Deque<String> paths, Runnable next) {
+        String path = paths.poll();
+        if (path == null) {
+            next.run();
+            return;
+        }
+        zooKeeper.create(path, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT,
+                (rc, createdPath, ctx, name) -> {
+                    if (rc == KeeperException.Code.OK.intValue()
+                            || rc == KeeperException.Code.NODEEXISTS.intValue()) {
+                        ensurePaths(paths, next);
+                    } else {
+                        System.err.println("Failed to create " + createdPath + ": " + KeeperException.Code.get(rc));
+                    }
+                }, null);
+    }
+}
@@ -0,0 +1,265 @@
+package distributed.systems.eventlog;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * EventLog 클래스는 선출 / 감시 레시피의 이벤트를 미리 할당한 링 버퍼에 기록하고, 백그라운드 스레드가 출력하는 비동기 로그입니다.
+ * - 기록(log)은 슬롯 번호를 CAS로 하나 얻어 고정된 필드(시각, 이벤트, 인자 참조 2개)를 채울 뿐이므로 객체를 만들지 않고,
+ *   ZooKeeper 이벤트 스레드가 콘솔 I/O나 PrintStream의 락을 기다리지 않습니다.
+ * - 문자열은 출력 스레드가 LogEvent의 메시지 틀에 인자를 채워 만듭니다. (byte[] 인자는 그때 UTF-8 문자열로 바꿉니다)
+ * - 버퍼가 가득 차면 기다리지 않고 버리며, 버린 수는 getDropped()로 확인합니다.
+ * - 설정 (시스템 속성):
+ *   -Deventlog.level=DEBUG|INFO|WARN|ERROR (기본 DEBUG), -Deventlog.sampleRate=N (DEBUG 이벤트는 종류별로 N개 중 1개만, 기본 1),
+ *   -Deventlog.capacity=N (슬롯 수, 2의 거듭제곱으로 올림, 기본 8192),
+ *   -Deventlog.file=경로 (지정하면 시각 / 중요도 / 이벤트 이름을 붙여 파일에 쓰고, 없으면 기존처럼 메시지만 stdout에 씁니다)
+ * - 인자로 넘긴 객체는 출력될 때까지 참조하므로, 기록한 뒤 수정하지 않는 값(경로 문자열, getData() 결과 배열 등)만 넘겨야 합니다.
+ */
+public class EventLog {
+
+    // 슬롯별로 기록이 끝난 순번 (출력 스레드가 읽기 전에 모든 필드가 보이도록 release / acquire로 접근합니다)
+    private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // 출력 스레드가 일이 없을 때 쉬는 시간
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private static final LogEvent[] EVENTS = LogEvent.values();
+
+    private final int mask;
+
+    // 슬롯 필드 (구조체 배열 대신 필드별 배열, 생성 시 한 번만 할당)
+    private final long[] published;
+    private final long[] timestamps;
+    private final int[] events;
+    private final Object[] firstArguments;
+    private final Object[] secondArguments;
+
+    // 다음에 기록할 순번과, 출력 스레드가 다음에 읽을 순번
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+
+    private final LogEvent.Level minimumLevel;
+
+    private final int sampleRate;
+
+    // DEBUG 이벤트의 종류별 발생 횟수 (표본 추출용)
+    private final AtomicLongArray occurrences = new AtomicLongArray(EVENTS.length);
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final PrintStream out;
+
+    // true이면 시각 / 중요도 / 이벤트 이름을 함께 씁니다.
+    private final boolean detailed;
+
+    private final Thread drainer;
+
+    private volatile boolean closed;
+
+    /**
+     * @param capacity     슬롯 수 (2의 거듭제곱으로 올림)
+     * @param minimumLevel 이보다 낮은 이벤트는 기록하지 않습니다.
+     * @param sampleRate   DEBUG 이벤트를 종류별로 sampleRate개 중 1개만 기록합니다. (1이면 모두)
+     * @param out          출력 대상
+     * @param detailed     true이면 시각 / 중요도 / 이벤트 이름을 함께 씁니다.
+     */
+    public EventLog(int capacity, LogEvent.Level minimumLevel, int sampleRate, PrintStream out, boolean detailed) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.mask = size - 1;
+        this.published = new long[size];
+        this.timestamps = new long[size];
+        this.events = new int[size];
+        this.firstArguments = new Object[size];
+        this.secondArguments = new Object[size];
+        for (int i = 0; i < size; i++) {
+            published[i] = -1;
+        }
+        this.minimumLevel = minimumLevel;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.out = out;
+        this.detailed = detailed;
+        this.drainer = new Thread(this::drainLoop, "event-log");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /** 기본 인스턴스 ************************************************************************************************** */
+
+    // 시스템 속성으로 설정한 프로세스 전체의 기본 로그 (처음 사용할 때 만들어집니다)
+    private static final class Default {
+        private static final EventLog INSTANCE = create();
+
+        private static EventLog create() {
+            LogEvent.Level level = LogEvent.Level.valueOf(System.getProperty("eventlog.level", "DEBUG"));
+            int sampleRate = Integer.getInteger("eventlog.sampleRate", 1);
+            int capacity = Integer.getInteger("eventlog.capacity", 8192);
+            String file = System.getProperty("eventlog.file");
+            PrintStream out = System.out;
+            if (file != null) {
+                try {
+                    out = new PrintStream(new FileOutputStream(file, true), false, StandardCharsets.UTF_8);
+                } catch (IOException e) {
+                    System.err.println("Cannot open event log file " + file + ", using stdout: " + e.getMessage());
+                    file = null;
+                }
+            }
+            EventLog eventLog = new EventLog(capacity, level, sampleRate, out, file != null);
+            // 종료할 때 버퍼에 남은 기록을 모두 씁니다.
+            Runtime.getRuntime().addShutdownHook(new Thread(eventLog::close, "event-log-shutdown"));
+            return eventLog;
+        }
+    }
+
+    public static EventLog get() {
+        return Default.INSTANCE;
+    }
+
+    // 기본 로그에 기록합니다.
+    public static void log(LogEvent event) {
+        Default.INSTANCE.record(event, null, null);
+    }
+
+    public static void log(LogEvent event, Object argument) {
+        Default.INSTANCE.record(event, argument, null);
+    }
+
+    public static void log(LogEvent event, Object first, Object second) {
+        Default.INSTANCE.record(event, first, second);
+    }
+
+    /** 기록 ************************************************************************************************************ */
+
+    /**
+     * record() 메서드는 이벤트 하나를 링 버퍼에 기록합니다. 객체를 만들지 않고, 버퍼가 가득 차도 기다리지 않습니다.
+     *
+     * @return 기록했으면 true, 중요도 / 표본 추출로 거르거나 버퍼가 가득 차 버렸으면 false
+     */
+    public boolean record(LogEvent event, Object first, Object second) {
+        LogEvent.Level level = event.level();
+        if (level.compareTo(minimumLevel) < 0) {
+            return false;
+        }
+        if (level == LogEvent.Level.DEBUG && sampleRate > 1
+                && occurrences.getAndIncrement(event.ordinal()) % sampleRate != 0) {
+            return false;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            // 출력 스레드가 아직 읽지 않은 슬롯을 덮어쓰지 않습니다.
+            if (sequence - consumed > mask) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+        timestamps[slot] = System.currentTimeMillis();
+        events[slot] = event.ordinal();
+        firstArguments[slot] = first;
+        secondArguments[slot] = second;
+        PUBLISHED.setRelease(published, slot, sequence);
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * flush() 메서드는 지금까지 기록한 이벤트가 모두 출력될 때까지 기다립니다. (프로그램 종료 직전의 요약 출력 전 등)
+     */
+    public void flush() {
+        long target = claimed.get();
+        while (consumed < target && drainer.isAlive()) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        out.flush();
+    }
+
+    /**
+     * close() 메서드는 남은 기록을 모두 출력하고 출력 스레드를 종료합니다.
+     */
+    public void close() {
+        flush();
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** 출력 ************************************************************************************************************ */
+
+    private void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            if (!drain(line)) {
+                if (closed) {
+                    return;
+                }
+                out.flush();
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    // 기록이 끝난 슬롯을 순서대로 출력합니다. 하나라도 출력했으면 true
+    private boolean drain(StringBuilder line) {
+        long next = consumed;
+        boolean drained = false;
+        while (true) {
+            int slot = (int) (next & mask);
+            if ((long) PUBLISHED.getAcquire(published, slot) != next) {
+                break;
+            }
+            line.setLength(0);
+            format(line, timestamps[slot], EVENTS[events[slot]], firstArguments[slot], secondArguments[slot]);
+            firstArguments[slot] = null;
+            secondArguments[slot] = null;
+            consumed = ++next;
+            out.println(line);
+            drained = true;
+        }
+        return drained;
+    }
+
+    private void format(StringBuilder line, long timestamp, LogEvent event, Object first, Object second) {
+        if (detailed) {
+            line.append(Instant.ofEpochMilli(timestamp)).append(' ')
+                    .append(event.level()).append(' ')
+                    .append(event.name()).append(' ');
+        }
+        String template = event.template();
+        Object[] arguments = {first, second};
+        int argument = 0;
+        int start = 0;
+        int placeholder;
+        while ((placeholder = template.indexOf("{}", start)) >= 0) {
+            line.append(template, start, placeholder);
+            appendArgument(line, argument < arguments.length ? arguments[argument++] : null);
+            start = placeholder + 2;
+        }
+        line.append(template, start, template.length());
+    }
+
+    private static void appendArgument(StringBuilder line, Object argument) {
+        if (argument instanceof byte[] bytes) {
+            line.append(new String(bytes, StandardCharsets.UTF_8));
+        } else {
+            line.append(argument);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package distributed.systems.eventlog;
+
+/**
+ * LogEvent는 EventLog에 기록하는 선출 / 감시 레시피의 이벤트 종류입니다.
+ * - 메시지는 출력할 때 "{}" 자리에 기록한 인자를 채워 만듭니다. 기록하는 쪽에서는 문자열을 만들지 않습니다.
+ * - DEBUG 이벤트는 이벤트마다 자주 발생하므로 표본 추출(-Deventlog.sampleRate=N) 대상입니다.
+ */
+public enum LogEvent {
+
+    // 연결 상태
+    CONNECTED(Level.INFO, "Successfully connected to ZooKeeper"),
+    DISCONNECTED(Level.WARN, "Disconnected from ZooKeeper, waiting for reconnection"),
+    SESSION_EXPIRED(Level.WARN, "ZooKeeper session expired, creating a new session"),
+    CONNECTION_LOST(Level.ERROR, "Disconnected from ZooKeeper event"),
+
+    // 리더 선출
+    ZNODE_CREATED(Level.INFO, "Znode created: {}"),
+    LEADER(Level.INFO, "I am the leader"),
+    NOT_LEADER(Level.INFO, "I am not the leader"),
+    CURRENT_LEADER(Level.INFO, "{} is the leader"),
+    SHARD_LEADER(Level.INFO, "I am the leader of {}"),
+    SHARD_NOT_LEADER(Level.INFO, "I am not the leader of {}"),
+    WATCHING_PREDECESSOR(Level.DEBUG, "Watching znode: {}"),
+    CURRENT_ZNODE(Level.DEBUG, "I'm znode: {}"),
+    REENROLLING(Level.INFO, "Re-enrolling in leader election with a new session"),
+    YIELDING(Level.INFO, "Yielding to the designated leader"),
+    LEADERSHIP_TRANSFER(Level.INFO, "Transferring leadership to {} (capacity {})"),
+    BUCKET_WON(Level.INFO, "Won bucket {}, entering final"),
+    RESIGNED(Level.INFO, "Resigned"),
+    RESIGNED_CONFIRMED(Level.INFO, "Resigned, successor confirmed"),
+
+    // znode 감시
+    DATA_CHANGED(Level.DEBUG, "{} data: {}"),
+    CHILDREN_CHANGED(Level.DEBUG, "{} children: {}"),
+    ZNODE_MISSING(Level.DEBUG, "{} does not exist"),
+    SNAPSHOT_REVALIDATED(Level.INFO, "Revalidated {} paths restored from snapshot, re-fetched {} parts"),
+
+    // 파티션 배정
+    PARTITIONS_REBALANCED(Level.INFO, "Rebalanced partitions: wrote {} assignments in one multi(), moved {} partitions"),
+    PARTITIONS_ASSIGNED(Level.INFO, "Assigned {} partitions: {}");
+
+    /**
+     * Level은 이벤트의 중요도입니다. -Deventlog.level보다 낮은 이벤트는 기록하지 않습니다.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private final Level level;
+
+    private final String template;
+
+    LogEvent(Level level, String template) {
+        this.level = level;
+        this.template = template;
+    }
+
+    public Level level() {
+        return level;
+    }
+
+    public String template() {
+        return template;
+    }
+}
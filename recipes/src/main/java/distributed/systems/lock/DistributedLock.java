@@ -0,0 +1,57 @@
+package distributed.systems.lock;
+
+import distributed.systems.metrics.LockMetrics;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.ZooKeeper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DistributedLock 클래스는 허가가 하나인 DistributedSemaphore로 구현한 공정한(FIFO) 재진입 분산 락입니다.
+ * - 리더 재선출(LeaderReElection.reelectLeader())과 같은 방식입니다. 각 대기자는 바로 앞 후보 znode 하나만 감시하므로,
+ *   락이 풀릴 때 다음 대기자 하나만 알림을 받습니다.
+ * - 락을 가진 스레드가 다시 lock()하면 서버 왕복 없이 보유 횟수만 늘립니다. (락을 얻은 세션에 연결되어 있을 때만)
+ *
+ * 사용 예:
+ * <pre>
+ *  DistributedLock lock = new DistributedLock(zooKeeper, "/locks/orders");
+ *  if (lock.tryLock(5, TimeUnit.SECONDS)) {
+ *      try {
+ *          // 임계 구역
+ *      } finally {
+ *          lock.unlock();
+ *      }
+ *  }
+ * </pre>
+ */
+public class DistributedLock {
+
+    private final DistributedSemaphore semaphore;
+
+    public DistributedLock(ZooKeeper zooKeeper, String path) {
+        this.semaphore = new DistributedSemaphore(zooKeeper, path, 1);
+    }
+
+    // 락을 얻을 때까지 기다립니다. 대기 중에 인터럽트되면 대기열에서 빠지고 InterruptedException을 던집니다.
+    public void lock() throws KeeperException, InterruptedException {
+        semaphore.acquire();
+    }
+
+    // 최대 timeout 동안 락을 기다립니다. 얻었으면 true, 시간이 초과되었으면 false를 반환합니다.
+    public boolean tryLock(long timeout, TimeUnit unit) throws KeeperException, InterruptedException {
+        return semaphore.tryAcquire(timeout, unit);
+    }
+
+    // 락을 반납합니다. 재진입한 횟수만큼 호출해야 다음 대기자에게 넘어갑니다.
+    public void unlock() throws KeeperException, InterruptedException {
+        semaphore.release();
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return semaphore.isHeldByCurrentThread();
+    }
+
+    public LockMetrics getMetrics() {
+        return semaphore.getMetrics();
+    }
+}
@@ -0,0 +1,288 @@
+package distributed.systems.lock;
+
+import distributed.systems.metrics.LockMetrics;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DistributedSemaphore 클래스는 여러 프로세스가 최대 permits개까지 동시에 가질 수 있는 공정한(FIFO) 분산 세마포어입니다.
+ * - 리더 선출과 같은 방식으로 path 아래에 Ephemeral Sequential znode("s_")를 만들고, 순번이 앞선 permits개가 허가를 가집니다.
+ * - 모든 대기자가 후보 목록을 감시하지 않으므로(herd effect 없음), 허가가 반납될 때 알림은 대기자 하나에게만 갑니다.
+ *   - 맨 앞 대기자: 허가를 가진 permits개의 znode에 exists() Watcher를 등록합니다. (permits = 1이면 바로 앞 후보 하나)
+ *   - 그 밖의 대기자: 바로 앞 후보 하나만 감시합니다.
+ *   - permits > 1이면 허가를 얻은 후보가 자신의 znode 데이터를 바꿔, 바로 뒤 대기자가 맨 앞 대기자가 되었음을 알립니다.
+ * - 같은 스레드가 다시 획득하면 서버 왕복 없이 보유 횟수만 늘리고(재진입), 같은 횟수만큼 release()해야 반납됩니다.
+ * - 대기는 호출한 스레드에서 하므로 ZooKeeper 이벤트 스레드(Watcher 콜백 등)에서 호출하면 안 됩니다.
+ * - 세션이 만료되면 znode가 사라져 허가도 사라집니다. 그 뒤의 release()는 서버의 상태를 바꾸지 않습니다.
+ * - 보유는 허가를 얻은 세션에 연결되어 있는 동안만 유효합니다. 연결이 끊기거나 세션이 바뀌면 isHeldByCurrentThread()는
+ *   false가 되고, 재진입 획득은 보유 횟수를 늘리지 않고 예외를 던집니다.
+ * - 대기열 znode 이름은 "s_<GUID>-<순번>"입니다. create() 응답을 연결 손실로 받지 못하면 목록에서 GUID로 찾아 이어 쓰므로,
+ *   서버에만 만들어진 znode가 아무도 반납하지 않는 허가로 남지 않습니다. 순서는 순번 접미사로 비교합니다.
+ */
+public class DistributedSemaphore {
+
+    // 허가를 얻었음을 바로 뒤 대기자에게 알리기 위해 znode에 쓰는 데이터
+    private static final byte[] HOLDING = "holding".getBytes(StandardCharsets.UTF_8);
+
+    // 대기 순서: 순번 접미사의 오름차순 (이름에 GUID가 있으므로 문자열 순서를 쓰지 않습니다)
+    private static final Comparator<String> SEQUENCE_ORDER =
+            Comparator.comparing(DistributedSemaphore::sequenceOf).thenComparing(Comparator.naturalOrder());
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체
+    private final ZooKeeper zooKeeper;
+
+    // 대기열 znode들의 상위 경로 (예: "/locks/orders"), 상위 경로의 부모는 미리 있어야 합니다.
+    private final String path;
+
+    // 동시에 가질 수 있는 허가 수
+    private final int permits;
+
+    // 스레드별 보유 상태 (로컬 재진입 판단용)
+    private final Map<Thread, Lease> leases = new ConcurrentHashMap<>();
+
+    private final LockMetrics metrics = new LockMetrics();
+
+    public DistributedSemaphore(ZooKeeper zooKeeper, String path, int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be positive: " + permits);
+        }
+        this.zooKeeper = zooKeeper;
+        this.path = path;
+        this.permits = permits;
+    }
+
+    /**
+     * acquire() 메서드는 허가를 얻을 때까지 기다립니다. 대기 중에 인터럽트되면 대기열에서 빠지고 InterruptedException을 던집니다.
+     */
+    public void acquire() throws KeeperException, InterruptedException {
+        tryAcquire(-1, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * tryAcquire() 메서드는 최대 timeout 동안 허가를 기다립니다.
+     * - 이 스레드가 이미 허가를 가지고 있으면 서버 왕복 없이 보유 횟수만 늘리고 바로 true를 반환합니다.
+     *   다만 연결이 끊겨 있으면 ConnectionLossException을, 허가를 얻은 세션이 끝났으면 SessionExpiredException을 던집니다.
+     * - 시간이 초과되거나 인터럽트되면 자신의 znode를 지워 대기열에서 빠지므로, 뒤의 대기자가 계속 진행합니다.
+     *
+     * @param timeout 최대 대기 시간 (음수이면 제한 없이 기다립니다)
+     * @return 허가를 얻었으면 true, 시간이 초과되었으면 false
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws KeeperException, InterruptedException {
+        Thread thread = Thread.currentThread();
+        Lease lease = leases.get(thread);
+        if (lease != null) {
+            checkLease(lease);
+            lease.holds++;
+            metrics.recordReentrant();
+            return true;
+        }
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+
+        long startNanos = System.nanoTime();
+        long timeoutNanos = unit.toNanos(timeout);
+        boolean untimed = timeout < 0 || timeoutNanos == Long.MAX_VALUE;
+        String nodePath = createQueueNode();
+        boolean acquired = false;
+        try {
+            acquired = awaitPermit(nodePath, startNanos + timeoutNanos, untimed);
+        } finally {
+            if (!acquired) {
+                // 시간 초과, 인터럽트, 오류 모두 대기열에서 빠집니다. (인터럽트 상태에서도 보낼 수 있도록 비동기로 지웁니다)
+                zooKeeper.delete(nodePath, -1, (rc, deletedPath, ctx) -> {
+                }, null);
+            }
+        }
+        if (!acquired) {
+            metrics.recordTimeout();
+            return false;
+        }
+        leases.put(thread, new Lease(nodePath, zooKeeper.getSessionId()));
+        metrics.recordAcquired(startNanos);
+        return true;
+    }
+
+    /**
+     * release() 메서드는 이 스레드의 허가를 반납합니다. 재진입한 횟수만큼 호출해야 znode가 삭제됩니다.
+     * - znode를 삭제하면 그 znode를 감시하던 대기자 하나에게만 알림이 갑니다.
+     *
+     * @throws IllegalMonitorStateException 이 스레드가 허가를 가지고 있지 않은 경우
+     */
+    public void release() throws KeeperException, InterruptedException {
+        Thread thread = Thread.currentThread();
+        Lease lease = leases.get(thread);
+        if (lease == null) {
+            throw new IllegalMonitorStateException("Current thread does not hold a permit of " + path);
+        }
+        if (--lease.holds > 0) {
+            return;
+        }
+        leases.remove(thread);
+        try {
+            zooKeeper.delete(lease.nodePath, -1);
+        } catch (KeeperException.NoNodeException e) {
+            // 세션 만료로 이미 사라졌으면 반납할 것이 없습니다.
+        }
+    }
+
+    // 이 스레드가 허가를 가지고 있는지 서버 왕복 없이 반환합니다. (연결이 끊겼거나 세션이 바뀌었으면 false)
+    public boolean isHeldByCurrentThread() {
+        Lease lease = leases.get(Thread.currentThread());
+        return lease != null && isValid(lease);
+    }
+
+    // 허가를 얻은 세션에 지금도 연결되어 있으면, 그 세션의 대기열 znode와 허가도 살아 있습니다.
+    private boolean isValid(Lease lease) {
+        return zooKeeper.getState() == ZooKeeper.States.CONNECTED && zooKeeper.getSessionId() == lease.sessionId;
+    }
+
+    // 재진입 전에 보유가 유효한지 확인합니다. 끊긴 연결은 같은 세션으로 돌아올 수 있으므로 보유 상태는 그대로 둡니다.
+    private void checkLease(Lease lease) throws KeeperException {
+        if (isValid(lease)) {
+            return;
+        }
+        if (zooKeeper.getState() == ZooKeeper.States.CONNECTING && zooKeeper.getSessionId() == lease.sessionId) {
+            throw new KeeperException.ConnectionLossException();
+        }
+        throw new KeeperException.SessionExpiredException();
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public LockMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * createQueueNode() 메서드는 이번 획득 시도의 GUID를 붙인 대기열 znode를 만듭니다.
+     * - 상위 경로가 없으면 Persistent znode로 만든 뒤 다시 시도합니다.
+     * - 연결 손실로 응답을 받지 못하면, 재연결 뒤 목록에서 GUID로 znode를 찾아 쓰고 없으면 다시 만듭니다.
+     *   (연결이 끊긴 동안의 요청은 재연결이나 세션 만료까지 기다리므로, 이 반복은 헛돌지 않습니다)
+     */
+    private String createQueueNode() throws KeeperException, InterruptedException {
+        String prefix = "s_" + UUID.randomUUID() + "-";
+        while (true) {
+            try {
+                return createQueueNode(prefix);
+            } catch (KeeperException.ConnectionLossException e) {
+                String recovered = findQueueNode(prefix);
+                if (recovered != null) {
+                    return recovered;
+                }
+            }
+        }
+    }
+
+    private String createQueueNode(String prefix) throws KeeperException, InterruptedException {
+        try {
+            return zooKeeper.create(path + "/" + prefix, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE,
+                    CreateMode.EPHEMERAL_SEQUENTIAL);
+        } catch (KeeperException.NoNodeException e) {
+            try {
+                zooKeeper.create(path, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            } catch (KeeperException.NodeExistsException ignored) {
+                // 다른 프로세스가 먼저 만들었습니다.
+            }
+            return zooKeeper.create(path + "/" + prefix, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE,
+                    CreateMode.EPHEMERAL_SEQUENTIAL);
+        }
+    }
+
+    // 목록에서 접두사가 같은 znode의 전체 경로를 찾습니다. (없으면 null, 확인하는 중에 연결을 잃으면 다시 확인)
+    private String findQueueNode(String prefix) throws KeeperException, InterruptedException {
+        while (true) {
+            List<String> children;
+            try {
+                children = zooKeeper.getChildren(path, false);
+            } catch (KeeperException.ConnectionLossException e) {
+                continue;
+            } catch (KeeperException.NoNodeException e) {
+                return null;
+            }
+            for (String child : children) {
+                if (child.startsWith(prefix)) {
+                    return path + "/" + child;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * awaitPermit() 메서드는 자신의 znode가 앞에서 permits번째 안에 들 때까지 기다립니다.
+     * - 깨어날 때마다 후보 목록을 다시 읽어 순번을 확인하고, 아직 차례가 아니면 감시 대상을 다시 정합니다.
+     */
+    private boolean awaitPermit(String nodePath, long deadlineNanos, boolean untimed)
+            throws KeeperException, InterruptedException {
+        String nodeName = nodePath.substring(path.length() + 1);
+        while (true) {
+            List<String> children = zooKeeper.getChildren(path, false);
+            children.sort(SEQUENCE_ORDER);
+            metrics.recordQueueDepth(Math.max(0, children.size() - permits));
+            int index = Collections.binarySearch(children, nodeName, SEQUENCE_ORDER);
+            if (index < 0) {
+                // 세션 만료 등으로 자신의 znode가 사라졌습니다.
+                throw new KeeperException.NoNodeException(nodePath);
+            }
+            if (index < permits) {
+                if (permits > 1) {
+                    // 바로 뒤 대기자는 이 znode만 감시하므로, 자신이 맨 앞 대기자가 되었음을 알 수 있게 합니다.
+                    zooKeeper.setData(nodePath, HOLDING, -1);
+                }
+                return true;
+            }
+
+            // 맨 앞 대기자는 허가를 가진 후보들을, 나머지는 바로 앞 후보 하나를 감시합니다.
+            CountDownLatch changed = new CountDownLatch(1);
+            Watcher watcher = event -> changed.countDown();
+            List<String> watched = index == permits ? children.subList(0, permits) : children.subList(index - 1, index);
+            for (String watchedName : watched) {
+                Stat stat = zooKeeper.exists(path + "/" + watchedName, watcher);
+                // 감시하기 전에 이미 사라졌거나, 바로 앞 대기자가 그 사이 허가를 얻었으면(데이터 변경) 바로 다시 확인합니다.
+                if (stat == null || (index > permits && stat.getVersion() > 0)) {
+                    changed.countDown();
+                    break;
+                }
+            }
+
+            if (untimed) {
+                changed.await();
+            } else {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0 || !changed.await(remainingNanos, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    // "s_<GUID>-<순번>"에서 순번 접미사를 꺼냅니다. (순번은 항상 같은 자릿수이므로 문자열로 비교해도 됩니다)
+    private static String sequenceOf(String nodeName) {
+        return nodeName.substring(nodeName.lastIndexOf('-') + 1);
+    }
+
+    // 한 스레드가 가진 허가: 대기열 znode 경로, 허가를 얻은 세션, 재진입 횟수
+    private static final class Lease {
+        private final String nodePath;
+        private final long sessionId;
+        private int holds = 1;
+
+        private Lease(String nodePath, long sessionId) {
+            this.nodePath = nodePath;
+            this.sessionId = sessionId;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package distributed.systems.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * FailoverMetrics 클래스는 리더 장애 조치(failover)의 단계별 소요 시간을 LatencyHistogram으로 기록합니다.
+ * - 단계마다 히스토그램이 하나씩 미리 만들어져 있으므로, 기록 경로에서는 객체를 할당하지 않습니다.
+ * - snapshot()으로 단계별 p50 / p99 / p999 / max 를 가져와 장애 조치 SLO를 추적할 수 있습니다.
+ */
+public class FailoverMetrics {
+
+    /**
+     * Phase는 장애 조치의 단계입니다.
+     */
+    public enum Phase {
+        // 연결이 끊긴(Disconnected) 시점부터 세션 만료(Expired)를 통지받기까지
+        SESSION_LOSS_DETECTION,
+        // NodeDeleted 이벤트를 받은 시점부터 재선출을 시작하기까지 (클라이언트 쪽 이벤트 전달/디스패치 지연)
+        NODE_DELETED_DELIVERY,
+        // 후보 목록 조회 getChildren() 한 번의 왕복 시간
+        GET_CHILDREN,
+        // 선행 후보에 대한 exists() Watcher 재등록 한 번의 왕복 시간
+        EXISTS_REWATCH,
+        // NodeDeleted 이벤트를 받은 시점부터 리더 지위를 확정하기까지의 전체 시간
+        LEADERSHIP_CLAIM,
+        // 세션 만료(Expired)를 통지받은 시점부터 새 세션에서 다시 후보로 등록해 선출 결과가 나오기까지
+        REENROLLMENT
+    }
+
+    private final Map<Phase, LatencyHistogram> histograms = new EnumMap<>(Phase.class);
+
+    public FailoverMetrics() {
+        for (Phase phase : Phase.values()) {
+            histograms.put(phase, new LatencyHistogram());
+        }
+    }
+
+    // 단계별 지연 시간(나노초)을 기록합니다.
+    public void record(Phase phase, long nanos) {
+        histograms.get(phase).record(nanos);
+    }
+
+    // System.nanoTime()으로 잰 시작 시각부터 지금까지의 시간을 기록합니다.
+    public long recordSince(Phase phase, long startNanos) {
+        return histograms.get(phase).recordSince(startNanos);
+    }
+
+    public LatencyHistogram histogram(Phase phase) {
+        return histograms.get(phase);
+    }
+
+    /**
+     * snapshot() 메서드는 모든 단계의 현재 통계를 반환합니다.
+     *
+     * @return 단계 → 통계의 읽기 전용 Map (단계 순서대로 정렬됨)
+     */
+    public Map<Phase, LatencyHistogram.Snapshot> snapshot() {
+        Map<Phase, LatencyHistogram.Snapshot> snapshot = new EnumMap<>(Phase.class);
+        for (Map.Entry<Phase, LatencyHistogram> entry : histograms.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<Phase, LatencyHistogram.Snapshot> entry : snapshot().entrySet()) {
+            builder.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        }
+        return builder.toString();
+    }
+}
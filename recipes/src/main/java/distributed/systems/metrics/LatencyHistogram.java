@@ -0,0 +1,147 @@
+package distributed.systems.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram 클래스는 나노초 단위 지연 시간을 기록하는 로그-선형(log-linear) 히스토그램입니다.
+ * - 2의 거듭제곱 구간마다 16개의 하위 버킷을 두어, 어떤 값이든 상대 오차 6.25% 이내로 기록합니다.
+ * - 버킷 배열은 생성 시 한 번만 할당하므로 record()는 객체를 만들지 않고(allocation-free),
+ *   락 없이 원자적 증가만 수행하므로 이벤트 스레드에서 호출해도 부담이 거의 없습니다.
+ * - snapshot()은 p50 / p99 / p999 / max 를 계산하여 돌려줍니다.
+ */
+public class LatencyHistogram {
+
+    // 2의 거듭제곱 구간 하나를 나누는 하위 버킷 수의 비트 수 (2^4 = 16개)
+    private static final int SUB_BUCKET_BITS = 4;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // long 범위 전체를 덮는 버킷 수
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    // 버킷별 기록 횟수
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    // 전체 기록 횟수와 합계 (평균 계산용)
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    // 지금까지 기록된 최댓값
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * record() 메서드는 지연 시간 하나를 기록합니다. 음수는 0으로 취급합니다.
+     *
+     * @param nanos 나노초 단위 지연 시간
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.increment();
+        totalNanos.add(value);
+
+        long currentMax = maxNanos.get();
+        while (value > currentMax && !maxNanos.compareAndSet(currentMax, value)) {
+            currentMax = maxNanos.get();
+        }
+    }
+
+    /**
+     * recordSince() 메서드는 System.nanoTime()으로 잰 시작 시각부터 지금까지의 시간을 기록합니다.
+     *
+     * @param startNanos System.nanoTime()으로 얻은 시작 시각
+     * @return 기록한 지연 시간(나노초)
+     */
+    public long recordSince(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        record(elapsed);
+        return elapsed;
+    }
+
+    public long count() {
+        return totalCount.sum();
+    }
+
+    /**
+     * valueAtPercentile() 메서드는 주어진 백분위의 값(해당 버킷의 상한)을 반환합니다.
+     *
+     * @param percentile 0 ~ 100 사이의 백분위 (예: 99.9)
+     * @return 나노초 단위 값, 기록이 없으면 0
+     */
+    public long valueAtPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+
+    /**
+     * snapshot() 메서드는 현재까지의 통계를 불변 객체로 반환합니다.
+     * - 기록과 동시에 호출될 수 있으므로 값들은 근사적으로 같은 시점의 상태입니다.
+     */
+    public Snapshot snapshot() {
+        long count = totalCount.sum();
+        long mean = count == 0 ? 0 : totalNanos.sum() / count;
+        return new Snapshot(count, mean, valueAtPercentile(50), valueAtPercentile(99),
+                valueAtPercentile(99.9), maxNanos.get());
+    }
+
+    // 모든 기록을 지웁니다. (기록 중에 호출하면 일부 기록이 남을 수 있습니다)
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+    }
+
+    // 값이 들어갈 버킷 번호를 계산합니다. 16 미만은 그대로, 그 이상은 (지수, 상위 4비트)로 나눕니다.
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    // 버킷에 들어갈 수 있는 가장 큰 값을 계산합니다.
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long lower = (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return lower + width - 1;
+    }
+
+    /**
+     * Snapshot은 히스토그램의 한 시점 통계입니다. 모든 값은 나노초 단위입니다.
+     */
+    public record Snapshot(long count, long meanNanos, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                    count, meanNanos / 1e6, p50Nanos / 1e6, p99Nanos / 1e6, p999Nanos / 1e6, maxNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package distributed.systems.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LockMetrics 클래스는 분산 락 / 세마포어의 획득 지연 시간과 대기열 길이를 기록합니다.
+ * - 획득 지연은 LatencyHistogram으로, 대기열 길이는 마지막으로 본 값과 최댓값으로 기록합니다.
+ * - 모든 기록은 락 없이 원자적 증가만 수행합니다.
+ */
+public class LockMetrics {
+
+    // 후보 znode 생성부터 획득까지의 시간 (로컬 재진입은 제외)
+    private final LatencyHistogram acquireLatency = new LatencyHistogram();
+
+    // ZooKeeper를 거친 획득 / 서버 왕복 없이 처리한 재진입 / 시간 초과 횟수
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder reentrantAcquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    // 마지막으로 본 대기열 길이 (허용 수를 넘는 대기자 수)와 지금까지의 최댓값
+    private volatile long queueDepth;
+    private final AtomicLong maxQueueDepth = new AtomicLong();
+
+    public void recordAcquired(long startNanos) {
+        acquireLatency.recordSince(startNanos);
+        acquisitions.increment();
+    }
+
+    public void recordReentrant() {
+        reentrantAcquisitions.increment();
+    }
+
+    public void recordTimeout() {
+        timeouts.increment();
+    }
+
+    // 후보 목록을 읽을 때마다 대기열 길이를 기록합니다.
+    public void recordQueueDepth(long depth) {
+        queueDepth = depth;
+        long currentMax = maxQueueDepth.get();
+        while (depth > currentMax && !maxQueueDepth.compareAndSet(currentMax, depth)) {
+            currentMax = maxQueueDepth.get();
+        }
+    }
+
+    public LatencyHistogram getAcquireLatency() {
+        return acquireLatency;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getReentrantAcquisitions() {
+        return reentrantAcquisitions.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    public long getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+
+    @Override
+    public String toString() {
+        return "acquire: " + acquireLatency.snapshot()
+                + ", acquisitions=" + getAcquisitions()
+                + ", reentrant=" + getReentrantAcquisitions()
+                + ", timeouts=" + getTimeouts()
+                + ", queueDepth=" + getQueueDepth()
+                + ", maxQueueDepth=" + getMaxQueueDepth();
+    }
+}
@@ -0,0 +1,296 @@
+package distributed.systems.metrics;
+
+import distributed.systems.election.Leadership;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RecipeMetrics 클래스는 선출 / 감시 레시피의 상태와 ZooKeeper 호출 지표를 한곳에 모아 JMX와 텍스트 스냅샷으로 제공합니다.
+ * - ZooKeeper 호출: 연산(Operation)별 호출 수와 지연 시간 히스토그램 (LatencyHistogram)
+ * - Watcher: 등록되어 아직 발생하지 않은 일회성 Watcher 수 (데이터 / 자식 목록), 영구 Watcher 수
+ * - 이벤트: 받은 WatchedEvent 수를 EventType별로, 리더 여부 전환 수, 세션 상태
+ * - 선출: 선출(네임스페이스)별 리더 여부, 현재 리더와 epoch. 한 프로세스가 여러 선출에 참여해도 서로 덮어쓰지 않습니다.
+ * - 기록 경로는 락 없이 LongAdder(스트라이프 카운터)와 원자적 증가만 사용하므로 이벤트 스레드에서 경합 지점이 되지 않습니다.
+ *   계산(백분위, 합계)은 조회할 때 합니다.
+ * - 프로세스 전체의 기본 인스턴스(get())는 처음 사용할 때 "distributed.systems:type=RecipeMetrics"로 JMX에 등록됩니다.
+ *   등록은 백그라운드 스레드에서 하므로 첫 기록을 늦추지 않습니다.
+ */
+public class RecipeMetrics implements RecipeMetricsMXBean {
+
+    /**
+     * Operation은 지연 시간을 기록하는 ZooKeeper 호출의 종류입니다.
+     */
+    public enum Operation {
+        CREATE, DELETE, EXISTS, GET_DATA, SET_DATA, GET_CHILDREN, MULTI
+    }
+
+    /**
+     * WatchKind는 일회성 Watcher의 종류입니다. (exists()와 getData()의 Watcher는 서버에서 모두 데이터 Watcher입니다)
+     */
+    public enum WatchKind {
+        DATA, CHILD
+    }
+
+    // JMX에 등록할 이름
+    public static final String OBJECT_NAME = "distributed.systems:type=RecipeMetrics";
+
+    private static final Watcher.Event.EventType[] EVENT_TYPES = Watcher.Event.EventType.values();
+
+    private final Map<Operation, LatencyHistogram> calls = new EnumMap<>(Operation.class);
+
+    // 종류별로 Watcher가 걸려 있는 경로 (같은 경로의 중복 등록은 서버에서도 하나이므로 집합으로 셉니다)
+    private final Set<String> dataWatches = ConcurrentHashMap.newKeySet();
+    private final Set<String> childWatches = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder persistentWatches = new LongAdder();
+
+    // EventType.ordinal()별 받은 이벤트 수
+    private final LongAdder[] events = new LongAdder[EVENT_TYPES.length];
+
+    private final LongAdder leadershipTransitions = new LongAdder();
+
+    // 선출 네임스페이스 → 마지막 선출 결과
+    private final Map<String, Leadership> leadershipByElection = new ConcurrentHashMap<>();
+
+    private volatile Watcher.Event.KeeperState sessionState = Watcher.Event.KeeperState.Disconnected;
+
+    public RecipeMetrics() {
+        for (Operation operation : Operation.values()) {
+            calls.put(operation, new LatencyHistogram());
+        }
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new LongAdder();
+        }
+    }
+
+    /** 기본 인스턴스 ************************************************************************************************** */
+
+    private static final class Default {
+        private static final RecipeMetrics INSTANCE = register(new RecipeMetrics());
+
+        /**
+         * register() 메서드는 기본 인스턴스를 백그라운드 스레드에서 JMX에 등록합니다.
+         * - 플랫폼 MBeanServer를 처음 만들 때 진단 명령(JFR 등)까지 불러오느라 수백 ms가 걸리므로,
+         *   첫 기록(후보 등록 직전)을 하는 스레드가 이를 기다리면 시작부터 "Znode created"까지의 시간이 그만큼 늘어납니다.
+         */
+        private static RecipeMetrics register(RecipeMetrics metrics) {
+            Thread registrar = new Thread(() -> {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName(OBJECT_NAME));
+                } catch (JMException e) {
+                    System.err.println("Failed to register " + OBJECT_NAME + ": " + e.getMessage());
+                }
+            }, "recipe-metrics-jmx");
+            registrar.setDaemon(true);
+            registrar.start();
+            return metrics;
+        }
+    }
+
+    // 프로세스 전체의 기본 인스턴스 (JMX에 등록됨)
+    public static RecipeMetrics get() {
+        return Default.INSTANCE;
+    }
+
+    /** 기록 ************************************************************************************************************ */
+
+    // System.nanoTime()으로 잰 시작 시각부터 지금까지를 호출 한 번의 지연 시간으로 기록합니다.
+    public void recordCall(Operation operation, long startNanos) {
+        calls.get(operation).recordSince(startNanos);
+    }
+
+    public void watchRegistered(WatchKind kind, String path) {
+        (kind == WatchKind.DATA ? dataWatches : childWatches).add(path);
+    }
+
+    public void persistentWatchAdded() {
+        persistentWatches.increment();
+    }
+
+    /**
+     * eventReceived() 메서드는 받은 이벤트를 종류별로 세고, 발생한 일회성 Watcher를 미결 목록에서 지웁니다.
+     * - 세션이 만료되면 모든 Watcher가 사라지므로 목록을 비웁니다.
+     */
+    public void eventReceived(WatchedEvent watchedEvent) {
+        events[watchedEvent.getType().ordinal()].increment();
+        String path = watchedEvent.getPath();
+        switch (watchedEvent.getType()) {
+            case None:
+                sessionState = watchedEvent.getState();
+                if (watchedEvent.getState() == Watcher.Event.KeeperState.Expired) {
+                    dataWatches.clear();
+                    childWatches.clear();
+                    persistentWatches.reset();
+                }
+                break;
+            case NodeCreated:
+            case NodeDataChanged:
+                dataWatches.remove(path);
+                break;
+            case NodeChildrenChanged:
+                childWatches.remove(path);
+                break;
+            case NodeDeleted:
+                dataWatches.remove(path);
+                childWatches.remove(path);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // 선출(namespace)의 결과를 기록합니다. 리더 여부가 바뀐 경우에만 전환으로 셉니다.
+    public void leadershipChanged(String namespace, Leadership previous, Leadership next) {
+        leadershipByElection.put(namespace, next);
+        if (previous.leader() != next.leader()) {
+            leadershipTransitions.increment();
+        }
+    }
+
+    // 선출(namespace)의 마지막 결과 (기록이 없으면 Leadership.UNKNOWN)
+    public Leadership leadership(String namespace) {
+        return leadershipByElection.getOrDefault(namespace, Leadership.UNKNOWN);
+    }
+
+    public LatencyHistogram histogram(Operation operation) {
+        return calls.get(operation);
+    }
+
+    /** RecipeMetricsMXBean ******************************************************************************************** */
+
+    @Override
+    public String getSessionState() {
+        return sessionState.name();
+    }
+
+    @Override
+    public Map<String, Boolean> getLeadership() {
+        Map<String, Boolean> values = new TreeMap<>();
+        leadershipByElection.forEach((namespace, leadership) -> values.put(namespace, leadership.leader()));
+        return values;
+    }
+
+    @Override
+    public Map<String, String> getCurrentLeaders() {
+        Map<String, String> values = new TreeMap<>();
+        leadershipByElection.forEach((namespace, leadership) -> {
+            if (leadership.leaderZnodeName() != null) {
+                values.put(namespace, leadership.leaderZnodeName());
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getLeaderEpochs() {
+        Map<String, Long> values = new TreeMap<>();
+        leadershipByElection.forEach((namespace, leadership) -> {
+            if (leadership.leaderZnodeName() != null) {
+                values.put(namespace, leadership.epoch());
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public long getLeadershipTransitions() {
+        return leadershipTransitions.sum();
+    }
+
+    @Override
+    public int getOutstandingDataWatches() {
+        return dataWatches.size();
+    }
+
+    @Override
+    public int getOutstandingChildWatches() {
+        return childWatches.size();
+    }
+
+    @Override
+    public long getPersistentWatches() {
+        return persistentWatches.sum();
+    }
+
+    @Override
+    public Map<String, Long> getEventCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Watcher.Event.EventType type : EVENT_TYPES) {
+            counts.put(type.name(), events[type.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getCallCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        calls.forEach((operation, histogram) -> counts.put(operation.name(), histogram.count()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getCallLatencyP50Micros() {
+        return percentileMicros(50);
+    }
+
+    @Override
+    public Map<String, Long> getCallLatencyP99Micros() {
+        return percentileMicros(99);
+    }
+
+    private Map<String, Long> percentileMicros(double percentile) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        calls.forEach((operation, histogram) -> values.put(operation.name(),
+                TimeUnit.NANOSECONDS.toMicros(histogram.valueAtPercentile(percentile))));
+        return values;
+    }
+
+    /**
+     * getSnapshot() 메서드는 모든 지표를 한 줄에 하나씩 "이름{레이블} 값" 형식의 텍스트로 반환합니다. (수집기가 긁어 가기 쉬운 형식)
+     */
+    @Override
+    public String getSnapshot() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("session_state ").append(getSessionState()).append('\n');
+        new TreeMap<>(leadershipByElection).forEach((namespace, leadership) -> {
+            String label = "{election=\"" + namespace + "\"} ";
+            builder.append("leader").append(label).append(leadership.leader() ? 1 : 0).append('\n');
+            builder.append("leader_znode").append(label).append(leadership.leaderZnodeName()).append('\n');
+            builder.append("leader_epoch").append(label).append(leadership.epoch()).append('\n');
+        });
+        builder.append("leadership_transitions ").append(getLeadershipTransitions()).append('\n');
+        builder.append("watches{kind=\"data\"} ").append(getOutstandingDataWatches()).append('\n');
+        builder.append("watches{kind=\"child\"} ").append(getOutstandingChildWatches()).append('\n');
+        builder.append("watches{kind=\"persistent\"} ").append(getPersistentWatches()).append('\n');
+        for (Watcher.Event.EventType type : EVENT_TYPES) {
+            builder.append("events{type=\"").append(type.name()).append("\"} ")
+                    .append(events[type.ordinal()].sum()).append('\n');
+        }
+        calls.forEach((operation, histogram) -> {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            String label = "{op=\"" + operation.name() + "\"} ";
+            builder.append("zk_calls").append(label).append(snapshot.count()).append('\n');
+            builder.append("zk_call_p50_us").append(label).append(TimeUnit.NANOSECONDS.toMicros(snapshot.p50Nanos())).append('\n');
+            builder.append("zk_call_p99_us").append(label).append(TimeUnit.NANOSECONDS.toMicros(snapshot.p99Nanos())).append('\n');
+            builder.append("zk_call_max_us").append(label).append(TimeUnit.NANOSECONDS.toMicros(snapshot.maxNanos())).append('\n');
+        });
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getSnapshot();
+    }
+}
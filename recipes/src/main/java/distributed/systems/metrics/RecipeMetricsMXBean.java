@@ -0,0 +1,41 @@
+package distributed.systems.metrics;
+
+import java.util.Map;
+
+/**
+ * RecipeMetricsMXBean은 RecipeMetrics를 JMX(jconsole, VisualVM, JMX 수집기 등)로 노출하는 인터페이스입니다.
+ * - Map 속성은 JMX에서 TabularData로 보입니다. (키: 연산 / 이벤트 종류 이름 / 선출 네임스페이스)
+ */
+public interface RecipeMetricsMXBean {
+
+    // 마지막으로 받은 연결 상태 (SyncConnected, Disconnected, Expired 등)
+    String getSessionState();
+
+    // 선출 네임스페이스별 리더 여부
+    Map<String, Boolean> getLeadership();
+
+    // 선출 네임스페이스별 마지막 선출 결과의 리더 후보 이름 (리더를 모르는 선출은 빠집니다)
+    Map<String, String> getCurrentLeaders();
+
+    // 선출 네임스페이스별 리더의 epoch (리더를 모르는 선출은 빠집니다)
+    Map<String, Long> getLeaderEpochs();
+
+    long getLeadershipTransitions();
+
+    int getOutstandingDataWatches();
+
+    int getOutstandingChildWatches();
+
+    long getPersistentWatches();
+
+    Map<String, Long> getEventCounts();
+
+    Map<String, Long> getCallCounts();
+
+    Map<String, Long> getCallLatencyP50Micros();
+
+    Map<String, Long> getCallLatencyP99Micros();
+
+    // 모든 지표의 텍스트 스냅샷
+    String getSnapshot();
+}
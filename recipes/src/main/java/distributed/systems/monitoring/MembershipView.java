@@ -0,0 +1,119 @@
+package distributed.systems.monitoring;
+
+import org.apache.zookeeper.data.Stat;      // ZooKeeper의 상태 정보를 담는 Stat 클래스를 임포트합니다.
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+
+/**
+ * MembershipView 클래스는 한 znode의 자식 목록(그룹 구성원)을 정렬된 배열로 유지하고, 새 목록을 받을 때마다 바뀐 구성원만 계산합니다.
+ * - ZooKeeper의 getChildren()은 항상 전체 목록을 주므로, 이전 목록과 정렬 병합(merge) 한 번으로 추가 / 삭제된 구성원을 찾습니다.
+ *   리스너는 전체 목록 대신 Diff만 받으므로, 구성원이 수만 명이어도 리스너의 작업량은 변경된 구성원 수에 비례합니다.
+ * - 구성원은 String[] 하나로 보관하므로 구성원당 추가 객체가 없고, contains()는 이진 탐색입니다.
+ * - 같은 znode에서 자식 목록의 버전(cversion)이 이미 반영한 것보다 크지 않은 응답은 오래된 응답으로 보고 무시합니다.
+ */
+public class MembershipView {
+
+    private static final String[] EMPTY = new String[0];
+
+    // 정렬된 현재 구성원 (교체만 하고 수정하지 않으므로, 읽기는 락 없이 합니다)
+    private volatile String[] members = EMPTY;
+
+    // 마지막으로 반영한 자식 목록의 버전 (아직 반영하지 않았거나 노드가 삭제되었으면 -1)
+    private int cversion = -1;
+
+    // 마지막으로 반영한 znode의 생성 zxid (삭제 후 다시 만들어지면 cversion이 0부터 다시 시작하므로 함께 비교합니다)
+    private long czxid = -1;
+
+    /**
+     * Diff는 한 번의 갱신에서 추가 / 삭제된 구성원입니다.
+     *
+     * @param added        새로 생긴 구성원 (정렬됨)
+     * @param removed      사라진 구성원 (정렬됨)
+     * @param fromCversion 이전에 반영한 자식 목록의 버전 (처음이면 -1)
+     * @param toCversion   이번에 반영한 자식 목록의 버전 (노드가 삭제되었으면 -1)
+     * @param size         갱신 후의 구성원 수
+     */
+    public record Diff(List<String> added, List<String> removed, int fromCversion, int toCversion, int size) {
+
+        @Override
+        public String toString() {
+            return "+" + added + " -" + removed + " (cversion " + fromCversion + " -> " + toCversion + ", size " + size + ")";
+        }
+    }
+
+    /**
+     * update() 메서드는 getChildren()으로 읽은 목록을 반영하고 바뀐 구성원을 반환합니다.
+     *
+     * @param children getChildren()이 반환한 자식 목록 (정렬되어 있지 않아도 됩니다)
+     * @param stat     같은 응답의 Stat (cversion으로 오래된 응답을 거릅니다)
+     * @return 바뀐 구성원, 오래된 응답이거나 바뀐 구성원이 없으면 null
+     */
+    public synchronized Diff update(List<String> children, Stat stat) {
+        if (stat.getCzxid() < czxid || (stat.getCzxid() == czxid && stat.getCversion() <= cversion)) {
+            return null;
+        }
+        String[] next = children.toArray(EMPTY);
+        Arrays.sort(next);
+        String[] previous = members;
+
+        // 두 정렬된 배열을 한 번 훑어 추가 / 삭제된 구성원을 찾습니다.
+        List<String> added = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < previous.length || j < next.length) {
+            int compare = i == previous.length ? 1 : j == next.length ? -1 : previous[i].compareTo(next[j]);
+            if (compare < 0) {
+                removed.add(previous[i++]);
+            } else if (compare > 0) {
+                added.add(next[j++]);
+            } else {
+                i++;
+                j++;
+            }
+        }
+
+        int fromCversion = cversion;
+        cversion = stat.getCversion();
+        czxid = stat.getCzxid();
+        members = next;
+        if (added.isEmpty() && removed.isEmpty()) {
+            return null;
+        }
+        return new Diff(Collections.unmodifiableList(added), Collections.unmodifiableList(removed),
+                fromCversion, cversion, next.length);
+    }
+
+    /**
+     * clear() 메서드는 znode가 삭제되었을 때 모든 구성원을 비웁니다.
+     *
+     * @return 삭제된 구성원, 구성원이 없었으면 null
+     */
+    public synchronized Diff clear() {
+        String[] previous = members;
+        int fromCversion = cversion;
+        members = EMPTY;
+        cversion = -1;
+        czxid = -1;
+        if (previous.length == 0) {
+            return null;
+        }
+        return new Diff(Collections.emptyList(), List.of(previous), fromCversion, -1, 0);
+    }
+
+    public boolean contains(String member) {
+        return Arrays.binarySearch(members, member) >= 0;
+    }
+
+    public int size() {
+        return members.length;
+    }
+
+    // 현재 구성원의 정렬된 읽기 전용 목록
+    public List<String> members() {
+        return Collections.unmodifiableList(Arrays.asList(members));
+    }
+}
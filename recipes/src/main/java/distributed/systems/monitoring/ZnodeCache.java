@@ -0,0 +1,240 @@
+package distributed.systems.monitoring;
+
+import org.apache.zookeeper.data.Stat;      // ZooKeeper의 상태 정보를 담는 Stat 클래스를 임포트합니다.
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.Map;
+
+/**
+ * ZnodeCache 클래스는 경로별 znode 데이터와 자식 목록을 Stat과 함께 보관하는 클라이언트 측 캐시입니다.
+ * - 데이터는 mzxid, 자식 목록은 pzxid로 버전을 비교하여, 이미 가진 것보다 오래된 응답은 거부합니다.
+ *   (두 값 모두 서버 전체에서 단조 증가하는 zxid이므로, 노드가 지워졌다 다시 생겨도 비교가 유효합니다.
+ *    cversion은 노드를 다시 만들면 0부터 다시 시작하므로 사용하지 않습니다.)
+ * - Watch 이벤트를 받으면 해당 부분만 무효화하고, 마지막 Stat은 남겨 두어 이후 응답의 버전 비교에 사용합니다.
+ * - 전체 크기가 바이트 예산을 넘으면 가장 오래 사용하지 않은(LRU) 항목부터 제거합니다.
+ *   예산보다 큰 항목 하나는 캐시하지 않습니다.
+ * - 모든 메서드는 this 락으로 보호됩니다. 조회도 LRU 순서를 바꾸므로 읽기 락을 따로 두지 않습니다.
+ */
+public class ZnodeCache {
+
+    // 항목 하나의 고정 비용 추정치 (객체 헤더, Stat 두 개, 맵 노드 등)
+    private static final long ENTRY_OVERHEAD_BYTES = 256;
+
+    // 자식 이름 하나의 고정 비용 추정치 (String 객체 + 리스트 슬롯)
+    private static final long CHILD_OVERHEAD_BYTES = 48;
+
+    // 최대 바이트 예산
+    private final long maxBytes;
+
+    // 접근 순서로 정렬된 항목들 (가장 오래 사용하지 않은 항목이 맨 앞)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 현재 항목들의 추정 크기 합
+    private long sizeBytes;
+
+    // 통계
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long staleRejections;
+
+    public ZnodeCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /** 조회 ******************************************************************************************************* */
+
+    /**
+     * getData() 메서드는 유효한 캐시 데이터를 반환합니다.
+     * - 반환된 배열은 캐시와 공유되므로 수정하면 안 됩니다.
+     *
+     * @return 데이터, 캐시에 없거나 무효화되었으면 null
+     */
+    public synchronized byte[] getData(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || !entry.dataValid) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.data;
+    }
+
+    /**
+     * getDataAsString() 메서드는 데이터를 UTF-8 문자열로 반환합니다.
+     * - 같은 버전에 대해서는 한 번만 디코딩하고, 이후에는 같은 String을 반환합니다.
+     */
+    public synchronized String getDataAsString(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || !entry.dataValid) {
+            misses++;
+            return null;
+        }
+        hits++;
+        if (entry.text == null) {
+            entry.text = new String(entry.data, StandardCharsets.UTF_8);
+        }
+        return entry.text;
+    }
+
+    // 캐시된 데이터의 Stat (없으면 null)
+    public synchronized Stat getDataStat(String path) {
+        Entry entry = entries.get(path);
+        return entry != null && entry.dataValid ? entry.dataStat : null;
+    }
+
+    /**
+     * getChildren() 메서드는 유효한 캐시 자식 목록을 반환합니다.
+     *
+     * @return 자식 목록, 캐시에 없거나 무효화되었으면 null
+     */
+    public synchronized List<String> getChildren(String path) {
+        Entry entry = entries.get(path);
+        if (entry == null || !entry.childrenValid) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.children;
+    }
+
+    /** 갱신 ******************************************************************************************************* */
+
+    /**
+     * putData() 메서드는 서버에서 읽은 데이터를 저장합니다.
+     *
+     * @return 저장했으면 true, 이미 가진 것보다 오래된 버전(mzxid가 작음)이라 거부했으면 false
+     */
+    public synchronized boolean putData(String path, byte[] data, Stat stat) {
+        Entry entry = entries.get(path);
+        if (entry != null && entry.dataStat != null && stat.getMzxid() < entry.dataStat.getMzxid()) {
+            staleRejections++;
+            return false;
+        }
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(path, entry);
+        }
+        sizeBytes -= entry.sizeBytes;
+        entry.data = data;
+        entry.dataStat = stat;
+        entry.dataValid = true;
+        entry.text = null;
+        entry.sizeBytes = sizeOf(path, entry);
+        sizeBytes += entry.sizeBytes;
+        evictIfNeeded();
+        return true;
+    }
+
+    /**
+     * putChildren() 메서드는 서버에서 읽은 자식 목록을 저장합니다.
+     *
+     * @return 저장했으면 true, 이미 가진 것보다 오래된 버전(pzxid가 작음)이라 거부했으면 false
+     */
+    public synchronized boolean putChildren(String path, List<String> children, Stat stat) {
+        Entry entry = entries.get(path);
+        if (entry != null && entry.childrenStat != null && stat.getPzxid() < entry.childrenStat.getPzxid()) {
+            staleRejections++;
+            return false;
+        }
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(path, entry);
+        }
+        sizeBytes -= entry.sizeBytes;
+        entry.children = List.copyOf(children);
+        entry.childrenStat = stat;
+        entry.childrenValid = true;
+        entry.sizeBytes = sizeOf(path, entry);
+        sizeBytes += entry.sizeBytes;
+        evictIfNeeded();
+        return true;
+    }
+
+    // NodeDataChanged: 데이터만 무효화합니다. (버전 비교를 위해 Stat은 남겨 둡니다)
+    public synchronized void invalidateData(String path) {
+        Entry entry = entries.get(path);
+        if (entry != null) {
+            entry.dataValid = false;
+        }
+    }
+
+    // NodeChildrenChanged: 자식 목록만 무효화합니다.
+    public synchronized void invalidateChildren(String path) {
+        Entry entry = entries.get(path);
+        if (entry != null) {
+            entry.childrenValid = false;
+        }
+    }
+
+    // NodeDeleted: 항목을 제거합니다.
+    public synchronized void remove(String path) {
+        Entry entry = entries.remove(path);
+        if (entry != null) {
+            sizeBytes -= entry.sizeBytes;
+        }
+    }
+
+    /** 통계 ******************************************************************************************************* */
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long sizeBytes() {
+        return sizeBytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("entries=%d bytes=%d/%d hits=%d misses=%d evictions=%d staleRejections=%d",
+                entries.size(), sizeBytes, maxBytes, hits, misses, evictions, staleRejections);
+    }
+
+    /** 크기 계산과 제거 ******************************************************************************************* */
+
+    // 예산을 넘으면 가장 오래 사용하지 않은 항목부터 제거합니다. (방금 넣은 항목이 예산보다 크면 그 항목도 제거됩니다)
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            iterator.remove();
+            sizeBytes -= eldest.sizeBytes;
+            evictions++;
+        }
+    }
+
+    private static long sizeOf(String path, Entry entry) {
+        long size = ENTRY_OVERHEAD_BYTES + 2L * path.length();
+        if (entry.data != null) {
+            size += entry.data.length;
+        }
+        if (entry.children != null) {
+            for (String child : entry.children) {
+                size += CHILD_OVERHEAD_BYTES + 2L * child.length();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Entry는 경로 하나의 캐시 항목입니다. 모든 필드는 ZnodeCache의 락으로 보호합니다.
+     */
+    private static final class Entry {
+        private byte[] data;
+        private Stat dataStat;
+        private boolean dataValid;
+        private String text;           // data를 디코딩한 문자열 (처음 요청될 때 만듭니다)
+        private List<String> children;
+        private Stat childrenStat;
+        private boolean childrenValid;
+        private long sizeBytes;
+    }
+}
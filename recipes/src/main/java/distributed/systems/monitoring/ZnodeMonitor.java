@@ -0,0 +1,869 @@
+package distributed.systems.monitoring;
+
+import distributed.systems.metrics.RecipeMetrics;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;      // ZooKeeper의 상태 정보를 담는 Stat 클래스를 임포트합니다.
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ZnodeMonitor 클래스는 여러 znode의 데이터와 자식 목록을 감시하며 최신 값을 로컬에 유지합니다.
+ * - 모든 읽기는 비동기 API(DataCallback, ChildrenCallback, StatCallback)로 보내므로,
+ *   여러 경로의 요청이 하나의 연결 위에서 파이프라인으로 겹쳐 처리됩니다. (경로 수가 늘어도 왕복은 1번)
+ * - 이벤트마다 그 이벤트가 무효화한 것만 다시 읽습니다.
+ *   NodeDataChanged → getData, NodeChildrenChanged → getChildren, NodeCreated → 둘 다, NodeDeleted → 생성 감시(exists)만.
+ * - getData() / getChildren()이 Watcher를 함께 등록하므로, 노드가 있을 때는 exists() Watcher를 따로 걸지 않습니다.
+ *   모든 요청에 같은 Watcher 객체(this)를 사용하므로 같은 경로에 중복 등록되지 않습니다.
+ * - 연결 이벤트(None)로는 다시 읽지 않습니다. 같은 세션으로 재연결되면 클라이언트가 Watcher를 자동으로 다시 등록합니다.
+ * - 이벤트와 다시 읽기 사이에 병합(coalescing) 단계를 둡니다. 같은 경로의 이벤트가 병합 구간 안에 여러 번 오거나,
+ *   이미 같은 읽기가 진행 중일 때 오면 한 번의 읽기로 합쳐지고, 그 읽기가 최신 상태를 가져옵니다.
+ *   따라서 쓰기가 몰려도 경로당 읽기 요청 수는 (병합 구간 또는 왕복 시간)당 1번으로 제한됩니다.
+ * - 읽은 값은 버전(Stat)과 함께 ZnodeCache에 보관합니다. getData() / getChildren()은 캐시를 먼저 보고,
+ *   없을 때만 서버에서 읽어(read-through) Watcher를 등록하므로 자주 읽는 설정값은 로컬 메모리 조회가 됩니다.
+ * - 감시 경로의 자식 목록은 MembershipView로도 유지하여, 리스너에게 추가 / 삭제된 구성원만 전달합니다(membershipChanged).
+ * - 선택 사항: ZnodeSnapshot을 주면 감시 경로에서 읽은 값을 Stat과 함께 로컬 파일에 계속 기록하고(warm start),
+ *   재시작 후 loadAll()은 스냅샷의 값을 서버에 묻기 전에 바로 제공한 뒤, 서버의 Stat과 비교해 바뀐 부분만 다시 읽습니다.
+ */
+public class ZnodeMonitor implements Watcher {
+
+    /**
+     * Listener는 감시 중인 znode의 변화를 통지받는 콜백입니다.
+     * - 모든 콜백은 ZooKeeper 이벤트 스레드에서 호출되므로 오래 걸리는 작업을 하면 안 됩니다.
+     */
+    public interface Listener {
+        // znode의 데이터를 새로 읽었을 때 호출됩니다.
+        void dataChanged(String path, byte[] data, Stat stat);
+
+        // znode의 자식 목록을 새로 읽었을 때 호출됩니다.
+        void childrenChanged(String path, List<String> children);
+
+        // 감시 경로의 자식 목록에서 추가 / 삭제된 구성원만 전달합니다. (전체 목록을 직접 비교할 필요가 없습니다)
+        default void membershipChanged(String path, MembershipView.Diff diff) {
+        }
+
+        // znode가 없거나 삭제되었을 때 호출됩니다.
+        void deleted(String path);
+    }
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체 (세션이 만료되어 새로 만들어지면 sessionRenewed()로 교체됩니다)
+    private volatile ZooKeeper zooKeeper;
+
+    // 감시할 znode 경로들 (중복 제거, 입력 순서 유지)
+    private final Set<String> paths;
+
+    // 변화 통지를 받을 리스너
+    private final Listener listener;
+
+    // 캐시의 기본 바이트 예산 (64MiB)
+    public static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+
+    // 경로별 마지막으로 읽은 데이터와 자식 목록 (Stat 포함, 노드가 없으면 항목이 없습니다)
+    private final ZnodeCache cache;
+
+    // 감시 경로 목록 밖에서 getData() / getChildren()으로 읽어 Watcher가 걸려 있는 경로들
+    // (이 경로들은 이벤트가 오면 미리 읽지 않고 무효화만 하며, 다음 조회 때 다시 읽습니다)
+    private final Set<String> readThroughPaths = ConcurrentHashMap.newKeySet();
+
+    // 삭제를 반영하고 생성 감시(exists)를 보낸 경로와 그 요청을 보낸 연결
+    // (진행 중이던 읽기가 같은 연결에서 NONODE로 돌아와도 deleted() 통지와 exists()를 반복하지 않습니다)
+    private final Map<String, ZooKeeper> creationWatchedBy = new ConcurrentHashMap<>();
+
+    // 다시 읽어야 할 부분을 나타내는 비트
+    private static final int DATA = 1;
+    private static final int CHILDREN = 2;
+
+    // 경로별 병합 상태 (경로 집합이 고정이므로 생성자에서 만든 뒤에는 바뀌지 않습니다)
+    private final Map<String, Refresh> refreshByPath = new HashMap<>();
+
+    // 감시 경로별 구성원 (자식 목록) 변경분 계산용 (경로 집합과 함께 고정)
+    private final Map<String, MembershipView> membershipByPath = new HashMap<>();
+
+    // 병합 구간 (밀리초). 0이면 기다리지 않고, 진행 중인 읽기와만 병합합니다.
+    private final long coalesceWindowMillis;
+
+    // 병합 구간이 지난 뒤 읽기를 보내는 스케줄러 (병합 구간이 0이면 null)
+    private final ScheduledExecutorService scheduler;
+
+    // 받은 노드 이벤트 수와 실제로 보낸 다시 읽기 요청 수
+    private final LongAdder eventsReceived = new LongAdder();
+    private final LongAdder refreshesPerformed = new LongAdder();
+
+    // 프로세스 전체의 ZooKeeper 호출 / Watcher 지표
+    private final RecipeMetrics metrics = RecipeMetrics.get();
+
+    // 감시 경로의 상태를 기록하는 로컬 스냅샷 (사용하지 않으면 null)
+    private final ZnodeSnapshot snapshot;
+
+    // 스냅샷에서 복원했지만 아직 서버와 확인하지 않은 부분 (경로 → DATA | CHILDREN 비트)
+    private final Map<String, Integer> staleParts = new ConcurrentHashMap<>();
+
+    // 스냅샷에서 이미 복원했는지 여부 (처음 loadAll()에서만 복원합니다)
+    private boolean snapshotRestored;
+
+    // 스냅샷에서 복원한 경로 수와, 재검증에서 그대로 확인된 부분 / 다시 읽은 부분의 수
+    private int restoredPaths;
+    private final LongAdder partsConfirmed = new LongAdder();
+    private final LongAdder partsRefetched = new LongAdder();
+
+    public ZnodeMonitor(ZooKeeper zooKeeper, Collection<String> paths, Listener listener) {
+        this(zooKeeper, paths, listener, 0);
+    }
+
+    /**
+     * @param coalesceWindowMillis 같은 경로의 이벤트를 모아 한 번에 다시 읽을 구간 (밀리초), 0이면 진행 중인 읽기와만 병합
+     */
+    public ZnodeMonitor(ZooKeeper zooKeeper, Collection<String> paths, Listener listener, long coalesceWindowMillis) {
+        this(zooKeeper, paths, listener, coalesceWindowMillis, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * @param coalesceWindowMillis 같은 경로의 이벤트를 모아 한 번에 다시 읽을 구간 (밀리초), 0이면 진행 중인 읽기와만 병합
+     * @param cacheBytes           캐시의 바이트 예산, 넘으면 가장 오래 사용하지 않은 항목부터 제거합니다.
+     */
+    public ZnodeMonitor(ZooKeeper zooKeeper, Collection<String> paths, Listener listener, long coalesceWindowMillis,
+                        long cacheBytes) {
+        this(zooKeeper, paths, listener, coalesceWindowMillis, cacheBytes, null);
+    }
+
+    /**
+     * @param coalesceWindowMillis 같은 경로의 이벤트를 모아 한 번에 다시 읽을 구간 (밀리초), 0이면 진행 중인 읽기와만 병합
+     * @param cacheBytes           캐시의 바이트 예산, 넘으면 가장 오래 사용하지 않은 항목부터 제거합니다.
+     * @param snapshot             감시 경로의 상태를 기록하고 재시작 시 복원할 스냅샷, 사용하지 않으면 null
+     *                             (닫는 것은 만든 쪽의 책임입니다)
+     */
+    public ZnodeMonitor(ZooKeeper zooKeeper, Collection<String> paths, Listener listener, long coalesceWindowMillis,
+                        long cacheBytes, ZnodeSnapshot snapshot) {
+        this.zooKeeper = zooKeeper;
+        this.snapshot = snapshot;
+        this.cache = new ZnodeCache(cacheBytes);
+        this.paths = Collections.unmodifiableSet(new LinkedHashSet<>(paths));
+        this.listener = listener;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.scheduler = coalesceWindowMillis > 0
+                ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "znode-monitor-coalescer");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        for (String path : this.paths) {
+            refreshByPath.put(path, new Refresh(path));
+            membershipByPath.put(path, new MembershipView());
+        }
+    }
+
+    /**
+     * close() 메서드는 병합 구간을 기다리는 스케줄러를 종료합니다. 아직 보내지 않은 다시 읽기는 버려집니다.
+     */
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * loadAll() 메서드는 모든 경로의 데이터와 자식 목록을 한꺼번에 읽고 Watcher를 등록합니다.
+     * - 요청을 모두 보낸 뒤 응답을 기다리므로, 경로 수와 관계없이 대략 한 번의 왕복 시간만 걸립니다.
+     * - 모든 응답이 반영될 때까지 호출한 스레드는 대기합니다.
+     * - 스냅샷이 있으면 먼저 restoreSnapshot()으로 저장된 값을 캐시와 리스너에 바로 제공하고,
+     *   그 경로들은 전체를 읽는 대신 revalidate()로 바뀐 부분만 다시 읽습니다.
+     *
+     * @throws KeeperException    NONODE 이외의 오류로 읽지 못한 경로가 있으면 첫 번째 오류
+     * @throws InterruptedException 스레드가 인터럽트되었을 때 발생하는 예외
+     */
+    public void loadAll() throws KeeperException, InterruptedException {
+        Map<String, ZnodeSnapshot.Entry> restored = restoreSnapshot();
+        Load load = new Load(paths.size() * 2);
+        for (String path : paths) {
+            ZnodeSnapshot.Entry entry = restored.get(path);
+            if (entry != null) {
+                revalidate(path, entry, load);
+            } else {
+                readData(path, load);
+                readChildren(path, load);
+            }
+        }
+        load.await();
+    }
+
+    /**
+     * restoreSnapshot() 메서드는 스냅샷에 남아 있는 감시 경로의 값을 서버에 묻지 않고 캐시에 넣고 리스너에 알립니다.
+     * - 값은 프로세스가 종료되기 전의 것이므로 오래되었을 수 있습니다. 재검증이 끝날 때까지 isStale()이 true입니다.
+     * - 리스너 콜백은 요청을 보내기 전에 호출한 스레드에서 실행됩니다.
+     *
+     * @return 복원한 경로별 스냅샷 상태 (스냅샷이 없거나 이미 복원했으면 빈 맵)
+     */
+    private Map<String, ZnodeSnapshot.Entry> restoreSnapshot() {
+        if (snapshot == null || snapshotRestored) {
+            return Map.of();
+        }
+        snapshotRestored = true;
+        snapshot.retain(paths);
+        Map<String, ZnodeSnapshot.Entry> restored = new HashMap<>();
+        for (String path : paths) {
+            ZnodeSnapshot.Entry entry = snapshot.get(path);
+            if (entry == null) {
+                continue;
+            }
+            int parts = 0;
+            if (entry.dataStat() != null && cache.putData(path, entry.data(), entry.dataStat())) {
+                parts |= DATA;
+                listener.dataChanged(path, entry.data(), entry.dataStat());
+            }
+            if (entry.childrenStat() != null && cache.putChildren(path, entry.children(), entry.childrenStat())) {
+                parts |= CHILDREN;
+                listener.childrenChanged(path, entry.children());
+                notifyMembership(path, updateMembership(path, entry.children(), entry.childrenStat()));
+            }
+            if (parts != 0) {
+                staleParts.put(path, parts);
+            }
+            restored.put(path, entry);
+        }
+        restoredPaths = restored.size();
+        return restored;
+    }
+
+    /**
+     * revalidate() 메서드는 스냅샷에서 복원한 경로를 서버의 Stat과 비교하며 Watcher를 다시 등록합니다.
+     * - 데이터: exists()로 데이터 없이 Stat만 받고(데이터 Watcher 또는 생성 감시 등록), mzxid가 다를 때만 getData()로 다시 읽습니다.
+     * - 자식 목록: 자식 Watcher를 거는 방법이 getChildren()뿐이므로 exists()와 함께 바로 보내지만,
+     *   응답의 pzxid가 스냅샷과 같으면 리스너에 알리거나 스냅샷에 쓰지 않습니다. (rearmChildren)
+     * - 두 요청이 파이프라인으로 겹치므로 바뀐 것이 없으면 왕복 1번에 끝나고, 응답에는 바뀐 데이터만 실립니다.
+     * - 노드가 없어졌으면 삭제로 반영합니다. 이 경로의 Load 완료는 데이터 / 자식 목록 두 번으로 셉니다.
+     */
+    private void revalidate(String path, ZnodeSnapshot.Entry entry, Load load) {
+        revalidateData(path, entry, load);
+        if (entry.childrenStat() != null) {
+            rearmChildren(path, entry.childrenStat().getPzxid(), load);
+        } else {
+            partsRefetched.increment();
+            readChildren(path, load);
+        }
+    }
+
+    private void revalidateData(String path, ZnodeSnapshot.Entry entry, Load load) {
+        long startNanos = System.nanoTime();
+        zooKeeper.exists(path, this, (rc, p, ctx, stat) -> {
+            metrics.recordCall(RecipeMetrics.Operation.EXISTS, startNanos);
+            if (rc == KeeperException.Code.OK.intValue() || rc == KeeperException.Code.NONODE.intValue()) {
+                metrics.watchRegistered(RecipeMetrics.WatchKind.DATA, p);
+            }
+            onRevalidate(rc, p, entry, load, stat);
+        }, load);
+    }
+
+    // revalidateData()의 exists() 완료 콜백
+    private void onRevalidate(int rc, String path, ZnodeSnapshot.Entry entry, Load load, Stat stat) {
+        switch (KeeperException.Code.get(rc)) {
+            case OK:
+                Stat dataStat = entry.dataStat();
+                if (dataStat != null && stat.getMzxid() == dataStat.getMzxid()) {
+                    confirmed(path, DATA);
+                    complete(load);
+                    return;
+                }
+                // 서버의 zxid가 스냅샷보다 작다면 서버 데이터가 초기화된 것이므로, 복원한 값이 새 응답을 막지 않도록 버립니다.
+                if (dataStat != null && stat.getMzxid() < dataStat.getMzxid()) {
+                    cache.remove(path);
+                }
+                partsRefetched.increment();
+                readData(path, load);
+                return;
+            case NONODE:
+                // exists()가 생성 감시를 이미 등록했습니다. 자식 목록 쪽은 getChildren()의 NONODE 응답으로 완료됩니다.
+                if (creationWatchedBy.put(path, zooKeeper) == null) {
+                    markDeleted(path);
+                }
+                break;
+            case CONNECTIONLOSS:
+                revalidateData(path, entry, load);
+                return;
+            default:
+                fail(load, rc, path);
+                return;
+        }
+        complete(load);
+    }
+
+    // 자식 Watcher를 다시 겁니다. 자식 목록이 스냅샷과 같으면 확인만 하고, 바뀌었으면 일반 응답처럼 처리합니다.
+    private void rearmChildren(String path, long pzxid, Load load) {
+        long startNanos = System.nanoTime();
+        zooKeeper.getChildren(path, this, (rc, p, ctx, children, stat) -> {
+            metrics.recordCall(RecipeMetrics.Operation.GET_CHILDREN, startNanos);
+            if (rc == KeeperException.Code.OK.intValue()) {
+                metrics.watchRegistered(RecipeMetrics.WatchKind.CHILD, p);
+                if (stat.getPzxid() == pzxid) {
+                    confirmed(p, CHILDREN);
+                    complete(load);
+                    return;
+                }
+                partsRefetched.increment();
+                if (stat.getPzxid() < pzxid) {
+                    // 서버 데이터가 초기화된 경우입니다. (같은 경로의 getData()는 이 응답 뒤에 오므로 지워도 됩니다)
+                    cache.remove(p);
+                }
+            }
+            onChildren(rc, p, ctx, children, stat);
+        }, load);
+    }
+
+    // 스냅샷에서 복원한 부분이 서버와 같음을 확인했습니다.
+    private void confirmed(String path, int part) {
+        partsConfirmed.increment();
+        clearStale(path, part);
+    }
+
+    private void clearStale(String path, int part) {
+        staleParts.computeIfPresent(path, (p, parts) -> (parts & ~part) == 0 ? null : parts & ~part);
+    }
+
+    /**
+     * isStale() 메서드는 경로의 값이 스냅샷에서 복원되어 아직 서버와 확인되지 않았는지 반환합니다.
+     */
+    public boolean isStale(String path) {
+        return staleParts.containsKey(path);
+    }
+
+    // 스냅샷에서 복원한 경로 수
+    public int getRestoredPaths() {
+        return restoredPaths;
+    }
+
+    // 재검증에서 스냅샷과 같음을 확인한 부분(데이터 / 자식 목록) 수
+    public long getPartsConfirmed() {
+        return partsConfirmed.sum();
+    }
+
+    // 재검증에서 바뀌었거나 스냅샷에 없어 다시 읽은 부분 수
+    public long getPartsRefetched() {
+        return partsRefetched.sum();
+    }
+
+    /**
+     * sessionRenewed() 메서드는 세션 만료 후 새로 만든 연결로 감시를 이어 갑니다.
+     * - 만료된 세션의 Watcher는 모두 사라졌으므로, 모든 경로를 새 연결로 다시 읽으며 Watcher를 등록합니다.
+     * - 응답을 기다리지 않으므로 연결 이벤트를 처리하는 이벤트 스레드에서 호출할 수 있습니다.
+     * - 캐시는 유지합니다. 만료 전에 읽은 값보다 오래된 응답은 mzxid / pzxid 비교로 거부됩니다.
+     * - read-through 경로는 Watcher가 없어졌으므로 무효화만 하고, 다음 조회 때 다시 읽습니다.
+     */
+    public void sessionRenewed(ZooKeeper zooKeeper) {
+        this.zooKeeper = zooKeeper;
+        for (String path : readThroughPaths) {
+            cache.invalidateData(path);
+            cache.invalidateChildren(path);
+        }
+        readThroughPaths.clear();
+        for (String path : paths) {
+            Refresh refresh = refreshByPath.get(path);
+            synchronized (refresh) {
+                // 만료된 세션의 요청은 응답이 오지 않을 수 있으므로 병합 상태를 새로 시작합니다.
+                refresh.pending = 0;
+                refresh.inFlight = DATA | CHILDREN;
+            }
+            refreshesPerformed.add(2);
+            readData(path, null);
+            readChildren(path, null);
+        }
+    }
+
+    public Set<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * getData() 메서드는 znode의 데이터를 캐시에서 반환하고, 없으면 서버에서 읽어 캐시에 넣습니다.
+     * - 서버에서 읽을 때 Watcher를 함께 등록하므로, 값이 바뀌면 캐시 항목이 무효화됩니다.
+     * - 반환된 배열은 캐시와 공유되므로 수정하면 안 됩니다.
+     * - 응답을 이벤트 스레드의 콜백에서 캐시에 넣으므로, Listener 콜백(이벤트 스레드) 안에서 호출하면 안 됩니다.
+     *
+     * @return 데이터, 노드가 없으면 null
+     */
+    public byte[] getData(String path) throws KeeperException, InterruptedException {
+        byte[] cached = cache.getData(path);
+        if (cached != null) {
+            return cached;
+        }
+        Reply<byte[]> reply = new Reply<>();
+        watchReadThrough(path);
+        // 콜백과 Watch 이벤트는 같은 이벤트 스레드에서 순서대로 실행되므로, 캐시에 넣은 뒤에 무효화가 반영됩니다.
+        zooKeeper.getData(path, this, (rc, p, ctx, data, stat) -> {
+            if (rc == KeeperException.Code.OK.intValue()) {
+                cache.putData(p, data, stat);
+            }
+            reply.complete(rc, data);
+        }, null);
+        return reply.await(path);
+    }
+
+    /**
+     * getDataAsString() 메서드는 데이터를 UTF-8 문자열로 반환합니다.
+     * - 같은 버전의 데이터는 한 번만 디코딩하고, 이후에는 캐시된 String을 반환합니다.
+     */
+    public String getDataAsString(String path) throws KeeperException, InterruptedException {
+        String cached = cache.getDataAsString(path);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] data = getData(path);
+        if (data == null) {
+            return null;
+        }
+        cached = cache.getDataAsString(path);
+        // 예산보다 커서 캐시되지 않은 값은 직접 디코딩합니다.
+        return cached != null ? cached : new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * getChildren() 메서드는 znode의 자식 목록을 캐시에서 반환하고, 없으면 서버에서 읽어 캐시에 넣습니다.
+     * - getData()와 마찬가지로 Listener 콜백 안에서 호출하면 안 됩니다.
+     *
+     * @return 자식 목록, 노드가 없으면 null
+     */
+    public List<String> getChildren(String path) throws KeeperException, InterruptedException {
+        List<String> cached = cache.getChildren(path);
+        if (cached != null) {
+            return cached;
+        }
+        Reply<List<String>> reply = new Reply<>();
+        watchReadThrough(path);
+        zooKeeper.getChildren(path, this, (rc, p, ctx, children, stat) -> {
+            if (rc == KeeperException.Code.OK.intValue()) {
+                cache.putChildren(p, children, stat);
+            }
+            reply.complete(rc, children);
+        }, null);
+        return reply.await(path);
+    }
+
+    // 캐시 통계 (항목 수, 크기, 적중/실패, 제거, 오래된 응답 거부 수)
+    public ZnodeCache getCache() {
+        return cache;
+    }
+
+    // 감시 경로가 아닌 경로를 읽을 때, 그 경로의 이벤트도 처리하도록 기록합니다.
+    private void watchReadThrough(String path) {
+        if (!paths.contains(path)) {
+            readThroughPaths.add(path);
+        }
+    }
+
+    // 지금까지 받은 노드 이벤트 수
+    public long getEventsReceived() {
+        return eventsReceived.sum();
+    }
+
+    // 이벤트 때문에 실제로 보낸 다시 읽기 요청 수 (병합된 이벤트만큼 getEventsReceived()보다 작습니다)
+    public long getRefreshesPerformed() {
+        return refreshesPerformed.sum();
+    }
+
+    /** 비동기 읽기 *********************************************************************************************** */
+
+    // 각 읽기는 응답까지의 지연 시간과, 등록된 Watcher를 RecipeMetrics에 기록합니다.
+    private void readData(String path, Load load) {
+        long startNanos = System.nanoTime();
+        zooKeeper.getData(path, this, (rc, p, ctx, data, stat) -> {
+            metrics.recordCall(RecipeMetrics.Operation.GET_DATA, startNanos);
+            if (rc == KeeperException.Code.OK.intValue()) {
+                metrics.watchRegistered(RecipeMetrics.WatchKind.DATA, p);
+            }
+            onData(rc, p, ctx, data, stat);
+        }, load);
+    }
+
+    private void readChildren(String path, Load load) {
+        long startNanos = System.nanoTime();
+        zooKeeper.getChildren(path, this, (rc, p, ctx, children, stat) -> {
+            metrics.recordCall(RecipeMetrics.Operation.GET_CHILDREN, startNanos);
+            if (rc == KeeperException.Code.OK.intValue()) {
+                metrics.watchRegistered(RecipeMetrics.WatchKind.CHILD, p);
+            }
+            onChildren(rc, p, ctx, children, stat);
+        }, load);
+    }
+
+    // 노드가 없을 때 생성을 감시합니다. (getData()는 노드가 없으면 Watcher를 등록하지 않기 때문입니다)
+    private void watchCreation(String path, Load load) {
+        long startNanos = System.nanoTime();
+        zooKeeper.exists(path, this, (rc, p, ctx, stat) -> {
+            metrics.recordCall(RecipeMetrics.Operation.EXISTS, startNanos);
+            if (rc == KeeperException.Code.OK.intValue() || rc == KeeperException.Code.NONODE.intValue()) {
+                metrics.watchRegistered(RecipeMetrics.WatchKind.DATA, p);
+            }
+            onExists(rc, p, ctx, stat);
+        }, load);
+    }
+
+    // getData() 완료 콜백
+    private void onData(int rc, String path, Object ctx, byte[] data, Stat stat) {
+        Load load = (Load) ctx;
+        if (rc != KeeperException.Code.CONNECTIONLOSS.intValue()) {
+            refreshCompleted(path, DATA);
+        }
+        switch (KeeperException.Code.get(rc)) {
+            case OK:
+                creationWatchedBy.remove(path);
+                clearStale(path, DATA);
+                // 이미 더 새로운 버전을 가지고 있다면(mzxid 비교) 리스너에 알리지 않습니다.
+                if (cache.putData(path, data, stat)) {
+                    if (snapshot != null) {
+                        snapshot.putData(path, data, stat);
+                    }
+                    listener.dataChanged(path, data, stat);
+                }
+                break;
+            case NONODE:
+                // 노드가 없으면 데이터 대신 생성을 감시합니다. 응답은 onExists()에서 이어집니다.
+                nodeMissing(path, load);
+                return;
+            case CONNECTIONLOSS:
+                // 읽기 요청은 멱등이므로 그대로 다시 보냅니다.
+                readData(path, load);
+                return;
+            default:
+                fail(load, rc, path);
+                return;
+        }
+        complete(load);
+    }
+
+    // getChildren() 완료 콜백
+    private void onChildren(int rc, String path, Object ctx, List<String> children, Stat stat) {
+        Load load = (Load) ctx;
+        if (rc != KeeperException.Code.CONNECTIONLOSS.intValue()) {
+            refreshCompleted(path, CHILDREN);
+        }
+        switch (KeeperException.Code.get(rc)) {
+            case OK:
+                clearStale(path, CHILDREN);
+                if (cache.putChildren(path, children, stat)) {
+                    if (snapshot != null) {
+                        snapshot.putChildren(path, children, stat);
+                    }
+                    listener.childrenChanged(path, children);
+                    notifyMembership(path, updateMembership(path, children, stat));
+                }
+                break;
+            case NONODE:
+                // 노드가 없다는 사실은 데이터 쪽(onData)에서 처리합니다.
+                clearStale(path, CHILDREN);
+                cache.invalidateChildren(path);
+                break;
+            case CONNECTIONLOSS:
+                readChildren(path, load);
+                return;
+            default:
+                fail(load, rc, path);
+                return;
+        }
+        complete(load);
+    }
+
+    // exists() 완료 콜백: 그 사이에 노드가 생겼다면 바로 읽고, 아니면 NodeCreated 이벤트를 기다립니다.
+    private void onExists(int rc, String path, Object ctx, Stat stat) {
+        Load load = (Load) ctx;
+        switch (KeeperException.Code.get(rc)) {
+            case OK:
+                creationWatchedBy.remove(path);
+                // 자식 목록 요청은 loadAll()에서 이미 완료로 셌으므로 완료 대기 없이 보냅니다.
+                readData(path, load);
+                readChildren(path, null);
+                return;
+            case NONODE:
+                break;
+            case CONNECTIONLOSS:
+                watchCreation(path, load);
+                return;
+            default:
+                fail(load, rc, path);
+                return;
+        }
+        complete(load);
+    }
+
+    /**
+     * nodeMissing() 메서드는 노드가 없음을 반영하고 생성을 감시합니다.
+     * - NodeDeleted 이벤트를 처리한 뒤 진행 중이던 getData()가 NONODE로 돌아오는 경우처럼,
+     *   같은 연결에서 이미 반영했으면 deleted() 통지와 exists()를 다시 보내지 않습니다.
+     * - 세션이 바뀌었으면 이전 연결의 생성 감시는 사라졌으므로, 통지 없이 exists()만 다시 보냅니다.
+     */
+    private void nodeMissing(String path, Load load) {
+        ZooKeeper current = zooKeeper;
+        ZooKeeper previous = creationWatchedBy.put(path, current);
+        if (previous == current) {
+            complete(load);
+            return;
+        }
+        if (previous == null) {
+            markDeleted(path);
+        }
+        watchCreation(path, load);
+    }
+
+    private void markDeleted(String path) {
+        cache.remove(path);
+        staleParts.remove(path);
+        if (snapshot != null) {
+            snapshot.remove(path);
+        }
+        MembershipView view = membershipByPath.get(path);
+        if (view != null) {
+            notifyMembership(path, view.clear());
+        }
+        listener.deleted(path);
+    }
+
+    // 감시 경로라면 구성원 변경분을 계산합니다. (read-through 경로는 null)
+    private MembershipView.Diff updateMembership(String path, List<String> children, Stat stat) {
+        MembershipView view = membershipByPath.get(path);
+        return view != null ? view.update(children, stat) : null;
+    }
+
+    private void notifyMembership(String path, MembershipView.Diff diff) {
+        if (diff != null) {
+            listener.membershipChanged(path, diff);
+        }
+    }
+
+    /**
+     * getMembership() 메서드는 감시 경로의 현재 구성원(정렬된 자식 목록)을 반환합니다.
+     *
+     * @return 구성원, 감시 경로가 아니면 null
+     */
+    public MembershipView getMembership(String path) {
+        return membershipByPath.get(path);
+    }
+
+    /**
+     * process() 메서드는 getData() / getChildren() / exists()로 등록한 Watcher의 이벤트를 처리합니다.
+     * - 이벤트 타입이 무효화한 부분만 다시 읽도록 요청하고 즉시 반환하므로, 한 이벤트당 왕복은 최대 1번입니다.
+     * - 다시 읽기는 requestRefresh()의 병합 단계를 거치므로, 몰려오는 이벤트는 더 적은 읽기로 합쳐집니다.
+     * - 연결 상태 이벤트(None)는 연결을 만든 쪽의 기본 Watcher가 처리하므로 여기서는 무시합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        String path = watchedEvent.getPath();
+        if (path == null) {
+            return;
+        }
+        metrics.eventReceived(watchedEvent);
+        // 어떤 노드 이벤트든 받았다면 이전에 보낸 생성 감시는 이미 발생했거나 필요 없어졌습니다.
+        creationWatchedBy.remove(path);
+        if (!paths.contains(path)) {
+            // read-through로 읽은 경로는 무효화만 합니다. 한 번 발생한 Watcher는 사라지므로 목록에서도 뺍니다.
+            if (readThroughPaths.remove(path)) {
+                eventsReceived.increment();
+                invalidate(path, watchedEvent.getType());
+            }
+            return;
+        }
+        invalidate(path, watchedEvent.getType());
+        switch (watchedEvent.getType()) {
+            case NodeCreated:
+                // 새로 생긴 노드는 데이터와 자식 목록을 모두 읽습니다. (두 요청은 파이프라인으로 겹칩니다)
+                eventsReceived.increment();
+                requestRefresh(path, DATA | CHILDREN);
+                break;
+            case NodeDataChanged:
+                eventsReceived.increment();
+                requestRefresh(path, DATA);
+                break;
+            case NodeChildrenChanged:
+                eventsReceived.increment();
+                requestRefresh(path, CHILDREN);
+                break;
+            case NodeDeleted:
+                // 삭제는 병합하지 않고 바로 반영합니다. (다시 생성을 감시해야 하므로)
+                eventsReceived.increment();
+                cancelRefresh(path);
+                // 데이터 Watcher와 자식 Watcher가 같은 객체이므로 이벤트는 한 번만 옵니다.
+                nodeMissing(path, null);
+                break;
+            default:
+                break;
+        }
+    }
+
+    // 이벤트가 무효화한 부분을 캐시에서 무효화합니다.
+    private void invalidate(String path, Event.EventType type) {
+        switch (type) {
+            case NodeDataChanged:
+                cache.invalidateData(path);
+                break;
+            case NodeChildrenChanged:
+                cache.invalidateChildren(path);
+                break;
+            case NodeDeleted:
+                cache.remove(path);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** 이벤트 병합 ******************************************************************************************* */
+
+    /**
+     * requestRefresh() 메서드는 경로의 일부(DATA / CHILDREN)를 다시 읽도록 요청합니다.
+     * - 병합 구간이 있으면 첫 요청 때만 구간 뒤의 flush()를 예약하고, 그 사이의 요청은 비트만 더합니다.
+     * - 같은 부분의 읽기가 이미 진행 중이면 보내지 않고 남겨 두었다가, 그 읽기가 끝난 뒤 한 번 더 읽습니다.
+     */
+    private void requestRefresh(String path, int parts) {
+        Refresh refresh = refreshByPath.get(path);
+        boolean flushNow;
+        synchronized (refresh) {
+            refresh.pending |= parts;
+            if (refresh.scheduled) {
+                return;
+            }
+            flushNow = scheduler == null;
+            if (!flushNow) {
+                refresh.scheduled = true;
+            }
+        }
+        if (flushNow) {
+            flush(refresh);
+        } else {
+            scheduler.schedule(() -> flush(refresh), coalesceWindowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 남아 있는 부분 중 진행 중이 아닌 것만 읽기 요청을 보냅니다.
+    private void flush(Refresh refresh) {
+        int parts;
+        synchronized (refresh) {
+            refresh.scheduled = false;
+            parts = refresh.pending & ~refresh.inFlight;
+            refresh.pending &= ~parts;
+            refresh.inFlight |= parts;
+        }
+        if ((parts & DATA) != 0) {
+            refreshesPerformed.increment();
+            readData(refresh.path, null);
+        }
+        if ((parts & CHILDREN) != 0) {
+            refreshesPerformed.increment();
+            readChildren(refresh.path, null);
+        }
+    }
+
+    // 노드가 삭제되었으면 아직 보내지 않은 다시 읽기는 의미가 없으므로 버립니다.
+    private void cancelRefresh(String path) {
+        Refresh refresh = refreshByPath.get(path);
+        synchronized (refresh) {
+            refresh.pending = 0;
+        }
+    }
+
+    // 읽기 응답을 받으면 진행 중 표시를 지우고, 그 사이에 요청이 남았다면 다시 읽습니다.
+    private void refreshCompleted(String path, int part) {
+        Refresh refresh = refreshByPath.get(path);
+        if (refresh == null) {
+            return;
+        }
+        boolean again;
+        synchronized (refresh) {
+            refresh.inFlight &= ~part;
+            again = (refresh.pending & part) != 0 && !refresh.scheduled;
+        }
+        if (again) {
+            requestRefresh(path, 0);
+        }
+    }
+
+    /**
+     * Refresh는 경로 하나의 병합 상태입니다. 모든 필드는 객체 자신의 락으로 보호합니다.
+     */
+    private static final class Refresh {
+        private final String path;
+        private int pending;       // 다시 읽어야 하지만 아직 보내지 않은 부분
+        private int inFlight;      // 응답을 기다리는 부분
+        private boolean scheduled; // flush()가 예약되어 있는지 여부
+
+        private Refresh(String path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * Reply는 read-through 읽기의 응답을 호출한 스레드에 전달합니다.
+     */
+    private static final class Reply<T> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private int rc;
+        private T value;
+
+        private void complete(int rc, T value) {
+            this.rc = rc;
+            this.value = value;
+            done.countDown();
+        }
+
+        private T await(String path) throws KeeperException, InterruptedException {
+            done.await();
+            if (rc == KeeperException.Code.OK.intValue()) {
+                return value;
+            }
+            if (rc == KeeperException.Code.NONODE.intValue()) {
+                return null;
+            }
+            throw KeeperException.create(KeeperException.Code.get(rc), path);
+        }
+    }
+
+    /** loadAll() 완료 대기 ******************************************************************************************* */
+
+    private static void complete(Load load) {
+        if (load != null) {
+            load.remaining.countDown();
+        }
+    }
+
+    private static void fail(Load load, int rc, String path) {
+        KeeperException exception = KeeperException.create(KeeperException.Code.get(rc), path);
+        if (load == null) {
+            System.err.println("Exception while monitoring znode: " + exception.getMessage());
+            return;
+        }
+        load.error.compareAndSet(null, exception);
+        load.remaining.countDown();
+    }
+
+    /**
+     * Load는 loadAll()이 보낸 요청들의 남은 응답 수와 첫 번째 오류를 추적합니다.
+     * - 노드가 없어 exists()로 이어지는 경우에도 같은 Load를 넘겨, 생성 감시가 등록된 뒤에 완료로 셉니다.
+     */
+    private static final class Load {
+        private final CountDownLatch remaining;
+        private final AtomicReference<KeeperException> error = new AtomicReference<>();
+
+        private Load(int requests) {
+            this.remaining = new CountDownLatch(requests);
+        }
+
+        private void await() throws KeeperException, InterruptedException {
+            remaining.await();
+            KeeperException exception = error.get();
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package distributed.systems.monitoring;
+
+import org.apache.zookeeper.data.Stat;      // ZooKeeper의 상태 정보를 담는 Stat 클래스를 임포트합니다.
+
+import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * ZnodeSnapshot 클래스는 감시 중인 znode의 데이터, 자식 목록, Stat을 메모리 매핑 파일에 남겨 두는 로컬 스냅샷입니다.
+ * - 재시작한 프로세스는 서버에 연결하기 전에 스냅샷을 읽어 (오래되었을 수 있는) 값을 바로 제공하고,
+ *   이후 ZnodeMonitor가 서버의 Stat과 버전을 비교해 바뀐 부분만 다시 읽습니다.
+ * - 파일은 레코드를 덧붙이기만 하는 로그입니다. 값이 바뀔 때마다 그 경로의 레코드 하나를 매핑된 버퍼 끝에 쓰므로,
+ *   쓰기는 메모리 복사 한 번이고 시스템 호출이 없습니다. 파일을 열 때 앞에서부터 다시 읽어 경로별 마지막 레코드를 사용합니다.
+ * - 레코드의 길이 필드는 본문과 CRC를 모두 쓴 뒤 마지막에 쓰고, 읽을 때 CRC가 맞지 않는 레코드에서 멈춥니다.
+ *   프로세스가 죽어도 매핑된 페이지는 OS 페이지 캐시에 남으므로, 잃을 수 있는 것은 OS 장애 시 마지막 몇 개의 레코드뿐입니다.
+ * - 파일이 가득 차면 경로별 최신 상태만 새 임시 파일에 다시 쓰고(필요하면 크기를 두 배로) 원자적으로 교체합니다. (compaction)
+ * - 레코드 형식: [int 길이][byte 종류][short 경로 길이][경로][Stat][본문][int CRC32C], 길이 0은 로그의 끝입니다.
+ * - 모든 메서드는 this 락으로 보호합니다. 쓰기 중 입출력 오류가 나면 오류를 출력하고 이후 쓰기를 중단합니다.
+ */
+public class ZnodeSnapshot implements AutoCloseable {
+
+    /**
+     * Entry는 경로 하나의 스냅샷 상태입니다. 데이터나 자식 목록을 아직 기록하지 않았으면 해당 Stat이 null입니다.
+     */
+    public record Entry(byte[] data, Stat dataStat, List<String> children, Stat childrenStat) {
+    }
+
+    // 파일을 처음 만들 때의 기본 크기 (1MiB)
+    public static final int DEFAULT_INITIAL_BYTES = 1024 * 1024;
+
+    // 파일 머리말: 매직 넘버 "ZKSN", 형식 버전, 예약
+    private static final int MAGIC = 0x5A4B534E;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    // 레코드 종류
+    private static final byte DATA = 1;
+    private static final byte CHILDREN = 2;
+    private static final byte REMOVED = 3;
+
+    // Stat 필드 11개 (long 6개, int 5개)
+    private static final int STAT_BYTES = 6 * Long.BYTES + 5 * Integer.BYTES;
+
+    private final Path file;
+
+    private final int initialBytes;
+
+    // 경로별 최신 상태 (compaction과 조회에 사용합니다)
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    // 다음 레코드를 쓸 위치
+    private int position;
+
+    private final CRC32C crc = new CRC32C();
+
+    // 통계
+    private int recordsRecovered;
+    private long recordsWritten;
+    private long compactions;
+
+    private boolean failed;
+
+    /**
+     * @param file         스냅샷 파일 경로 (없으면 새로 만듭니다)
+     * @param initialBytes 새 파일의 크기, 가득 차면 compaction할 때 필요한 만큼 늘어납니다.
+     * @throws IOException 파일을 열거나 매핑하지 못했을 때 발생하는 예외
+     */
+    public ZnodeSnapshot(Path file, int initialBytes) throws IOException {
+        this.file = file;
+        this.initialBytes = Math.max(HEADER_BYTES + Integer.BYTES, initialBytes);
+        open();
+    }
+
+    public ZnodeSnapshot(Path file) throws IOException {
+        this(file, DEFAULT_INITIAL_BYTES);
+    }
+
+    /** 조회 ******************************************************************************************************* */
+
+    // 스냅샷에 남아 있는 경로의 상태 (없으면 null)
+    public synchronized Entry get(String path) {
+        return entries.get(path);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * retain() 메서드는 더 이상 감시하지 않는 경로의 상태를 버립니다. (감시 경로 설정이 바뀐 뒤 재시작한 경우)
+     * - 파일에서는 다음 compaction 때 사라집니다.
+     */
+    public synchronized void retain(Collection<String> paths) {
+        entries.keySet().retainAll(new HashSet<>(paths));
+    }
+
+    /** 기록 ******************************************************************************************************* */
+
+    // 서버에서 읽은 데이터를 기록합니다. (배열은 복사하지 않으므로 이후에 수정하면 안 됩니다)
+    public synchronized void putData(String path, byte[] data, Stat stat) {
+        Entry previous = entries.get(path);
+        entries.put(path, previous == null
+                ? new Entry(data, stat, null, null)
+                : new Entry(data, stat, previous.children(), previous.childrenStat()));
+        append(DATA, path, data, stat, null);
+    }
+
+    // 서버에서 읽은 자식 목록을 기록합니다.
+    public synchronized void putChildren(String path, List<String> children, Stat stat) {
+        List<String> copy = List.copyOf(children);
+        Entry previous = entries.get(path);
+        entries.put(path, previous == null
+                ? new Entry(null, null, copy, stat)
+                : new Entry(previous.data(), previous.dataStat(), copy, stat));
+        append(CHILDREN, path, null, stat, copy);
+    }
+
+    // 노드가 삭제되었음을 기록합니다.
+    public synchronized void remove(String path) {
+        if (entries.remove(path) != null) {
+            append(REMOVED, path, null, null, null);
+        }
+    }
+
+    /**
+     * close() 메서드는 매핑된 내용을 디스크에 쓰고 파일을 닫습니다.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close znode snapshot " + file + ": " + e.getMessage());
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("file=%s paths=%d bytes=%d/%d recovered=%d written=%d compactions=%d%s",
+                file, entries.size(), position, buffer != null ? buffer.capacity() : 0,
+                recordsRecovered, recordsWritten, compactions, failed ? " (failed)" : "");
+    }
+
+    /** 파일 ******************************************************************************************************* */
+
+    // 파일을 매핑하고 레코드를 처음부터 다시 읽어 경로별 최신 상태를 복원합니다.
+    private void open() throws IOException {
+        long size = Files.exists(file) ? Files.size(file) : 0;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // 파일보다 크게 매핑하면 파일이 그 크기로 늘어납니다. (늘어난 부분은 0, 즉 로그의 끝)
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(size, initialBytes));
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        if (size < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            if (size > 0) {
+                System.err.println("Ignoring unrecognized znode snapshot " + file);
+            }
+            writeHeader(buffer);
+            position = HEADER_BYTES;
+            buffer.putInt(position, 0);
+            return;
+        }
+        position = HEADER_BYTES;
+        while (position + Integer.BYTES <= capacity) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                return;
+            }
+            if (length < 0 || !replay(position + Integer.BYTES, length)) {
+                // 끝까지 쓰지 못한 레코드입니다. 그 뒤의 내용을 믿을 수 없으므로 파일을 깨끗하게 다시 씁니다.
+                System.err.println("Discarding torn znode snapshot record at offset " + position + " in " + file);
+                compact(0);
+                return;
+            }
+            recordsRecovered++;
+            position += Integer.BYTES + length;
+        }
+    }
+
+    // offset부터 length 바이트의 레코드 하나를 검증하고 적용합니다. 검증에 실패하면 false
+    private boolean replay(int offset, int length) {
+        if (length < Integer.BYTES + 1 || offset + length > buffer.capacity()) {
+            return false;
+        }
+        crc.reset();
+        crc.update(buffer.slice(offset, length - Integer.BYTES));
+        if ((int) crc.getValue() != buffer.getInt(offset + length - Integer.BYTES)) {
+            return false;
+        }
+        ByteBuffer record = buffer.slice(offset, length - Integer.BYTES);
+        byte kind = record.get();
+        String path = readString(record);
+        Entry previous = entries.get(path);
+        switch (kind) {
+            case DATA: {
+                Stat stat = readStat(record);
+                int dataLength = record.getInt();
+                byte[] data = null;
+                if (dataLength >= 0) {
+                    data = new byte[dataLength];
+                    record.get(data);
+                }
+                entries.put(path, previous == null
+                        ? new Entry(data, stat, null, null)
+                        : new Entry(data, stat, previous.children(), previous.childrenStat()));
+                return true;
+            }
+            case CHILDREN: {
+                Stat stat = readStat(record);
+                int count = record.getInt();
+                List<String> children = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    children.add(readString(record));
+                }
+                children = Collections.unmodifiableList(children);
+                entries.put(path, previous == null
+                        ? new Entry(null, null, children, stat)
+                        : new Entry(previous.data(), previous.dataStat(), children, stat));
+                return true;
+            }
+            case REMOVED:
+                entries.remove(path);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * append() 메서드는 레코드 하나를 로그 끝에 씁니다. 공간이 모자라면 compaction한 뒤에 씁니다.
+     * - compaction은 현재 상태(entries)를 다시 쓰며 방금 바꾼 값도 포함하므로, 그 경우에는 따로 쓰지 않습니다.
+     */
+    private void append(byte kind, String path, byte[] data, Stat stat, List<String> children) {
+        if (failed || buffer == null) {
+            return;
+        }
+        byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+        int length = recordLength(kind, pathBytes, data, children);
+        // 레코드 뒤에 끝 표시(길이 0)를 쓸 공간도 남겨 둡니다.
+        if (position + Integer.BYTES + length + Integer.BYTES > buffer.capacity()) {
+            try {
+                compact(length);
+            } catch (IOException e) {
+                failed = true;
+                System.err.println("Failed to compact znode snapshot " + file + ", stop writing: " + e.getMessage());
+            }
+            return;
+        }
+        position = writeRecord(buffer, position, kind, pathBytes, data, stat, children, length);
+        recordsWritten++;
+    }
+
+    private static int recordLength(byte kind, byte[] pathBytes, byte[] data, List<String> children) {
+        int length = 1 + Short.BYTES + pathBytes.length + Integer.BYTES;
+        if (kind == DATA) {
+            length += STAT_BYTES + Integer.BYTES + (data != null ? data.length : 0);
+        } else if (kind == CHILDREN) {
+            length += STAT_BYTES + Integer.BYTES;
+            for (String child : children) {
+                length += Short.BYTES + child.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return length;
+    }
+
+    // 레코드를 target의 offset에 쓰고, 다음 레코드의 위치를 반환합니다. 길이 필드는 마지막에 씁니다.
+    private int writeRecord(ByteBuffer target, int offset, byte kind, byte[] pathBytes, byte[] data, Stat stat,
+                            List<String> children, int length) {
+        ByteBuffer record = target.slice(offset + Integer.BYTES, length);
+        record.put(kind);
+        record.putShort((short) pathBytes.length).put(pathBytes);
+        if (kind == DATA) {
+            writeStat(record, stat);
+            record.putInt(data != null ? data.length : -1);
+            if (data != null) {
+                record.put(data);
+            }
+        } else if (kind == CHILDREN) {
+            writeStat(record, stat);
+            record.putInt(children.size());
+            for (String child : children) {
+                byte[] childBytes = child.getBytes(StandardCharsets.UTF_8);
+                record.putShort((short) childBytes.length).put(childBytes);
+            }
+        }
+        crc.reset();
+        crc.update(target.slice(offset + Integer.BYTES, length - Integer.BYTES));
+        record.putInt((int) crc.getValue());
+        target.putInt(offset + Integer.BYTES + length, 0);
+        target.putInt(offset, length);
+        return offset + Integer.BYTES + length;
+    }
+
+    /**
+     * compact() 메서드는 경로별 최신 상태만 새 파일에 다시 쓰고, 원자적으로 이름을 바꿔 현재 파일을 교체합니다.
+     * - 새 파일 크기는 최신 상태 크기와 곧 쓸 레코드 크기(extraBytes)를 합한 값의 두 배 이상입니다.
+     *   따라서 compaction은 그만큼 레코드를 쓴 뒤에야 다시 일어납니다.
+     */
+    private void compact(int extraBytes) throws IOException {
+        long liveBytes = HEADER_BYTES + Integer.BYTES;
+        List<byte[]> pathBytes = new ArrayList<>(entries.size() * 2);
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            byte[] bytes = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            Entry state = entry.getValue();
+            if (state.dataStat() != null) {
+                liveBytes += Integer.BYTES + recordLength(DATA, bytes, state.data(), null);
+            }
+            if (state.childrenStat() != null) {
+                liveBytes += Integer.BYTES + recordLength(CHILDREN, bytes, null, state.children());
+            }
+            pathBytes.add(bytes);
+        }
+        long wanted = Math.max(initialBytes, 2 * (liveBytes + Integer.BYTES + extraBytes));
+        if (wanted > Integer.MAX_VALUE) {
+            throw new IOException("snapshot would exceed 2GiB");
+        }
+        int capacity = (int) wanted;
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel newChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            writeHeader(newBuffer);
+            int offset = HEADER_BYTES;
+            newBuffer.putInt(offset, 0);
+            int index = 0;
+            for (Entry state : entries.values()) {
+                byte[] bytes = pathBytes.get(index++);
+                if (state.dataStat() != null) {
+                    offset = writeRecord(newBuffer, offset, DATA, bytes, state.data(), state.dataStat(), null,
+                            recordLength(DATA, bytes, state.data(), null));
+                }
+                if (state.childrenStat() != null) {
+                    offset = writeRecord(newBuffer, offset, CHILDREN, bytes, null, state.childrenStat(), state.children(),
+                            recordLength(CHILDREN, bytes, null, state.children()));
+                }
+            }
+            newBuffer.force();
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = newChannel;
+            buffer = newBuffer;
+            position = offset;
+            compactions++;
+        } catch (IOException e) {
+            newChannel.close();
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private static void writeHeader(ByteBuffer target) {
+        target.putInt(0, MAGIC);
+        target.putInt(Integer.BYTES, FORMAT_VERSION);
+        target.putLong(2 * Integer.BYTES, 0);
+    }
+
+    /** 직렬화 ***************************************************************************************************** */
+
+    private static void writeStat(ByteBuffer record, Stat stat) {
+        record.putLong(stat.getCzxid()).putLong(stat.getMzxid()).putLong(stat.getCtime()).putLong(stat.getMtime())
+                .putInt(stat.getVersion()).putInt(stat.getCversion()).putInt(stat.getAversion())
+                .putLong(stat.getEphemeralOwner()).putInt(stat.getDataLength()).putInt(stat.getNumChildren())
+                .putLong(stat.getPzxid());
+    }
+
+    private static Stat readStat(ByteBuffer record) {
+        return new Stat(record.getLong(), record.getLong(), record.getLong(), record.getLong(),
+                record.getInt(), record.getInt(), record.getInt(),
+                record.getLong(), record.getInt(), record.getInt(), record.getLong());
+    }
+
+    private static String readString(ByteBuffer record) {
+        byte[] bytes = new byte[Short.toUnsignedInt(record.getShort())];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,403 @@
+package distributed.systems.partition;
+
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import distributed.systems.metrics.RecipeMetrics;
+import distributed.systems.monitoring.MembershipView;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+import org.apache.zookeeper.data.Stat;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * PartitionAssignment 클래스는 선출된 리더가 작업 파티션을 살아 있는 후보들에게 나누어 주고, 각 후보가 자신의 몫을 받아 보는 레시피입니다.
+ * - 리더 쪽: 후보 목록(namespace의 자식)을 감시하며 PartitionRing(일관 해싱)으로 배정을 계산하고,
+ *   바뀐 후보의 배정 znode("<assignmentPath>/<후보 이름>")만 zooKeeper.multi() 한 번으로 원자적으로 씁니다.
+ *   구성원 하나가 바뀌면 옮겨지는 파티션은 평균 파티션 수 / 후보 수이고, 쓰기도 그 파티션을 내주거나 받은 후보의 배정 znode로 제한됩니다.
+ * - 멀티의 첫 연산은 리더 자신의 후보 znode에 대한 check이므로, 세션을 잃은(이미 리더가 아닌) 프로세스의 늦은 쓰기는 전체가 거부됩니다.
+ *   배정 znode는 버전을 지정해 쓰므로, 다른 리더가 그 사이에 쓴 배정을 덮어쓰지 않고 다시 읽어 맞춥니다.
+ * - 후보 쪽: 자신의 배정 znode 하나에만 데이터 Watcher(없으면 생성 감시)를 걸고, 배정이 바뀌면 리스너에 알립니다.
+ *   다른 후보의 배정이나 후보 목록은 보지 않으므로, 후보 수가 늘어도 후보 하나가 받는 이벤트는 늘지 않습니다.
+ * - 배정 znode는 Persistent입니다. 리더가 바뀌어도 배정은 그대로 남고, 새 리더는 기존 배정을 한 번 읽어
+ *   같은 규칙으로 계산한 결과와 다른 후보(보통 떠난 이전 리더의 몫을 받는 후보)만 고쳐 씁니다. 떠난 후보의 배정 znode는 리더가 지웁니다.
+ * - 리더 쪽 작업은 전용 스레드 하나에서 순서대로 실행하므로 동기 호출을 써도 이벤트 스레드를 막지 않습니다.
+ */
+public class PartitionAssignment implements Watcher {
+
+    /**
+     * Listener는 이 후보에게 배정된 파티션이 바뀌었을 때 통지받습니다. (ZooKeeper 이벤트 스레드에서 호출됩니다)
+     */
+    public interface Listener {
+        /**
+         * @param memberName 이 후보의 이름
+         * @param partitions 배정된 파티션 번호 (복사본, 배정이 없으면 비어 있음)
+         */
+        void partitionsAssigned(String memberName, BitSet partitions);
+    }
+
+    // ZooKeeper 서버와의 연결을 나타내는 객체
+    private final ZooKeeper zooKeeper;
+
+    // 후보 znode들의 상위 경로 (예: "/election")
+    private final String namespace;
+
+    // 후보 znode 이름의 접두사 (예: "c_", 같은 경로 아래의 다른 znode는 후보로 보지 않습니다)
+    private final String candidatePrefix;
+
+    // 후보별 배정 znode의 상위 경로 (예: "/election-assignments")
+    private final String assignmentPath;
+
+    private final int partitions;
+
+    private final int virtualNodes;
+
+    private final Listener listener;
+
+    // 프로세스 전체의 ZooKeeper 호출 / Watcher 지표
+    private final RecipeMetrics metrics = RecipeMetrics.get();
+
+    // 리더 쪽 작업(후보 목록 읽기, 배정 계산, multi())을 순서대로 실행하는 스레드
+    private final ExecutorService leaderExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "partition-assignment");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 리더 쪽 상태 (leaderName 외에는 leaderExecutor 스레드에서만 사용) */
+
+    // 현재 리더로 있는 자신의 후보 이름 (리더가 아니면 null)
+    private String leaderName;
+
+    // 배정 계산과 후보 목록의 차이 계산 (리더가 되거나 쓰기에 실패하면 버리고 다시 만듭니다)
+    private PartitionRing ring;
+    private MembershipView membership;
+
+    // 배정 znode에 마지막으로 쓴(또는 읽은) 배정과 그 버전
+    private final Map<String, BitSet> written = new HashMap<>();
+    private final Map<String, Integer> writtenVersions = new HashMap<>();
+
+    // 지금까지 수행한 multi() 수
+    private volatile long rebalances;
+
+    /** 후보 쪽 상태 */
+
+    // 배정을 받아 보는 이 후보의 이름 (follow() 전이면 null)
+    private volatile String memberName;
+
+    // 마지막으로 리스너에 알린 배정
+    private BitSet assigned = new BitSet();
+
+    public PartitionAssignment(ZooKeeper zooKeeper, String namespace, String candidatePrefix, String assignmentPath,
+                               int partitions, int virtualNodes, Listener listener) {
+        this.zooKeeper = zooKeeper;
+        this.namespace = namespace;
+        this.candidatePrefix = candidatePrefix;
+        this.assignmentPath = assignmentPath;
+        this.partitions = partitions;
+        this.virtualNodes = virtualNodes;
+        this.listener = listener;
+    }
+
+    /** 리더 쪽 ******************************************************************************************************* */
+
+    /**
+     * startLeading() 메서드는 리더가 되었을 때 호출합니다.
+     * - 이전 리더가 남긴 배정을 읽고, 후보 목록에 맞게 다시 계산해 다른 부분만 씁니다. (리더 작업 스레드에서 실행)
+     */
+    public synchronized void startLeading(String leaderName) {
+        this.leaderName = leaderName;
+        leaderExecutor.execute(() -> rebalance(true));
+    }
+
+    // 리더가 아니게 되었을 때 호출합니다. 이후 후보 목록 이벤트는 무시됩니다.
+    public synchronized void stopLeading() {
+        leaderName = null;
+    }
+
+    private synchronized String leaderName() {
+        return leaderName;
+    }
+
+    public long getRebalances() {
+        return rebalances;
+    }
+
+    /**
+     * rebalance() 메서드는 후보 목록을 다시 읽어(자식 Watcher 재등록) 배정을 고치고, 바뀐 배정 znode를 multi() 한 번으로 씁니다.
+     *
+     * @param resync true이면 배정 계산을 처음부터 다시 하고 배정 znode를 모두 다시 읽습니다. (리더가 된 직후, 쓰기 실패 후)
+     */
+    private void rebalance(boolean resync) {
+        String leader = leaderName();
+        if (leader == null) {
+            return;
+        }
+        try {
+            Set<String> changed = new HashSet<>();
+            if (resync || ring == null) {
+                ring = new PartitionRing(partitions, virtualNodes);
+                membership = new MembershipView();
+                loadWritten();
+                changed.addAll(written.keySet());
+            }
+
+            long getChildrenStartNanos = System.nanoTime();
+            Stat stat = new Stat();
+            List<String> children = zooKeeper.getChildren(namespace, this, stat);
+            metrics.recordCall(RecipeMetrics.Operation.GET_CHILDREN, getChildrenStartNanos);
+            metrics.watchRegistered(RecipeMetrics.WatchKind.CHILD, namespace);
+            children.removeIf(child -> !child.startsWith(candidatePrefix));
+
+            // 바뀐 후보만 링에 반영합니다. (리더가 된 직후에는 모든 후보가 추가로 계산됩니다)
+            MembershipView.Diff diff = membership.update(children, stat);
+            if (diff != null) {
+                diff.removed().forEach(member -> ring.remove(member, changed));
+                diff.added().forEach(member -> ring.add(member, changed));
+            }
+            write(leader, changed);
+        } catch (KeeperException e) {
+            // 어떤 연산이 거부되었든, 알고 있는 배정이 서버와 다를 수 있으므로 다음에는 처음부터 다시 맞춥니다.
+            ring = null;
+            if (isLeaderCheckFailure(e)) {
+                // 자신의 후보 znode가 없어졌으므로 더 이상 리더가 아닙니다. 선출 쪽에서 stopLeading()이 호출됩니다.
+                return;
+            }
+            if (e.code() == KeeperException.Code.BADVERSION || e.code() == KeeperException.Code.NODEEXISTS
+                    || e.code() == KeeperException.Code.NONODE) {
+                // 다른 리더(세션을 잃기 직전의 이전 리더)가 그 사이에 배정을 썼습니다. 다시 읽어 맞춥니다.
+                leaderExecutor.execute(() -> rebalance(true));
+                return;
+            }
+            System.err.println("Exception while rebalancing partitions: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ring = null;
+            System.err.println("Interrupted while rebalancing partitions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * write() 메서드는 배정이 바뀐 후보의 배정 znode를 만들거나(새 후보), 고치거나, 지우는(떠난 후보) 연산을 multi() 한 번으로 보냅니다.
+     * - 첫 연산은 리더 자신의 후보 znode에 대한 check이므로, 리더의 세션이 이미 끝났다면 아무것도 쓰이지 않습니다.
+     * - 배정이 실제로 달라진 후보만 씁니다.
+     */
+    private void write(String leader, Set<String> changed) throws KeeperException, InterruptedException {
+        List<Op> ops = new ArrayList<>();
+        List<String> opMembers = new ArrayList<>();
+        // 이번에 다른 후보로 넘어가거나 새로 배정되는 파티션 수
+        int moved = 0;
+        ops.add(Op.check(namespace + "/" + leader, -1));
+        for (String member : changed) {
+            BitSet target = ring.partitionsOf(member);
+            BitSet current = written.get(member);
+            String path = assignmentPath + "/" + member;
+            if (target == null) {
+                if (current != null) {
+                    ops.add(Op.delete(path, writtenVersions.get(member)));
+                    opMembers.add(member);
+                }
+            } else if (current == null) {
+                ops.add(Op.create(path, encode(target), ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT));
+                opMembers.add(member);
+                moved += target.cardinality();
+            } else if (!target.equals(current)) {
+                ops.add(Op.setData(path, encode(target), writtenVersions.get(member)));
+                opMembers.add(member);
+                BitSet gained = (BitSet) target.clone();
+                gained.andNot(current);
+                moved += gained.cardinality();
+            }
+        }
+        if (opMembers.isEmpty()) {
+            return;
+        }
+
+        long multiStartNanos = System.nanoTime();
+        List<OpResult> results = zooKeeper.multi(ops);
+        metrics.recordCall(RecipeMetrics.Operation.MULTI, multiStartNanos);
+        rebalances++;
+
+        // 결과는 연산 순서대로 옵니다. (0번은 check)
+        for (int i = 0; i < opMembers.size(); i++) {
+            String member = opMembers.get(i);
+            OpResult result = results.get(i + 1);
+            if (result instanceof OpResult.DeleteResult) {
+                written.remove(member);
+                writtenVersions.remove(member);
+            } else {
+                written.put(member, ring.partitionsOf(member));
+                writtenVersions.put(member, result instanceof OpResult.SetDataResult setDataResult
+                        ? setDataResult.getStat().getVersion() : 0);
+            }
+        }
+        EventLog.log(LogEvent.PARTITIONS_REBALANCED, opMembers.size(), moved);
+    }
+
+    // 배정 znode의 상위 경로를 만들고(이미 있으면 그대로), 남아 있는 배정을 모두 읽습니다.
+    private void loadWritten() throws KeeperException, InterruptedException {
+        written.clear();
+        writtenVersions.clear();
+        try {
+            long createStartNanos = System.nanoTime();
+            zooKeeper.create(assignmentPath, new byte[]{}, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+            metrics.recordCall(RecipeMetrics.Operation.CREATE, createStartNanos);
+            return;
+        } catch (KeeperException.NodeExistsException e) {
+            // 이전 리더가 이미 만들었습니다.
+        }
+        for (String member : zooKeeper.getChildren(assignmentPath, false)) {
+            Stat stat = new Stat();
+            try {
+                long getDataStartNanos = System.nanoTime();
+                byte[] data = zooKeeper.getData(assignmentPath + "/" + member, false, stat);
+                metrics.recordCall(RecipeMetrics.Operation.GET_DATA, getDataStartNanos);
+                written.put(member, decode(data));
+                writtenVersions.put(member, stat.getVersion());
+            } catch (KeeperException.NoNodeException e) {
+                // 읽는 사이에 지워졌습니다.
+            }
+        }
+    }
+
+    // multi()의 check(리더 자신의 후보 znode)가 실패했는지 확인합니다. (실패한 연산보다 앞선 연산의 결과는 OK입니다)
+    private static boolean isLeaderCheckFailure(KeeperException e) {
+        List<OpResult> results = e.getResults();
+        return results != null && !results.isEmpty() && results.get(0) instanceof OpResult.ErrorResult errorResult
+                && errorResult.getErr() != KeeperException.Code.OK.intValue();
+    }
+
+    /** 후보 쪽 ******************************************************************************************************* */
+
+    /**
+     * follow() 메서드는 이 후보의 배정 znode를 감시하기 시작합니다. 후보 znode를 (다시) 만들 때마다 호출합니다.
+     * - 이전 이름의 배정은 더 이상 이 후보의 것이 아니므로, 비어 있는 배정으로 시작합니다.
+     */
+    public void follow(String memberName) {
+        synchronized (this) {
+            this.memberName = memberName;
+            if (!assigned.isEmpty()) {
+                deliver(memberName, new BitSet());
+            }
+        }
+        readAssignment(memberName);
+    }
+
+    // 배정 znode를 읽으며 데이터 Watcher를 등록합니다. 없으면 exists()로 생성을 감시합니다.
+    private void readAssignment(String member) {
+        if (!member.equals(memberName)) {
+            return;
+        }
+        String path = assignmentPath + "/" + member;
+        long getDataStartNanos = System.nanoTime();
+        zooKeeper.getData(path, this, (rc, p, ctx, data, stat) -> {
+            metrics.recordCall(RecipeMetrics.Operation.GET_DATA, getDataStartNanos);
+            switch (KeeperException.Code.get(rc)) {
+                case OK:
+                    metrics.watchRegistered(RecipeMetrics.WatchKind.DATA, p);
+                    deliver(member, decode(data));
+                    break;
+                case NONODE:
+                    deliver(member, new BitSet());
+                    watchCreation(member, p);
+                    break;
+                case CONNECTIONLOSS:
+                    readAssignment(member);
+                    break;
+                default:
+                    System.err.println("Failed to read partition assignment " + p + ": " + KeeperException.Code.get(rc));
+                    break;
+            }
+        }, null);
+    }
+
+    private void watchCreation(String member, String path) {
+        long existsStartNanos = System.nanoTime();
+        zooKeeper.exists(path, this, (rc, p, ctx, stat) -> {
+            metrics.recordCall(RecipeMetrics.Operation.EXISTS, existsStartNanos);
+            if (rc == KeeperException.Code.NONODE.intValue()) {
+                metrics.watchRegistered(RecipeMetrics.WatchKind.DATA, p);
+            } else if (rc == KeeperException.Code.OK.intValue() || rc == KeeperException.Code.CONNECTIONLOSS.intValue()) {
+                // 그 사이에 만들어졌으면 바로 읽습니다.
+                readAssignment(member);
+            }
+        }, null);
+    }
+
+    // 같은 후보의 배정이 실제로 바뀐 경우에만 리스너에 알립니다.
+    private synchronized void deliver(String member, BitSet partitionsOfMember) {
+        if (!member.equals(memberName) || partitionsOfMember.equals(assigned)) {
+            return;
+        }
+        assigned = partitionsOfMember;
+        EventLog.log(LogEvent.PARTITIONS_ASSIGNED, partitionsOfMember.cardinality(), partitionsOfMember);
+        if (listener != null) {
+            listener.partitionsAssigned(member, (BitSet) partitionsOfMember.clone());
+        }
+    }
+
+    // 마지막으로 받은 배정 (복사본)
+    public synchronized BitSet getAssigned() {
+        return (BitSet) assigned.clone();
+    }
+
+    public void close() {
+        stopLeading();
+        memberName = null;
+        leaderExecutor.shutdownNow();
+    }
+
+    /** 배정 znode의 데이터 형식 ************************************************************************************** */
+
+    /**
+     * encode() 메서드는 배정을 [파티션 번호 비트맵 (BitSet.toByteArray(), little-endian)] 형식으로 만듭니다.
+     * - 파티션 1024개를 모두 맡아도 128바이트이므로, 후보가 많아도 multi() 요청이 작게 유지됩니다.
+     */
+    public static byte[] encode(BitSet partitions) {
+        return partitions.toByteArray();
+    }
+
+    public static BitSet decode(byte[] data) {
+        return data == null ? new BitSet() : BitSet.valueOf(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * process() 메서드는 후보 목록 변화(리더 쪽)와 자신의 배정 znode 변화(후보 쪽)를 처리합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        metrics.eventReceived(watchedEvent);
+        String path = watchedEvent.getPath();
+        if (path == null) {
+            return;
+        }
+        if (watchedEvent.getType() == Event.EventType.NodeChildrenChanged && path.equals(namespace)) {
+            if (leaderName() != null) {
+                leaderExecutor.execute(() -> rebalance(false));
+            }
+            return;
+        }
+        String member = memberName;
+        if (member != null && path.equals(assignmentPath + "/" + member)) {
+            switch (watchedEvent.getType()) {
+                case NodeCreated:
+                case NodeDataChanged:
+                case NodeDeleted:
+                    readAssignment(member);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package distributed.systems.partition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * PartitionRing 클래스는 0 ~ partitions-1 번 파티션을 구성원들에게 일관 해싱(consistent hashing)으로 나누어 줍니다.
+ * - 구성원마다 가상 노드(virtualNodes개)를 64비트 해시 링에 올리고, 각 파티션은 자신의 해시 위치에서 시계 방향으로 처음 만나는 가상 노드의 구성원이 맡습니다.
+ * - 구성원이 추가되면 새 가상 노드 바로 앞 구간의 파티션만, 삭제되면 그 구성원이 맡던 파티션만 옮겨집니다.
+ *   옮겨지는 파티션은 평균 partitions / 구성원 수이고, 계산도 옮겨지는 파티션 수(+ 가상 노드 수)에 비례합니다.
+ * - 배치는 구성원 이름만으로 정해지므로, 같은 구성원 집합이면 추가 순서나 계산하는 프로세스(새 리더)와 관계없이 결과가 같습니다.
+ * - 스레드 안전하지 않습니다. 한 스레드(PartitionAssignment의 리더 작업 스레드)에서만 사용합니다.
+ */
+public class PartitionRing {
+
+    // 파티션 수
+    private final int partitions;
+
+    // 구성원당 가상 노드 수 (많을수록 파티션이 고르게 나뉘지만, 구성원 추가 / 삭제 때 링을 고치는 비용이 늘어납니다)
+    private final int virtualNodes;
+
+    // 가상 노드의 해시 → 구성원
+    private final NavigableMap<Long, String> ring = new TreeMap<>();
+
+    // 파티션 해시 위치를 오름차순으로 정렬한 배열과, 같은 순서의 파티션 번호
+    private final long[] sortedHashes;
+    private final int[] partitionAt;
+
+    // 파티션 번호 → 맡은 구성원 (구성원이 없으면 null)
+    private final String[] owners;
+
+    // 구성원 → 맡은 파티션
+    private final Map<String, BitSet> owned = new HashMap<>();
+
+    public PartitionRing(int partitions, int virtualNodes) {
+        if (partitions <= 0 || virtualNodes <= 0) {
+            throw new IllegalArgumentException("partitions and virtualNodes must be positive");
+        }
+        this.partitions = partitions;
+        this.virtualNodes = virtualNodes;
+        this.owners = new String[partitions];
+
+        // 해시 위치로 정렬해 두면, 링의 한 구간에 속하는 파티션을 이진 탐색으로 바로 찾을 수 있습니다.
+        Integer[] order = new Integer[partitions];
+        for (int p = 0; p < partitions; p++) {
+            order[p] = p;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(positionOf(a), positionOf(b)));
+        this.sortedHashes = new long[partitions];
+        this.partitionAt = new int[partitions];
+        for (int i = 0; i < partitions; i++) {
+            partitionAt[i] = order[i];
+            sortedHashes[i] = positionOf(partitionAt[i]);
+        }
+    }
+
+    public int partitions() {
+        return partitions;
+    }
+
+    /**
+     * add() 메서드는 구성원을 링에 올리고, 새 가상 노드 바로 앞 구간의 파티션을 넘겨받게 합니다.
+     *
+     * @param member  추가할 구성원
+     * @param changed 맡은 파티션이 바뀐 구성원을 담을 집합 (새 구성원과 파티션을 내준 구성원)
+     */
+    public void add(String member, Set<String> changed) {
+        if (owned.containsKey(member)) {
+            return;
+        }
+        owned.put(member, new BitSet(partitions));
+        for (int v = 0; v < virtualNodes; v++) {
+            long hash = hash(member, v);
+            // 해시가 겹치면(2^-64) 먼저 올라간 가상 노드를 그대로 둡니다.
+            if (ring.putIfAbsent(hash, member) != null) {
+                continue;
+            }
+            Long lower = ring.lowerKey(hash);
+            if (lower == null) {
+                lower = ring.lastKey();
+            }
+            if (lower == hash) {
+                // 링에 이 가상 노드 하나뿐이면 모든 파티션을 맡습니다.
+                for (int i = 0; i < partitions; i++) {
+                    assign(partitionAt[i], member, changed);
+                }
+            } else {
+                claimRange(lower, hash, member, changed);
+            }
+        }
+    }
+
+    // 링 구간 (from, to]에 해시 위치가 있는 파티션을 member에게 넘깁니다. from > to 이면 0을 지나 한 바퀴 도는 구간입니다.
+    private void claimRange(long from, long to, String member, Set<String> changed) {
+        int start = upperIndex(from);
+        int end = upperIndex(to);
+        if (from < to) {
+            for (int i = start; i < end; i++) {
+                assign(partitionAt[i], member, changed);
+            }
+        } else {
+            for (int i = start; i < partitions; i++) {
+                assign(partitionAt[i], member, changed);
+            }
+            for (int i = 0; i < end; i++) {
+                assign(partitionAt[i], member, changed);
+            }
+        }
+    }
+
+    /**
+     * remove() 메서드는 구성원의 가상 노드를 링에서 내리고, 그 구성원이 맡던 파티션만 다음 가상 노드의 구성원에게 넘깁니다.
+     *
+     * @param member  삭제할 구성원
+     * @param changed 맡은 파티션이 바뀐 구성원을 담을 집합 (삭제된 구성원과 파티션을 넘겨받은 구성원)
+     */
+    public void remove(String member, Set<String> changed) {
+        BitSet partitionsOfMember = owned.remove(member);
+        if (partitionsOfMember == null) {
+            return;
+        }
+        for (int v = 0; v < virtualNodes; v++) {
+            ring.remove(hash(member, v), member);
+        }
+        changed.add(member);
+        for (int p = partitionsOfMember.nextSetBit(0); p >= 0; p = partitionsOfMember.nextSetBit(p + 1)) {
+            if (ring.isEmpty()) {
+                owners[p] = null;
+                continue;
+            }
+            Map.Entry<Long, String> next = ring.ceilingEntry(positionOf(p));
+            String owner = next != null ? next.getValue() : ring.firstEntry().getValue();
+            owners[p] = null;
+            assign(p, owner, changed);
+        }
+    }
+
+    // 파티션 p를 owner에게 배정합니다. 이미 owner가 맡고 있으면 아무것도 하지 않습니다.
+    private void assign(int p, String owner, Set<String> changed) {
+        String previous = owners[p];
+        if (owner.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            owned.get(previous).clear(p);
+            changed.add(previous);
+        }
+        owners[p] = owner;
+        owned.get(owner).set(p);
+        changed.add(owner);
+    }
+
+    // sortedHashes에서 hash보다 큰 첫 위치 (부호 있는 long 순서로 비교합니다. TreeMap<Long>의 순서와 같습니다)
+    private int upperIndex(long hash) {
+        int low = 0;
+        int high = partitions;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedHashes[mid] <= hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long positionOf(int p) {
+        return mix(0x9E3779B97F4A7C15L * (p + 1));
+    }
+
+    /**
+     * partitionsOf() 메서드는 구성원이 맡은 파티션을 반환합니다. (복사본, 구성원이 아니면 null)
+     */
+    public BitSet partitionsOf(String member) {
+        BitSet partitionsOfMember = owned.get(member);
+        return partitionsOfMember != null ? (BitSet) partitionsOfMember.clone() : null;
+    }
+
+    public String ownerOf(int partition) {
+        return owners[partition];
+    }
+
+    public Set<String> members() {
+        return owned.keySet();
+    }
+
+    // 가상 노드의 해시: 구성원 이름(UTF-8)의 FNV-1a 64비트 해시에 가상 노드 번호를 섞은 뒤 비트를 고르게 퍼뜨립니다.
+    private static long hash(String member, int virtualNode) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : member.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash ^ (0x9E3779B97F4A7C15L * (virtualNode + 1)));
+    }
+
+    // MurmurHash3의 64비트 마무리 함수 (fmix64)
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB93FE1A85A53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
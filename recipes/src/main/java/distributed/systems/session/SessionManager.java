@@ -0,0 +1,208 @@
+package distributed.systems.session;
+
+import distributed.systems.eventlog.EventLog;
+import distributed.systems.eventlog.LogEvent;
+import org.apache.zookeeper.*;            // ZooKeeper 관련 모든 클래스를 임포트합니다.
+
+import java.io.IOException;                // 입출력 예외 처리를 위한 클래스를 임포트합니다.
+import java.util.List;                     // List 인터페이스를 임포트합니다.
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionManager 클래스는 한 JVM 안의 여러 레시피(LeaderElection, LeaderReElection, WatcherMonitoring 등)가
+ * 하나의 ZooKeeper 연결(세션)을 함께 사용하도록 연결을 소유하고 이벤트를 나누어 줍니다.
+ * - 레시피 N개가 각자 연결을 만들면 소켓, 하트비트, 서버의 세션 상태가 N개씩 생기지만, 이 클래스를 쓰면 1개입니다.
+ * - 레시피는 경로(또는 그 하위 트리)에 Watcher를 등록하고, Watch를 걸 때 이 객체를 Watcher로 넘깁니다.
+ *   이벤트가 오면 이벤트 경로와 그 상위 경로에 등록된 Watcher에 전달합니다. (경로 깊이만큼의 조회)
+ * - 연결 상태 변화(SyncConnected, Disconnected, Expired 등)는 등록된 모든 ConnectionListener에 전달합니다.
+ *   재연결 처리를 한 곳에서 할 수 있습니다.
+ * - Disconnected는 클라이언트가 세션 타임아웃 안에 같은 세션으로 다시 연결하므로 전달만 합니다.
+ *   Expired를 받으면 리스너에 전달한 뒤 새 세션을 만듭니다. 리스너는 그다음 SyncConnected에서
+ *   getZooKeeper()로 새 연결을 받아 후보 등록과 Watcher를 다시 만듭니다. 경로별 Watcher 등록은 그대로 유지됩니다.
+ */
+public class SessionManager implements Watcher, AutoCloseable {
+
+    /**
+     * ConnectionListener는 공유 세션의 연결 상태 변화를 통지받는 콜백입니다.
+     * - ZooKeeper 이벤트 스레드에서 호출되므로 오래 걸리는 작업을 하면 안 됩니다.
+     */
+    @FunctionalInterface
+    public interface ConnectionListener {
+        void connectionStateChanged(Event.KeeperState state);
+    }
+
+    // ZooKeeper 서버의 주소
+    private final String connectString;
+
+    // 세션 타임아웃 (밀리초)
+    private final int sessionTimeout;
+
+    // 공유 연결 (세션이 만료되면 새 연결로 교체됩니다)
+    private ZooKeeper zooKeeper;
+
+    // close()가 호출되었는지 여부 (닫은 뒤에는 새 세션을 만들지 않습니다)
+    private volatile boolean closed = false;
+
+    // 마지막으로 받은 연결 상태
+    private volatile Event.KeeperState state = Event.KeeperState.Disconnected;
+
+    // 처음 SyncConnected가 될 때까지 기다리는 래치
+    private final CountDownLatch connected = new CountDownLatch(1);
+
+    // 경로(하위 트리 포함)별로 등록된 Watcher 목록
+    private final ConcurrentHashMap<String, List<Watcher>> watchersByPath = new ConcurrentHashMap<>();
+
+    // 연결 상태 리스너 목록
+    private final List<ConnectionListener> connectionListeners = new CopyOnWriteArrayList<>();
+
+    public SessionManager(String connectString, int sessionTimeout) {
+        this.connectString = connectString;
+        this.sessionTimeout = sessionTimeout;
+    }
+
+    /**
+     * connect() 메서드는 공유 연결을 생성합니다. 연결 완료를 기다리려면 awaitConnected()를 사용합니다.
+     */
+    public synchronized void connect() throws IOException {
+        zooKeeper = new ZooKeeper(connectString, sessionTimeout, this);
+    }
+
+    /**
+     * awaitConnected() 메서드는 처음으로 SyncConnected가 될 때까지 기다립니다.
+     *
+     * @return 시간 안에 연결되었으면 true
+     */
+    public boolean awaitConnected(long timeout, TimeUnit unit) throws InterruptedException {
+        return connected.await(timeout, unit);
+    }
+
+    // 현재 연결. 새 세션의 이벤트 스레드가 교체 중인 연결을 읽지 않도록 connect() / renewSession()과 같은 락을 사용합니다.
+    public synchronized ZooKeeper getZooKeeper() {
+        return zooKeeper;
+    }
+
+    public Event.KeeperState getState() {
+        return state;
+    }
+
+    /**
+     * registerWatcher() 메서드는 경로와 그 하위 트리의 이벤트를 받을 Watcher를 등록합니다.
+     * - 실제 Watch는 레시피가 exists() / getData() 등을 호출할 때 이 SessionManager를 Watcher로 넘겨 등록합니다.
+     * - 같은 경로에 여러 Watcher를 등록할 수 있으며, 모두 같은 이벤트를 받습니다.
+     */
+    public void registerWatcher(String path, Watcher watcher) {
+        watchersByPath.computeIfAbsent(path, key -> new CopyOnWriteArrayList<>()).add(watcher);
+    }
+
+    public void unregisterWatcher(String path, Watcher watcher) {
+        watchersByPath.computeIfPresent(path, (key, watchers) -> {
+            watchers.remove(watcher);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    public void addConnectionListener(ConnectionListener listener) {
+        connectionListeners.add(listener);
+    }
+
+    public void removeConnectionListener(ConnectionListener listener) {
+        connectionListeners.remove(listener);
+    }
+
+    /**
+     * deleteOwnedNode() 메서드는 레시피가 만든 Ephemeral znode를 삭제합니다.
+     * - 공유 세션에서는 레시피 하나를 닫아도 세션이 계속되므로, Ephemeral znode가 자동으로 삭제되지 않습니다.
+     * - 이미 삭제된 노드는 무시합니다.
+     */
+    public void deleteOwnedNode(String path) {
+        try {
+            getZooKeeper().delete(path, -1);
+        } catch (KeeperException.NoNodeException e) {
+            // 이미 삭제되었으면 할 일이 없습니다.
+        } catch (KeeperException e) {
+            System.err.println("Exception while deleting " + path + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while deleting " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * process() 메서드는 공유 연결의 모든 이벤트를 받아 나누어 줍니다.
+     * - 연결 상태 이벤트(None)는 모든 ConnectionListener에 전달합니다.
+     * - 노드 이벤트는 이벤트 경로부터 루트 방향으로 올라가며 등록된 Watcher에 전달합니다.
+     *
+     * @param watchedEvent ZooKeeper에서 발생한 이벤트 정보를 담은 객체
+     */
+    @Override
+    public void process(WatchedEvent watchedEvent) {
+        if (watchedEvent.getType() == Event.EventType.None) {
+            state = watchedEvent.getState();
+            if (state == Event.KeeperState.SyncConnected) {
+                connected.countDown();
+            }
+            for (ConnectionListener listener : connectionListeners) {
+                listener.connectionStateChanged(state);
+            }
+            // 리스너가 만료를 기록한 뒤에 새 세션을 만들어야, 새 세션의 SyncConnected를 재등록 신호로 알아볼 수 있습니다.
+            if (state == Event.KeeperState.Expired && !closed) {
+                renewSession();
+            }
+            return;
+        }
+
+        String path = watchedEvent.getPath();
+        while (path != null) {
+            List<Watcher> watchers = watchersByPath.get(path);
+            if (watchers != null) {
+                for (Watcher watcher : watchers) {
+                    watcher.process(watchedEvent);
+                }
+            }
+            path = parentOf(path);
+        }
+    }
+
+    /**
+     * renewSession() 메서드는 만료된 세션 대신 새 세션을 만듭니다.
+     * - 생성자는 연결 요청만 보내고 즉시 반환하므로 이벤트 스레드에서 호출해도 됩니다.
+     * - 만료된 세션은 이미 서버에서 정리되었으므로 close()하지 않습니다.
+     */
+    private synchronized void renewSession() {
+        EventLog.log(LogEvent.SESSION_EXPIRED);
+        try {
+            zooKeeper = new ZooKeeper(connectString, sessionTimeout, this);
+        } catch (IOException e) {
+            System.err.println("Failed to create a new ZooKeeper session: " + e.getMessage());
+        }
+    }
+
+    // "/a/b" → "/a", "/a" → "/", "/" → null
+    private static String parentOf(String path) {
+        if (path.equals("/")) {
+            return null;
+        }
+        int slash = path.lastIndexOf('/');
+        return slash <= 0 ? "/" : path.substring(0, slash);
+    }
+
+    /**
+     * close() 메서드는 공유 연결을 종료합니다. 모든 레시피를 닫은 뒤에 호출해야 합니다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        ZooKeeper zooKeeper = getZooKeeper();
+        if (zooKeeper != null) {
+            try {
+                zooKeeper.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Interrupted while closing ZooKeeper connection: " + e.getMessage());
+            }
+        }
+    }
+}